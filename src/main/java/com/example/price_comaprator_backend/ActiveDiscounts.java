@@ -0,0 +1,218 @@
+package com.example.price_comaprator_backend;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The discounts active on one day, with their basket lookup index and {@link DiscountRankings}.
+ * <p>
+ * {@link DiscountActivationScheduler} keeps two sets per snapshot and alternates between them: the live set, which
+ * readers see and which is not modified while it is live, and a standby set one rollover behind. At midnight the
+ * standby set catches up with the live one on the rows the previous rollover changed ({@link #catchUp}), applies
+ * the new day's activations and expiries and becomes live, and the old live set becomes the standby. A rollover
+ * thus only touches the rows whose state changed, and a set is written to again one day after it stops being live,
+ * long after the requests that read it have finished.
+ */
+public final class ActiveDiscounts {
+
+    private static final int[] NO_ROWS = new int[0];
+
+    private final List<Discount> discounts;
+    // Active rows (positions in discounts).
+    private final BitSet activeRows;
+    // Active rows per DiscountKeys key, ascending. The arrays are never modified, so both sets of a pair share them.
+    private final Map<String, int[]> rowsByKey;
+    private final DiscountRankings rankings;
+    private LocalDate day;
+
+    /**
+     * @param discounts Every discount rows are numbered against, e.g. {@link CatalogSnapshot#getDiscounts()}.
+     * @param day       The day the set starts out describing; nothing is active yet.
+     */
+    ActiveDiscounts(List<Discount> discounts, LocalDate day) {
+        this.discounts = discounts;
+        this.day = day;
+        this.activeRows = new BitSet(discounts.size());
+        this.rowsByKey = new HashMap<>();
+        this.rankings = new DiscountRankings(discounts);
+    }
+
+    private ActiveDiscounts(ActiveDiscounts source, LocalDate day) {
+        this.discounts = source.discounts;
+        this.day = day;
+        this.activeRows = (BitSet) source.activeRows.clone();
+        this.rowsByKey = new HashMap<>(source.rowsByKey);
+        this.rankings = new DiscountRankings(source.rankings);
+    }
+
+    /**
+     * @return A set holding exactly the given discounts, for a day that has no live set.
+     */
+    static ActiveDiscounts of(LocalDate day, List<Discount> activeDiscounts) {
+        ActiveDiscounts active = new ActiveDiscounts(activeDiscounts, day);
+        int[] rows = new int[activeDiscounts.size()];
+        for (int row = 0; row < rows.length; row++) rows[row] = row;
+        active.activateAll(rows);
+        active.publishRankings();
+        return active;
+    }
+
+    public LocalDate getDay() {
+        return day;
+    }
+
+    /**
+     * @return The active discounts, in catalog order.
+     */
+    public List<Discount> discounts() {
+        List<Discount> active = new ArrayList<>(activeRows.cardinality());
+        for (int row = activeRows.nextSetBit(0); row >= 0; row = activeRows.nextSetBit(row + 1)) {
+            active.add(discounts.get(row));
+        }
+        return active;
+    }
+
+    /**
+     * @return The active discounts on exactly this product, brand and store, matched like {@link DiscountKeys}.
+     */
+    public List<Discount> discountsFor(BasketItem item) {
+        String key = DiscountKeys.keyOf(item);
+        int[] rows = key == null ? null : rowsByKey.get(key);
+        if (rows == null) return Collections.emptyList();
+        List<Discount> matched = new ArrayList<>(rows.length);
+        for (int row : rows) matched.add(discounts.get(row));
+        return matched;
+    }
+
+    /**
+     * @return The best-discount rankings, as of the last day rollover.
+     */
+    public DiscountRankings getRankings() {
+        return rankings;
+    }
+
+    public int size() {
+        return activeRows.cardinality();
+    }
+
+    /**
+     * @return The ascending active rows with this {@link DiscountKeys} key; do not modify.
+     */
+    int[] rowsFor(String key) {
+        return rowsByKey.getOrDefault(key, NO_ROWS);
+    }
+
+    /**
+     * @return A new, unpublished set for {@code day} holding the same active rows, e.g. the standby set of a pair.
+     * The key arrays are shared and the rankings copied, without ranking any row again.
+     */
+    ActiveDiscounts copyFor(LocalDate day) {
+        return new ActiveDiscounts(this, day);
+    }
+
+    /**
+     * Brings this standby set level with {@code live} on the given rows, the ones the last rollover changed.
+     * The key arrays of those rows are taken over from {@code live} rather than rebuilt.
+     */
+    void catchUp(ActiveDiscounts live, int[] changedRows) {
+        for (int row : changedRows) {
+            boolean active = live.activeRows.get(row);
+            if (active == activeRows.get(row)) continue;
+            activeRows.set(row, active);
+            if (active) rankings.activate(row);
+            else rankings.expire(row);
+            String key = DiscountKeys.keyOf(discounts.get(row));
+            if (key == null) continue;
+            int[] rows = live.rowsByKey.get(key);
+            if (rows == null) rowsByKey.remove(key);
+            else rowsByKey.put(key, rows);
+        }
+    }
+
+    /**
+     * Moves the set to the next day it describes, before that day's events are applied.
+     */
+    void moveTo(LocalDate day) {
+        this.day = day;
+    }
+
+    /**
+     * @return The number of rankings that changed since the last publish, see {@link DiscountRankings#publish()}.
+     */
+    int publishRankings() {
+        return rankings.publish();
+    }
+
+    /**
+     * Activates the given rows at once, e.g. everything active on the day a set is built for: the rows of each key
+     * are counted first, so its array is built once instead of growing by one row per activation.
+     *
+     * @param rows Rows in ascending order.
+     */
+    void activateAll(int[] rows) {
+        String[] keys = new String[rows.length];
+        Map<String, int[]> counts = new HashMap<>();
+        for (int i = 0; i < rows.length; i++) {
+            if (activeRows.get(rows[i])) continue;
+            activeRows.set(rows[i]);
+            rankings.activate(rows[i]);
+            keys[i] = DiscountKeys.keyOf(discounts.get(rows[i]));
+            if (keys[i] != null) counts.computeIfAbsent(keys[i], key -> new int[1])[0]++;
+        }
+        Map<String, int[]> added = new HashMap<>(counts.size() * 4 / 3 + 1);
+        for (Map.Entry<String, int[]> count : counts.entrySet()) {
+            int[] existing = rowsByKey.getOrDefault(count.getKey(), NO_ROWS);
+            added.put(count.getKey(), Arrays.copyOf(existing, existing.length + count.getValue()[0]));
+            count.getValue()[0] = existing.length;
+        }
+        for (int i = 0; i < rows.length; i++) {
+            if (keys[i] == null) continue;
+            added.get(keys[i])[counts.get(keys[i])[0]++] = rows[i];
+        }
+        for (Map.Entry<String, int[]> entry : added.entrySet()) {
+            // Only keys that already had rows can be out of order.
+            if (rowsByKey.containsKey(entry.getKey())) Arrays.sort(entry.getValue());
+            rowsByKey.put(entry.getKey(), entry.getValue());
+        }
+    }
+
+    void activate(int row) {
+        if (activeRows.get(row)) return;
+        activeRows.set(row);
+        rankings.activate(row);
+        String key = DiscountKeys.keyOf(discounts.get(row));
+        if (key == null) return;
+        int[] rows = rowsByKey.getOrDefault(key, NO_ROWS);
+        int at = -Arrays.binarySearch(rows, row) - 1;
+        int[] added = new int[rows.length + 1];
+        System.arraycopy(rows, 0, added, 0, at);
+        added[at] = row;
+        System.arraycopy(rows, at, added, at + 1, rows.length - at);
+        rowsByKey.put(key, added);
+    }
+
+    void expire(int row) {
+        if (!activeRows.get(row)) return;
+        activeRows.clear(row);
+        rankings.expire(row);
+        String key = DiscountKeys.keyOf(discounts.get(row));
+        int[] rows = key == null ? null : rowsByKey.get(key);
+        if (rows == null) return;
+        int at = Arrays.binarySearch(rows, row);
+        if (at < 0) return;
+        if (rows.length == 1) {
+            rowsByKey.remove(key);
+            return;
+        }
+        int[] removed = new int[rows.length - 1];
+        System.arraycopy(rows, 0, removed, 0, at);
+        System.arraycopy(rows, at + 1, removed, at, rows.length - at - 1);
+        rowsByKey.put(key, removed);
+    }
+}
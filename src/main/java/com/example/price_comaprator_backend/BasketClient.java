@@ -1,6 +1,7 @@
 package com.example.price_comaprator_backend;
 
 
+import java.time.LocalDate;
 import java.util.*;
 
 
@@ -13,16 +14,13 @@ public class BasketClient {
         ShoppingBasket basket = new ShoppingBasket();
 
         DiscountService discountService = new DiscountService();
-        CSVLoaderService loader = new CSVLoaderService();
+        CatalogService catalogService = new CatalogService(new CSVLoaderService(), discountService);
+        catalogService.start();
 
-        List<String> csvFileNames = List.of(
-                "kaufland_2025-05-01.csv", "kaufland_2025-05-08.csv",
-                "lidl_2025-05-01.csv", "lidl_2025-05-08.csv",
-                "profi_2025-05-01.csv", "profi_2025-05-08.csv",
-                "emag_2025-05-20.csv","altex_2025-05-20.csv"
-        );
-
-        List<Product> products = loader.loadAllCSVs(csvFileNames);
+        CatalogSnapshot catalog = catalogService.getSnapshot();
+        List<Product> products = catalog.getProducts();
+        LocalDate today = LocalDate.now();
+        ActiveDiscounts activeDiscounts = ActiveDiscounts.of(today, catalog.getDiscountValidity().activeOn(today));
 
         while (true) {
             System.out.println("\n=== MAIN MENU ===");
@@ -102,19 +100,7 @@ public class BasketClient {
                 }
 
                 case "4" -> {
-                    List<String> discountFileNames = List.of(
-                            "kaufland_discounts_2025-05-01.csv",
-                            "kaufland_discounts_2025-05-08.csv",
-                            "lidl_discounts_2025-05-01.csv",
-                            "lidl_discounts_2025-05-08.csv",
-                            "profi_discounts_2025-05-01.csv",
-                            "profi_discounts_2025-05-08.csv",
-                            "emag_discounts_2025-05-20.csv",
-                            "altex_discounts-2025-05-20.csv"
-                    );
-
-                    List<Discount> allDiscounts = discountService.loadDiscounts(discountFileNames);
-                    List<Discount> relevantDiscounts = discountService.findDiscountsForBasket(basket.getItems(), allDiscounts);
+                    List<Discount> relevantDiscounts = discountService.findDiscountsForBasket(basket.getItems(), activeDiscounts);
 
                     if (relevantDiscounts.isEmpty()) {
                         System.out.println("ℹ️ No discounts available for these products.");
@@ -129,20 +115,8 @@ public class BasketClient {
                 }
 
                 case "5" -> {
-                    List<String> discountFileNames = List.of(
-                            "kaufland_discounts_2025-05-01.csv",
-                            "kaufland_discounts_2025-05-08.csv",
-                            "lidl_discounts_2025-05-01.csv",
-                            "lidl_discounts_2025-05-08.csv",
-                            "profi_discounts_2025-05-01.csv",
-                            "profi_discounts_2025-05-08.csv",
-                            "emag_discounts_2025-05-20.csv",
-                            "altex_discounts-2025-05-20.csv"
-                    );
-                    List<Discount> allDiscounts = discountService.loadDiscounts(discountFileNames);
-
                     System.out.println("=== Best Discounts Available ===");
-                    List<Discount> bestDiscounts = discountService.getBestDiscounts(allDiscounts, 10);
+                    List<Discount> bestDiscounts = discountService.getBestDiscounts(activeDiscounts, 10, null, null);
                     if (bestDiscounts.isEmpty()) {
                         System.out.println("No discounts found.");
                     } else {
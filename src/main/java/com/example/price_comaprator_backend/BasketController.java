@@ -2,10 +2,12 @@ package com.example.price_comaprator_backend;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.http.ResponseEntity;
 
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -20,38 +22,15 @@ public class BasketController {
     private final Basket sessionBasket = new Basket();
     private final DiscountService discountService;
     private final BasketOptimizationService optimizationService;
+    private final CatalogService catalogService;
+    private final DiscountActivationScheduler activationScheduler;
 
-
-    private final List<Product> controllerLoadedProducts;
-    private final List<Discount> controllerLoadedDiscounts;
-
-    public BasketController(DiscountService discountService, CSVLoaderService csvLoaderService,
-                            BasketOptimizationService optimizationService) {
+    public BasketController(DiscountService discountService, CatalogService catalogService,
+                            BasketOptimizationService optimizationService, DiscountActivationScheduler activationScheduler) {
         this.discountService = discountService;
-
+        this.catalogService = catalogService;
         this.optimizationService = optimizationService;
-
-        logger.info("BasketController initializing...");
-        logger.warn("BasketController loads its own product and discount data. This data is NOT synchronized with BasketOptimizationService's reload mechanism or DiscountService's potential updates.");
-
-        // Loads an initial snapshot of products specific to this controller instance.
-        this.controllerLoadedProducts = csvLoaderService.loadAllCSVs(List.of(
-                "emag_2025-05-20.csv",
-                "kaufland_2025-05-01.csv", "kaufland_2025-05-08.csv",
-                "lidl_2025-05-01.csv", "lidl_2025-05-08.csv",
-                "profi_2025-05-01.csv", "profi_2025-05-08.csv",
-                "altex_2025-05-20.csv"
-        ));
-        logger.info("BasketController: Loaded {} products for its internal use.", this.controllerLoadedProducts.size());
-
-
-        this.controllerLoadedDiscounts = discountService.loadDiscounts(List.of(
-                "altex_discounts-2025-05-20.csv", "emag_discounts_2025-05-20.csv",
-                "kaufland_discounts_2025-05-01.csv", "kaufland_discounts_2025-05-08.csv",
-                "lidl_discounts_2025-05-01.csv", "lidl_discounts_2025-05-08.csv",
-                "profi_discounts_2025-05-01.csv", "profi_discounts_2025-05-08.csv"
-        ));
-        logger.info("BasketController: Loaded {} discounts for its internal use.", this.controllerLoadedDiscounts.size());
+        this.activationScheduler = activationScheduler;
     }
 
     @PostMapping("/add")
@@ -59,12 +38,9 @@ public class BasketController {
         logger.info("Request to add to basket: Product='{}', Brand='{}', Quantity={}, Source='{}'",
                 item.getProductName(), item.getBrand(), item.getQuantity(), item.getSource());
 
-        // Validates if the product (name, brand, source combination) exists in the controller's loaded product list.
-        boolean productExists = controllerLoadedProducts.stream().anyMatch(p ->
-                p.getProductName().equalsIgnoreCase(item.getProductName()) &&
-                        (item.getBrand() == null || p.getBrand() == null || p.getBrand().equalsIgnoreCase(item.getBrand())) &&
-                        (item.getSource() == null || p.getSource() == null || p.getSource().equalsIgnoreCase(item.getSource()))
-        );
+        // Validates if the product (name, brand, source combination) exists in the current catalog snapshot.
+        boolean productExists = catalogService.getSnapshot().getExistenceIndex()
+                .contains(item.getProductName(), item.getBrand(), item.getSource());
 
         if (!productExists) {
             logger.warn("Attempt to add non-existent product to basket: Name='{}', Brand='{}', Source='{}'",
@@ -107,19 +83,23 @@ public class BasketController {
     }
 
     @GetMapping("/discounts")
-    public List<Discount> getDiscountsForBasket() {
-        logger.info("Request for discounts applicable to current basket.");
-        // Uses the controller's initially loaded snapshot of discounts.
-        List<Discount> relevantDiscounts = discountService.findDiscountsForBasket(sessionBasket.getItems(), controllerLoadedDiscounts);
+    public List<Discount> getDiscountsForBasket(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate asOf) {
+        LocalDate date = asOf != null ? asOf : LocalDate.now();
+        logger.info("Request for discounts applicable to current basket, active on {}.", date);
+        List<Discount> relevantDiscounts = discountService.findDiscountsForBasket(sessionBasket.getItems(), activationScheduler.activeOn(date));
         logger.info("Found {} relevant discounts for the basket.", relevantDiscounts.size());
         return relevantDiscounts;
     }
 
     @GetMapping("/discounts/new")
-    public List<Discount> getNewDiscounts(@RequestParam(defaultValue = "1") int days) {
-        logger.info("Request for new discounts from the last {} day(s).", days);
+    public List<Discount> getNewDiscounts(
+            @RequestParam(defaultValue = "1") int days,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate asOf) {
+        LocalDate date = asOf != null ? asOf : LocalDate.now();
+        logger.info("Request for new discounts from the last {} day(s) up to {}.", days, date);
 
-        List<Discount> newDiscounts = discountService.findNewDiscounts(controllerLoadedDiscounts, days);
+        List<Discount> newDiscounts = discountService.findNewDiscounts(catalogService.getSnapshot().getDiscountValidity(), days, date);
         logger.info("Found {} new discounts.", newDiscounts.size());
         return newDiscounts;
     }
@@ -24,4 +24,17 @@ public class BasketOptimizationController {
         List<OptimizedShoppingList> result = optimizationService.optimizeAndSplitByStore(basket);
         return ResponseEntity.ok(result);
     }
+
+    @PostMapping("/stores")
+    public ResponseEntity<StoreVisitPlan> optimizeStoreVisits(
+            @RequestBody ShoppingBasket basket,
+            @RequestParam(defaultValue = "0") double storePenalty,
+            @RequestParam(required = false) Integer maxStores
+    ) {
+        if (basket == null || basket.getItems() == null || basket.getItems().isEmpty()
+                || storePenalty < 0 || (maxStores != null && maxStores < 1)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(optimizationService.optimizeStoreVisits(basket, storePenalty, maxStores));
+    }
 }
@@ -1,96 +1,48 @@
 package com.example.price_comaprator_backend;
 
-import com.opencsv.bean.CsvToBeanBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.nio.charset.StandardCharsets;
-import java.text.Normalizer;
+import java.time.LocalDate;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 @Service
 public class BasketOptimizationService {
 
     private static final Logger logger = LoggerFactory.getLogger(BasketOptimizationService.class);
+    private static final double FUZZY_MATCH_THRESHOLD = 0.2;
 
 
     private final List<PriceAlert> userAlerts_BOS = new ArrayList<>();
 
-    private final List<String> csvFilenames = List.of(
-            "altex_2025-05-20.csv", "emag_2025-05-20.csv",
-            "kaufland_2025-05-01.csv", "kaufland_2025-05-08.csv",
-            "lidl_2025-05-01.csv", "lidl_2025-05-08.csv",
-            "profi_2025-05-01.csv", "profi_2025-05-08.csv"
-    );
+    private final CatalogService catalogService;
+    private final DiscountActivationScheduler activationScheduler;
+    private final long storeVisitTimeBudgetMs;
+    private final int storeVisitExactMaxStores;
 
-    private List<Product> allProducts = new ArrayList<>();
-
-    public BasketOptimizationService() {
-        logger.info("BasketOptimizationService: Initializing and loading products...");
-        this.allProducts = loadAllProductsFromCsv();
-        logger.info("BasketOptimizationService: ✅ Initially loaded and processed {} products total.", this.allProducts.size());
-    }
-
-    public synchronized List<Product> getAllProducts() {
-        return this.allProducts;
+    public BasketOptimizationService(CatalogService catalogService, DiscountActivationScheduler activationScheduler) {
+        this(catalogService, activationScheduler, 100L, 20);
     }
 
-    private List<Product> loadAllProductsFromCsv() {
-        logger.info("BasketOptimizationService: Starting to load product data from all CSVs.");
-        List<Product> products = new ArrayList<>();
-        ClassLoader classLoader = getClass().getClassLoader();
-
-        for (String filename : csvFilenames) {
-            logger.debug("BasketOptimizationService: Attempting to load file: {}", filename);
-            try (InputStream is = classLoader.getResourceAsStream(filename);
-                 InputStreamReader reader = new InputStreamReader(Objects.requireNonNull(is, "InputStream for " + filename + " was null. File not found in resources?"), StandardCharsets.UTF_8)) {
-
-                List<Product> fileProducts = new CsvToBeanBuilder<Product>(reader)
-                        .withType(Product.class)
-                        .withSeparator(';')
-                        .withIgnoreLeadingWhiteSpace(true)
-                        .build()
-                        .parse();
-
-                List<Product> validProducts = fileProducts.stream()
-                        .filter(p -> p.getProductName() != null && !p.getProductName().trim().isEmpty() &&
-                                p.getPrice() != null && p.getPrice() > 0 &&
-                                p.getPackageUnit() != null && !p.getPackageUnit().trim().isEmpty() &&
-                                p.getPackageQuantity() != null && !p.getPackageQuantity().trim().isEmpty())
-                        .peek(p -> {
-                            p.setSource(filename.split("_")[0]);
-                            logger.trace("RAW_LOAD - File: {}, Product: '{}', Parsed Price: {}, Parsed Currency: {}",
-                                    filename, p.getProductName(), p.getPrice(), p.getCurrency());
-                            p.calculateStandardizedMetrics();
-                            logger.trace("METRICS_CALC - Product: '{}', Category: {}, StdUnit: {}, Price/StdUnit: {}, Src: {}",
-                                    p.getProductName(), p.getProductCategory(), p.getStandardUnit(),
-                                    (p.getPricePerStandardUnit() != null ? String.format("%.2f", p.getPricePerStandardUnit()) : "null"),
-                                    p.getSource());
-                        })
-                        .collect(Collectors.toList());
-
-                products.addAll(validProducts);
-                logger.info("BasketOptimizationService: Loaded {} valid products from {}.", validProducts.size(), filename);
-            } catch (NullPointerException e) {
-                logger.error("BasketOptimizationService: ❌ Resource not found (NullPointerException) for: {}. Check filename. Error: {}", filename, e.getMessage(), e);
-            } catch (Exception e) {
-                logger.error("BasketOptimizationService: ❌ Error reading or processing file {}: {}", filename, e.getMessage(), e);
-            }
-        }
-        logger.info("BasketOptimizationService: Finished loading products from CSVs. Total processed: {}.", products.size());
-        return products;
+    @Autowired
+    public BasketOptimizationService(CatalogService catalogService, DiscountActivationScheduler activationScheduler,
+                                     @Value("${catalog.optimizer.time-budget-ms:100}") long storeVisitTimeBudgetMs,
+                                     @Value("${catalog.optimizer.exact-max-stores:20}") int storeVisitExactMaxStores) {
+        this.catalogService = catalogService;
+        this.activationScheduler = activationScheduler;
+        this.storeVisitTimeBudgetMs = Math.max(1L, storeVisitTimeBudgetMs);
+        this.storeVisitExactMaxStores = storeVisitExactMaxStores;
+        logger.info("BasketOptimizationService: Using shared catalog snapshot v{} with {} products.",
+                catalogService.getSnapshot().getVersion(), catalogService.getSnapshot().getProducts().size());
     }
 
-    public synchronized void refreshProducts() {
-        logger.info("BasketOptimizationService: <<<< Starting manual refresh of products... >>>>");
-        this.allProducts = loadAllProductsFromCsv();
-        logger.info("BasketOptimizationService: ✅<<<< Finished manual refresh. {} products loaded. >>>>", this.allProducts.size());
-
-
+    public List<Product> getAllProducts() {
+        return catalogService.getSnapshot().getProducts();
     }
 
     public List<OptimizedBasketItem> optimizeBasket(ShoppingBasket basket) {
@@ -100,8 +52,12 @@ public class BasketOptimizationService {
             return Collections.emptyList();
         }
 
-        List<Product> currentProductList = getAllProducts();
-        if (currentProductList.isEmpty()) {
+        CatalogSnapshot snapshot = catalogService.getSnapshot();
+        ProductColumns columns = snapshot.getProductColumns();
+        List<Product> currentProductList = snapshot.getProducts();
+        // Today's prices with active discounts applied; an item costs what the customer pays at the till.
+        EffectivePriceTable prices = activationScheduler.effectivePrices(snapshot, LocalDate.now());
+        if (columns.size() == 0) {
             logger.error("Product list is empty. Cannot optimize basket.");
             return Collections.emptyList();
         }
@@ -109,7 +65,7 @@ public class BasketOptimizationService {
 
         Map<String, Integer> groupedQuantities = basket.getItems().stream()
                 .collect(Collectors.groupingBy(
-                        item -> normalize(item.getProductName()),
+                        item -> TextNormalizer.normalize(item.getProductName()),
                         Collectors.summingInt(BasketItem::getQuantity)
                 ));
 
@@ -121,36 +77,30 @@ public class BasketOptimizationService {
             logger.debug("Optimizing item: '{}' (normalized), quantity: {}", normalizedInput, totalQuantity);
 
 
-            Optional<Product> bestPriceMatch = currentProductList.stream()
-                    .filter(p -> p.getProductName() != null && p.getPrice() != null)
-                    .filter(p -> normalize(p.getProductName()).equals(normalizedInput))
-                    .min(Comparator.comparing(Product::getPrice));
+            // Cheapest exact match after discounts; on equal prices the first row in catalog order wins.
+            int bestPriceRow = prices.cheapest(snapshot.getNameIndex().rowsByPrice(normalizedInput));
 
-            if (bestPriceMatch.isPresent()) {
-                Product product = bestPriceMatch.get();
-                logger.info("Optimize - Exact name match for '{}': Found {} from {} at price {}.",
-                        normalizedInput, product.getProductName(), product.getSource(), product.getPrice());
-                optimizedItems.add(new OptimizedBasketItem(product.getProductName(), totalQuantity, product.getSource(), product.getPrice()));
+            if (bestPriceRow >= 0) {
+                Product product = currentProductList.get(bestPriceRow);
+                logger.info("Optimize - Exact name match for '{}': Found {} from {} at price {} ({}% off).",
+                        normalizedInput, product.getProductName(), product.getSource(), prices.price(bestPriceRow), prices.percentageOff(bestPriceRow));
+                optimizedItems.add(new OptimizedBasketItem(product.getProductName(), totalQuantity, product.getSource(), prices.price(bestPriceRow)));
                 continue;
             }
 
 
-            List<String> inputTokens = tokenize(normalizedInput);
-            List<Map.Entry<Product, Double>> scoredMatches = currentProductList.stream()
-                    .filter(p -> p.getProductName() != null && p.getPrice() != null)
-                    .map(p -> new AbstractMap.SimpleEntry<>(p, tokenOverlapScore(inputTokens, tokenize(normalize(p.getProductName())))))
-                    .filter(e -> e.getValue() >= 0.2)
-                    .sorted((e1, e2) -> {
-                        int cmp = Double.compare(e2.getValue(), e1.getValue());
-                        return (cmp == 0) ? Double.compare(e1.getKey().getPrice(), e2.getKey().getPrice()) : cmp;
-                    })
-                    .collect(Collectors.toList());
-
-            if (!scoredMatches.isEmpty()) {
-                Product product = scoredMatches.get(0).getKey();
-                logger.info("Optimize - Fallback similarity match for '{}': Found {} from {} at price {} (Score: {:.2f})",
-                        normalizedInput, product.getProductName(), product.getSource(), product.getPrice(), scoredMatches.get(0).getValue());
-                optimizedItems.add(new OptimizedBasketItem(product.getProductName(), totalQuantity, product.getSource(), product.getPrice()));
+            // Best token overlap of at least 0.2, ties broken by the lower price after discounts, then by catalog order.
+            // Only candidate rows from the snapshot's fuzzy index (inverted token index or LSH buckets) are scored.
+            int[] inputTokens = TokenSimilarity.queryTokenIds(TextNormalizer.tokens(normalizedInput), snapshot.getDictionaries().getTokens());
+            FuzzyMatchIndex fuzzyIndex = snapshot.getFuzzyIndex();
+            int bestScoredRow = bestFuzzyMatch(fuzzyIndex, prices, inputTokens);
+
+            if (bestScoredRow >= 0) {
+                Product product = currentProductList.get(bestScoredRow);
+                logger.info("Optimize - Fallback similarity match for '{}': Found {} from {} at price {} (Score: {})",
+                        normalizedInput, product.getProductName(), product.getSource(), prices.price(bestScoredRow),
+                        String.format("%.2f", fuzzyIndex.score(inputTokens, bestScoredRow)));
+                optimizedItems.add(new OptimizedBasketItem(product.getProductName(), totalQuantity, product.getSource(), prices.price(bestScoredRow)));
             } else {
                 logger.warn("Optimize - No match (exact or similarity) found for basket item: '{}'", normalizedInput);
             }
@@ -178,35 +128,128 @@ public class BasketOptimizationService {
     }
 
 
-    private static String normalize(String s) {
-        if (s == null) return "";
-        return Normalizer.normalize(s, Normalizer.Form.NFD)
-                .replaceAll("\\p{M}", "")
-                .toLowerCase()
-                .replaceAll("[^a-z0-9 ]", "")
-                .trim();
-    }
-
+    /**
+     * Plans which stores to visit for a basket, trading item prices against a penalty per store visited, instead of
+     * sending the shopper to the cheapest store for every single item.
+     * Each item can be bought at any store selling a product of the same normalized name (the closest name by token
+     * similarity if none matches exactly), at its discounted price for today.
+     * The time budget {@code catalog.optimizer.time-budget-ms} covers both gathering the offers and the search (see
+     * {@link StoreVisitOptimizer}). Once it is spent, items without an exact name match skip the fuzzy lookup and are
+     * reported unavailable, and the plan is not reported optimal.
+     *
+     * @param basket       The items to buy.
+     * @param storePenalty The cost of visiting one more store, in the basket's currency; 0 only minimizes prices.
+     * @param maxStores    The largest number of stores to visit, or null for no limit.
+     * @return The per-store shopping lists of the best plan found, with its costs.
+     */
+    public StoreVisitPlan optimizeStoreVisits(ShoppingBasket basket, double storePenalty, Integer maxStores) {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(storeVisitTimeBudgetMs);
+        CatalogSnapshot snapshot = catalogService.getSnapshot();
+        List<Product> currentProductList = snapshot.getProducts();
+        EffectivePriceTable prices = activationScheduler.effectivePrices(snapshot, LocalDate.now());
 
-    private static List<String> tokenize(String input) {
-        if (input == null || input.isBlank()) return Collections.emptyList();
-        return Arrays.asList(input.split("\\s+"));
-    }
+        Map<String, Integer> groupedQuantities = basket.getItems().stream()
+                .collect(Collectors.groupingBy(
+                        item -> TextNormalizer.normalize(item.getProductName()),
+                        LinkedHashMap::new,
+                        Collectors.summingInt(BasketItem::getQuantity)
+                ));
+        List<String> itemNames = new ArrayList<>(groupedQuantities.keySet());
+
+        // Cheapest row of every item at every store selling it; stores are numbered in order of first appearance.
+        Map<String, Integer> storeIndexes = new LinkedHashMap<>();
+        List<Map<Integer, Integer>> rowsByStore = new ArrayList<>(itemNames.size());
+        boolean offersComplete = true;
+        for (String normalizedInput : itemNames) {
+            Map<Integer, Integer> itemRows = new HashMap<>();
+            int[] offers = storeVisitOffers(snapshot, prices, normalizedInput, deadline);
+            if (offers == null) {
+                offersComplete = false;
+                offers = new int[0];
+            }
+            for (int row : offers) {
+                String store = currentProductList.get(row).getSource();
+                if (store == null) continue;
+                int storeIndex = storeIndexes.computeIfAbsent(store, s -> storeIndexes.size());
+                Integer current = itemRows.get(storeIndex);
+                if (current == null || prices.price(row) < prices.price(current)) itemRows.put(storeIndex, row);
+            }
+            rowsByStore.add(itemRows);
+        }
+        int storeCount = storeIndexes.size();
+        double[][] costs = new double[itemNames.size()][storeCount];
+        for (int item = 0; item < itemNames.size(); item++) {
+            Arrays.fill(costs[item], Double.POSITIVE_INFINITY);
+            int quantity = groupedQuantities.get(itemNames.get(item));
+            for (Map.Entry<Integer, Integer> offer : rowsByStore.get(item).entrySet()) {
+                costs[item][offer.getKey()] = prices.price(offer.getValue()) * quantity;
+            }
+        }
 
+        StoreVisitOptimizer.Plan plan = new StoreVisitOptimizer(costs, storeCount, storePenalty,
+                maxStores == null ? storeCount : maxStores, storeVisitExactMaxStores, deadline).solve();
 
-    private static double tokenOverlapScore(List<String> tokens1, List<String> tokens2) {
-        if (tokens1.isEmpty() || tokens2.isEmpty()) return 0.0;
-        Set<String> set1 = new HashSet<>(tokens1);
-        Set<String> set2 = new HashSet<>(tokens2);
-        set1.remove(""); set2.remove("");
-        if (set1.isEmpty() || set2.isEmpty()) return 0.0;
+        String[] storeNames = storeIndexes.keySet().toArray(new String[0]);
+        Map<String, List<OptimizedBasketItem>> itemsByStore = new TreeMap<>();
+        List<String> unavailableItems = new ArrayList<>();
+        for (int item = 0; item < itemNames.size(); item++) {
+            int store = plan.storeOf(item);
+            if (store < 0) {
+                unavailableItems.add(itemNames.get(item));
+                continue;
+            }
+            int row = rowsByStore.get(item).get(store);
+            itemsByStore.computeIfAbsent(storeNames[store], s -> new ArrayList<>())
+                    .add(new OptimizedBasketItem(currentProductList.get(row).getProductName(),
+                            groupedQuantities.get(itemNames.get(item)), storeNames[store], prices.price(row)));
+        }
+        List<OptimizedShoppingList> storeLists = itemsByStore.entrySet().stream()
+                .map(e -> new OptimizedShoppingList(e.getKey(), e.getValue()))
+                .collect(Collectors.toList());
 
-        long intersectionSize = set1.stream().filter(set2::contains).count();
-        long unionSize = set1.size() + set2.size() - intersectionSize;
-        return unionSize > 0 ? (double) intersectionSize / unionSize : 0.0;
+        StoreVisitPlan result = new StoreVisitPlan(storeLists, unavailableItems, plan.getStoresVisited(),
+                plan.getItemsCost(), plan.getStoresVisited() * Math.max(0, storePenalty), plan.isOptimal() && offersComplete);
+        logger.info("Store-visit plan for {} item types over {} stores: {} store(s), items {} + visits {} = {} ({}, {} ms).",
+                itemNames.size(), storeCount, result.getStoresVisited(), String.format("%.2f", result.getItemsCost()),
+                String.format("%.2f", result.getStoreVisitCost()), String.format("%.2f", result.getTotalCost()),
+                result.isOptimal() ? "optimal" : "best found within budget",
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return result;
     }
 
+    /**
+     * @return The rows an item can be bought as: every row of its exact normalized name, or else every row named like
+     * its closest fuzzy match; null if there is no exact match and {@code deadline} has passed, so the fuzzy lookup
+     * was skipped.
+     */
+    private int[] storeVisitOffers(CatalogSnapshot snapshot, EffectivePriceTable prices, String normalizedInput, long deadline) {
+        int[] rows = snapshot.getNameIndex().rowsByPrice(normalizedInput);
+        if (rows.length > 0) return rows;
+        if (System.nanoTime() - deadline >= 0) {
+            logger.warn("Optimize - Time budget spent, skipping the fuzzy lookup for basket item: '{}'", normalizedInput);
+            return null;
+        }
+        int[] inputTokens = TokenSimilarity.queryTokenIds(TextNormalizer.tokens(normalizedInput), snapshot.getDictionaries().getTokens());
+        int bestScoredRow = bestFuzzyMatch(snapshot.getFuzzyIndex(), prices, inputTokens);
+        if (bestScoredRow < 0) {
+            logger.warn("Optimize - No match (exact or similarity) found for basket item: '{}'", normalizedInput);
+            return new int[0];
+        }
+        return snapshot.getNameIndex().rowsByPrice(snapshot.getProducts().get(bestScoredRow).getNormalizedName());
+    }
 
+    /**
+     * @return The row with the best token overlap of at least {@link #FUZZY_MATCH_THRESHOLD}, the lowest price after
+     * discounts among equally close rows, or -1 if no row is close enough.
+     */
+    private static int bestFuzzyMatch(FuzzyMatchIndex fuzzyIndex, EffectivePriceTable prices, int[] inputTokens) {
+        int[] bestMatches = fuzzyIndex.bestMatches(inputTokens, FUZZY_MATCH_THRESHOLD, 1);
+        if (bestMatches.length == 0) return -1;
+        // The index breaks score ties on the list price, so every row tied with the best score is compared again here.
+        double bestScore = fuzzyIndex.score(inputTokens, bestMatches[0]);
+        return prices.cheapest(fuzzyIndex.bestMatches(inputTokens, bestScore, Integer.MAX_VALUE));
+    }
 
     public void addPriceAlert_BOS(PriceAlert alert) {
         userAlerts_BOS.add(alert);
@@ -217,9 +260,12 @@ public class BasketOptimizationService {
     public List<PriceAlertMatch> checkPriceAlerts_BOS() {
         logger.info("(BOS Internal) Checking {} internal alerts.", userAlerts_BOS.size());
         List<PriceAlertMatch> matches = new ArrayList<>();
-        List<Product> currentProductList = getAllProducts();
+        CatalogSnapshot snapshot = catalogService.getSnapshot();
+        ProductColumns columns = snapshot.getProductColumns();
+        List<Product> currentProductList = snapshot.getProducts();
+        EffectivePriceTable prices = activationScheduler.effectivePrices(snapshot, LocalDate.now());
 
-        if (currentProductList.isEmpty()) {
+        if (columns.size() == 0) {
             logger.warn("(BOS Internal) Product list is empty. Cannot check internal alerts.");
             return matches;
         }
@@ -228,19 +274,20 @@ public class BasketOptimizationService {
                 logger.warn("(BOS Internal) Skipping internal alert for '{}' due to missing currency.", alert.getProductName());
                 continue;
             }
-            String normalizedAlertName = normalize(alert.getProductName());
-            currentProductList.stream()
-                    .filter(p -> p.getProductName() != null && p.getPrice() != null && p.getCurrency() != null)
-                    .filter(p -> normalize(p.getProductName()).equals(normalizedAlertName))
-                    .filter(p -> p.getCurrency().equalsIgnoreCase(alert.getCurrency()))
-                    .filter(p -> p.getPrice() <= alert.getTargetPrice())
-                    .forEach(p -> {
-                        matches.add(new PriceAlertMatch(
-                                p.getProductName(), p.getPrice(), alert.getTargetPrice(), p.getSource()));
-                        logger.info("✅ (BOS Internal) Alert matched: '{}' at {} {} in store {} (Target: {} {})",
-                                p.getProductName(), p.getPrice(), p.getCurrency(), p.getSource(),
-                                alert.getTargetPrice(), alert.getCurrency());
-                    });
+            String normalizedAlertName = TextNormalizer.normalize(alert.getProductName());
+            BitSet alertCurrencies = snapshot.getDictionaries().getCurrencies()
+                    .codesMatching(currency -> currency.equalsIgnoreCase(alert.getCurrency()));
+            for (int row : prices.rowsAtOrBelow(snapshot.getNameIndex().rowsByPrice(normalizedAlertName), alert.getTargetPrice())) {
+                int currencyCode = columns.currencyCode(row);
+                if (currencyCode == StringDictionary.NO_CODE || !alertCurrencies.get(currencyCode)) continue;
+
+                Product p = currentProductList.get(row);
+                matches.add(new PriceAlertMatch(
+                        p.getProductName(), prices.price(row), alert.getTargetPrice(), p.getSource()));
+                logger.info("✅ (BOS Internal) Alert matched: '{}' at {} {} in store {} (Target: {} {})",
+                        p.getProductName(), prices.price(row), p.getCurrency(), p.getSource(),
+                        alert.getTargetPrice(), alert.getCurrency());
+            }
         }
         logger.info("(BOS Internal) Finished checking internal alerts. {} matches found.", matches.size());
         return matches;
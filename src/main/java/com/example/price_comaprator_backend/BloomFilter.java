@@ -0,0 +1,58 @@
+package com.example.price_comaprator_backend;
+
+/**
+ * Fixed-size Bloom filter over strings: answers "definitely absent" or "possibly present" from a few bit probes,
+ * without storing the strings. The probe positions come from one 64-bit FNV-1a hash split into two halves
+ * (double hashing), so a lookup hashes its key once.
+ */
+public final class BloomFilter {
+
+    private final long[] bits;
+    private final long bitCount;
+    private final int hashCount;
+
+    /**
+     * @param expectedKeys The number of keys that will be added.
+     * @param bitsPerKey   Filter size per key; 10 bits with 7 hashes gives about 1% false positives.
+     */
+    public BloomFilter(int expectedKeys, int bitsPerKey) {
+        long size = Math.max(64L, (long) expectedKeys * bitsPerKey);
+        this.bits = new long[(int) ((size + 63) >>> 6)];
+        this.bitCount = (long) bits.length << 6;
+        // k = ln 2 * bits per key minimizes the false positive rate.
+        this.hashCount = Math.max(1, (int) Math.round(bitsPerKey * Math.log(2)));
+    }
+
+    public void add(String key) {
+        long hash = hash(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Integer.toUnsignedLong(h1 + i * h2) % bitCount;
+            bits[(int) (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    /**
+     * @return false if the key was never added; true if it probably was.
+     */
+    public boolean mightContain(String key) {
+        long hash = hash(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Integer.toUnsignedLong(h1 + i * h2) % bitCount;
+            if ((bits[(int) (bit >>> 6)] & 1L << bit) == 0) return false;
+        }
+        return true;
+    }
+
+    private static long hash(String key) {
+        long hash = 0xCBF29CE484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001B3L;
+        }
+        return hash;
+    }
+}
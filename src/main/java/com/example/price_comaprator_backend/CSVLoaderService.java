@@ -8,83 +8,192 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.URISyntaxException;
+import java.net.URL;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 
 @Service
 public class CSVLoaderService {
 
     private static final Logger logger = LoggerFactory.getLogger(CSVLoaderService.class);
+    static final long LARGE_FEED_BYTES = 32L * 1024 * 1024;
+    private static final Pattern FEED_DATE = Pattern.compile("(\\d{4}-\\d{2}-\\d{2})");
 
     public List<Product> loadProductsFromCSV(String fileName) {
         logger.debug("CSVLoaderService: Attempting to load products from CSV file: {}", fileName);
         try {
-            InputStream inputStream = getClass().getClassLoader().getResourceAsStream(fileName);
-
-            if (inputStream == null) {
-                logger.error("CSVLoaderService: Resource file not found: {}. Ensure it's in src/main/resources.", fileName);
-                throw new RuntimeException("Resource file not found: " + fileName);
-            }
-
-
-            try (InputStreamReader reader = new InputStreamReader(inputStream, StandardCharsets.UTF_8)) {
+            return prepareProducts(fileName, parseResource(fileName));
+        } catch (Exception e) {
+            logger.error("CSVLoaderService: Failed to load or parse CSV file '{}': {}", fileName, e.getMessage(), e);
+            throw new RuntimeException("Failed to load or parse CSV file '" + fileName + "': " + e.getMessage(), e);
+        }
+    }
 
-                var csvParser = new CSVParserBuilder()
-                        .withSeparator(';')
-                        .build();
+    /**
+     * Loads a product feed from the filesystem. Feeds of at least {@link #LARGE_FEED_BYTES} are memory-mapped
+     * and parsed as parallel chunks on up to {@code parallelism} threads; smaller feeds are streamed.
+     *
+     * @param path        The feed file, named like "store_yyyy-MM-dd.csv".
+     * @param parallelism Maximum number of chunks parsed at once for a large feed.
+     * @return The valid products of the feed in file order.
+     */
+    public List<Product> loadProductsFromFile(Path path, int parallelism) {
+        String fileName = path.getFileName().toString();
+        logger.debug("CSVLoaderService: Attempting to load products from feed file: {}", path);
+        try {
+            return prepareProducts(fileName, parseFile(path, parallelism));
+        } catch (Exception e) {
+            logger.error("CSVLoaderService: Failed to load or parse CSV file '{}': {}", path, e.getMessage(), e);
+            throw new RuntimeException("Failed to load or parse CSV file '" + path + "': " + e.getMessage(), e);
+        }
+    }
 
+    private List<Product> parseFile(Path path, int parallelism) throws IOException {
+        try {
+            long size = Files.size(path);
+            if (size >= LARGE_FEED_BYTES) {
+                logger.info("CSVLoaderService: {} is {} MB, parsing it as memory-mapped chunks with parallelism {}.",
+                        path.getFileName(), size >> 20, parallelism);
+                return FeedCsvParser.parseProducts(path, parallelism);
+            }
+            try (Reader reader = new InputStreamReader(Files.newInputStream(path), StandardCharsets.UTF_8)) {
+                return FeedCsvParser.parseProducts(reader);
+            }
+        } catch (FeedCsvParser.FallbackRequiredException e) {
+            logger.warn("CSVLoaderService: {} is not in the plain feed layout ({}). Falling back to OpenCSV.", path.getFileName(), e.getMessage());
+        }
+        try (Reader reader = new InputStreamReader(Files.newInputStream(path), StandardCharsets.UTF_8)) {
+            return parseProductsWithOpenCsv(reader);
+        }
+    }
 
-                var csvReader = new CSVReaderBuilder(reader)
-                        .withCSVParser(csvParser)
+    /**
+     * Parses a classpath feed with the streaming {@link FeedCsvParser}, re-reading it with OpenCSV
+     * if the file uses a layout the streaming parser does not handle. A large feed that lives on the
+     * filesystem (e.g. an exploded classpath) goes through the chunked file path instead.
+     */
+    private List<Product> parseResource(String fileName) throws IOException {
+        Path resourceFile = resourceFile(fileName);
+        if (resourceFile != null && Files.size(resourceFile) >= LARGE_FEED_BYTES) {
+            return parseFile(resourceFile, FeedIngestor.defaultParallelism());
+        }
+        try (Reader reader = openResource(fileName)) {
+            return FeedCsvParser.parseProducts(reader);
+        } catch (FeedCsvParser.FallbackRequiredException e) {
+            logger.warn("CSVLoaderService: {} is not in the plain feed layout ({}). Falling back to OpenCSV.", fileName, e.getMessage());
+        }
+        try (Reader reader = openResource(fileName)) {
+            return parseProductsWithOpenCsv(reader);
+        }
+    }
 
-                        .build();
+    private Path resourceFile(String fileName) {
+        URL url = getClass().getClassLoader().getResource(fileName);
+        if (url == null || !"file".equals(url.getProtocol())) return null;
+        try {
+            return Paths.get(url.toURI());
+        } catch (URISyntaxException e) {
+            return null;
+        }
+    }
 
-                CsvToBean<Product> csvToBean = new CsvToBeanBuilder<Product>(csvReader)
-                        .withType(Product.class)
-                        .withIgnoreLeadingWhiteSpace(true)
-                        .build();
+    private Reader openResource(String fileName) {
+        InputStream inputStream = getClass().getClassLoader().getResourceAsStream(fileName);
+        if (inputStream == null) {
+            logger.error("CSVLoaderService: Resource file not found: {}. Ensure it's in src/main/resources.", fileName);
+            throw new RuntimeException("Resource file not found: " + fileName);
+        }
+        return new InputStreamReader(inputStream, StandardCharsets.UTF_8);
+    }
 
-                List<Product> products = csvToBean.parse();
+    static List<Product> parseProductsWithOpenCsv(Reader reader) {
+        var csvParser = new CSVParserBuilder()
+                .withSeparator(';')
+                .build();
 
-                // Extracting the source (store name) from the filename.
-                String source = "unknown";
-                if (fileName != null && fileName.contains("_")) {
-                    source = fileName.split("_")[0].toLowerCase();
-                } else {
-                    logger.warn("CSVLoaderService: Could not determine source from filename: {}. Defaulting to 'unknown'.", fileName);
-                }
+        var csvReader = new CSVReaderBuilder(reader)
+                .withCSVParser(csvParser)
+                .build();
 
+        CsvToBean<Product> csvToBean = new CsvToBeanBuilder<Product>(csvReader)
+                .withType(Product.class)
+                .withIgnoreLeadingWhiteSpace(true)
+                .build();
 
-                for (Product product : products) {
-                    product.setSource(source);
+        return csvToBean.parse();
+    }
 
-                }
-                logger.info("CSVLoaderService: Successfully loaded {} products from {}.", products.size(), fileName);
-                return products;
+    /**
+     * Tags parsed rows with the store and price date taken from the filename, drops incomplete rows
+     * and computes the standardized unit price and matching keys of the rest.
+     */
+    private List<Product> prepareProducts(String fileName, List<Product> parsedProducts) {
+        // Extracting the source (store name) and the price date from the filename.
+        String source = "unknown";
+        if (fileName != null && fileName.contains("_")) {
+            source = fileName.split("_")[0].toLowerCase();
+        } else {
+            logger.warn("CSVLoaderService: Could not determine source from filename: {}. Defaulting to 'unknown'.", fileName);
+        }
+        LocalDate priceDate = extractDate(fileName);
 
+        List<Product> products = new ArrayList<>(parsedProducts.size());
+        for (Product product : parsedProducts) {
+            if (!isValid(product)) {
+                logger.trace("CSVLoaderService: Skipping incomplete row in {}: {}", fileName, product);
+                continue;
             }
-
-        } catch (Exception e) {
-            logger.error("CSVLoaderService: Failed to load or parse CSV file '{}': {}", fileName, e.getMessage(), e);
-            throw new RuntimeException("Failed to load or parse CSV file '" + fileName + "': " + e.getMessage(), e);
+            product.setSource(source);
+            product.setPriceDate(priceDate);
+            product.calculateStandardizedMetrics();
+            product.precomputeNameKeys();
+            products.add(product);
         }
+        logger.info("CSVLoaderService: Successfully loaded {} valid products (of {} rows) from {}.", products.size(), parsedProducts.size(), fileName);
+        return products;
     }
 
-    public List<Product> loadAllCSVs(List<String> fileNames) {
-        logger.info("CSVLoaderService: Loading products from {} CSV files.", fileNames.size());
-        List<Product> allProducts = new ArrayList<>();
-        for (String fileName : fileNames) {
-            try {
-                allProducts.addAll(loadProductsFromCSV(fileName));
-            } catch (RuntimeException e) {
-                logger.error("CSVLoaderService: Failed to load products from {} during batch load. Continuing with other files. Error: {}", fileName, e.getMessage());
-            }
+    /**
+     * A row is usable only if it has a name, a positive price and a package size to standardize against.
+     */
+    private static boolean isValid(Product p) {
+        return p.getProductName() != null && !p.getProductName().trim().isEmpty() &&
+                p.getPrice() != null && p.getPrice() > 0 &&
+                p.getPackageUnit() != null && !p.getPackageUnit().trim().isEmpty() &&
+                p.getPackageQuantity() != null && !p.getPackageQuantity().trim().isEmpty();
+    }
+
+    /**
+     * Extracts the price date from a feed filename such as "lidl_2025-05-01.csv".
+     *
+     * @return The date embedded in the filename, or null if there is none.
+     */
+    static LocalDate extractDate(String fileName) {
+        if (fileName == null) return null;
+        Matcher matcher = FEED_DATE.matcher(fileName);
+        if (!matcher.find()) {
+            logger.warn("CSVLoaderService: Could not determine price date from filename: {}.", fileName);
+            return null;
+        }
+        try {
+            return LocalDate.parse(matcher.group(1));
+        } catch (DateTimeParseException e) {
+            logger.warn("CSVLoaderService: Invalid price date in filename {}: {}", fileName, e.getMessage());
+            return null;
         }
-        logger.info("CSVLoaderService: Finished loading all specified CSV files. Total products loaded: {}.", allProducts.size());
-        return allProducts;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,71 @@
+package com.example.price_comaprator_backend;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * The {@link StringDictionary} of every dictionary-encoded product attribute of a catalog snapshot.
+ * Each snapshot encodes all of its rows into fresh dictionaries, so codes of values that left the catalog are not
+ * kept, and codes must not be compared across snapshots. The rows themselves are never written to, since they are
+ * shared with older snapshots; the per-row codes live in the snapshot's {@link ProductColumns}.
+ */
+public final class CatalogDictionaries {
+
+    private static final CatalogDictionaries EMPTY = new CatalogDictionaries(StringDictionary.empty(), StringDictionary.empty(),
+            StringDictionary.empty(), StringDictionary.empty(), StringDictionary.empty());
+
+    private final StringDictionary brands;
+    private final StringDictionary categories;
+    private final StringDictionary stores;
+    private final StringDictionary currencies;
+    private final StringDictionary tokens;
+
+    private CatalogDictionaries(StringDictionary brands, StringDictionary categories, StringDictionary stores,
+                                StringDictionary currencies, StringDictionary tokens) {
+        this.brands = brands;
+        this.categories = categories;
+        this.stores = stores;
+        this.currencies = currencies;
+        this.tokens = tokens;
+    }
+
+    public static CatalogDictionaries empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Builds the dictionaries of exactly the given rows, without modifying them.
+     */
+    public static CatalogDictionaries encode(Collection<List<Product>> productFeeds) {
+        StringDictionary.Builder brandCodes = StringDictionary.builder();
+        StringDictionary.Builder categoryCodes = StringDictionary.builder();
+        StringDictionary.Builder storeCodes = StringDictionary.builder();
+        StringDictionary.Builder currencyCodes = StringDictionary.builder();
+        StringDictionary.Builder tokenIds = StringDictionary.builder();
+
+        for (List<Product> products : productFeeds) {
+            for (Product product : products) {
+                brandCodes.encode(product.getBrand());
+                categoryCodes.encode(product.getProductCategory());
+                storeCodes.encode(product.getSource());
+                currencyCodes.encode(product.getCurrency());
+                for (String token : product.getNameTokens()) {
+                    tokenIds.encode(token);
+                }
+            }
+        }
+
+        return new CatalogDictionaries(brandCodes.build(), categoryCodes.build(), storeCodes.build(),
+                currencyCodes.build(), tokenIds.build());
+    }
+
+    public StringDictionary getBrands() { return brands; }
+    public StringDictionary getCategories() { return categories; }
+    public StringDictionary getStores() { return stores; }
+    public StringDictionary getCurrencies() { return currencies; }
+
+    /**
+     * @return The global dictionary of normalized product-name tokens, see {@link TokenSimilarity}.
+     */
+    public StringDictionary getTokens() { return tokens; }
+}
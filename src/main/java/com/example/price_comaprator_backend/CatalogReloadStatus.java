@@ -0,0 +1,74 @@
+package com.example.price_comaprator_backend;
+
+import java.time.LocalDateTime;
+
+/**
+ * Immutable report of the most recent catalog reload, exposed through the admin endpoints.
+ */
+public final class CatalogReloadStatus {
+
+    public enum State {
+        IDLE, RUNNING, FAILED
+    }
+
+    private final State state;
+    private final long version;
+    private final LocalDateTime lastStartedAt;
+    private final LocalDateTime lastCompletedAt;
+    private final long lastDurationMs;
+    private final int productCount;
+    private final int discountCount;
+    private final String lastError;
+
+    public CatalogReloadStatus(State state, long version, LocalDateTime lastStartedAt, LocalDateTime lastCompletedAt,
+                               long lastDurationMs, int productCount, int discountCount, String lastError) {
+        this.state = state;
+        this.version = version;
+        this.lastStartedAt = lastStartedAt;
+        this.lastCompletedAt = lastCompletedAt;
+        this.lastDurationMs = lastDurationMs;
+        this.productCount = productCount;
+        this.discountCount = discountCount;
+        this.lastError = lastError;
+    }
+
+    public static CatalogReloadStatus initial() {
+        return new CatalogReloadStatus(State.IDLE, 0L, null, null, 0L, 0, 0, null);
+    }
+
+    public CatalogReloadStatus started(LocalDateTime startedAt) {
+        return new CatalogReloadStatus(State.RUNNING, version, startedAt, lastCompletedAt,
+                lastDurationMs, productCount, discountCount, lastError);
+    }
+
+    public CatalogReloadStatus completed(CatalogSnapshot snapshot, long durationMs) {
+        return new CatalogReloadStatus(State.IDLE, snapshot.getVersion(), lastStartedAt, snapshot.getLoadedAt(),
+                durationMs, snapshot.getProducts().size(), snapshot.getDiscounts().size(), null);
+    }
+
+    public CatalogReloadStatus failed(String error, long durationMs) {
+        return new CatalogReloadStatus(State.FAILED, version, lastStartedAt, LocalDateTime.now(),
+                durationMs, productCount, discountCount, error);
+    }
+
+    public State getState() { return state; }
+    public long getVersion() { return version; }
+    public LocalDateTime getLastStartedAt() { return lastStartedAt; }
+    public LocalDateTime getLastCompletedAt() { return lastCompletedAt; }
+    public long getLastDurationMs() { return lastDurationMs; }
+    public int getProductCount() { return productCount; }
+    public int getDiscountCount() { return discountCount; }
+    public String getLastError() { return lastError; }
+
+    @Override
+    public String toString() {
+        return "CatalogReloadStatus{" +
+                "state=" + state +
+                ", version=" + version +
+                ", lastDurationMs=" + lastDurationMs +
+                ", productCount=" + productCount +
+                ", discountCount=" + discountCount +
+                ", lastError='" + lastError + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,437 @@
+package com.example.price_comaprator_backend;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Owns the single shared {@link CatalogSnapshot}. Every product and discount feed is parsed exactly once per load,
+ * and every endpoint reads the same snapshot, so a reload becomes visible everywhere at the same time.
+ * Reloads run off the request path and publish through a volatile swap, so readers never block on a reload.
+ * <p>
+ * Feeds come from the bundled classpath resources unless {@code catalog.data-dir} points at a directory, in which
+ * case every "store_yyyy-MM-dd.csv" in it (and every discount feed in its "discounts" subdirectory) is loaded and
+ * the directory is watched: a created, modified or deleted file re-parses only the changed feed. The new snapshot's
+ * indexes, the snapshot file and the snapshot listeners' state are still rebuilt for the whole catalog.
+ * <p>
+ * With {@code catalog.snapshot-file} set, every published snapshot is also written to a {@link CatalogSnapshotFile},
+ * and startup restores each feed from it instead of parsing the CSV unless the source file changed since.
+ */
+@Service
+public class CatalogService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogService.class);
+
+    static final List<String> PRODUCT_FEEDS = List.of(
+            "altex_2025-05-20.csv", "emag_2025-05-20.csv",
+            "kaufland_2025-05-01.csv", "kaufland_2025-05-08.csv",
+            "lidl_2025-05-01.csv", "lidl_2025-05-08.csv",
+            "profi_2025-05-01.csv", "profi_2025-05-08.csv"
+    );
+
+    static final List<String> DISCOUNT_FEEDS = List.of(
+            "altex_discounts-2025-05-20.csv", "emag_discounts_2025-05-20.csv",
+            "kaufland_discounts_2025-05-01.csv", "kaufland_discounts_2025-05-08.csv",
+            "lidl_discounts_2025-05-01.csv", "lidl_discounts_2025-05-08.csv",
+            "profi_discounts_2025-05-01.csv", "profi_discounts_2025-05-08.csv"
+    );
+
+    private final CSVLoaderService csvLoaderService;
+    private final DiscountService discountService;
+    private final int ingestParallelism;
+    private final Path dataDirectory;
+    private final Path snapshotFile;
+    // Null unless catalog.fuzzy-match.strategy=lsh; every snapshot then builds a ProductLshIndex of this shape.
+    private final ProductLshIndex.Settings lshSettings;
+    // Stamp of the source file behind every feed of the current snapshot, written along with it to the snapshot file.
+    private final Map<String, CatalogSnapshotFile.FeedStamp> productStamps = new ConcurrentHashMap<>();
+    private final Map<String, CatalogSnapshotFile.FeedStamp> discountStamps = new ConcurrentHashMap<>();
+    private final AtomicLong versionCounter = new AtomicLong();
+    private final Object reloadLock = new Object();
+    private final long reloadIntervalMinutes;
+    private final ScheduledExecutorService reloadExecutor;
+    // Set while a requested reload is queued or running, so further requests join it.
+    private final AtomicBoolean reloadQueued = new AtomicBoolean();
+    private volatile FeedDirectoryWatcher feedWatcher;
+    private final List<Consumer<CatalogSnapshot>> snapshotListeners = new CopyOnWriteArrayList<>();
+
+    // Readers never lock: they read whichever snapshot was last published by a reload.
+    private volatile CatalogSnapshot snapshot = CatalogSnapshot.empty();
+    private volatile CatalogReloadStatus reloadStatus = CatalogReloadStatus.initial();
+
+    public CatalogService(CSVLoaderService csvLoaderService, DiscountService discountService) {
+        this(csvLoaderService, discountService, 0L, 0, "", "", "inverted-index", 16, 2);
+    }
+
+    @Autowired
+    public CatalogService(CSVLoaderService csvLoaderService, DiscountService discountService,
+                          @Value("${catalog.reload.interval-minutes:0}") long reloadIntervalMinutes,
+                          @Value("${catalog.ingest.parallelism:0}") int ingestParallelism,
+                          @Value("${catalog.data-dir:}") String dataDirectory,
+                          @Value("${catalog.snapshot-file:}") String snapshotFile,
+                          @Value("${catalog.fuzzy-match.strategy:inverted-index}") String fuzzyMatchStrategy,
+                          @Value("${catalog.fuzzy-match.lsh-bands:16}") int lshBands,
+                          @Value("${catalog.fuzzy-match.lsh-rows:2}") int lshRowsPerBand) {
+        this.csvLoaderService = csvLoaderService;
+        this.discountService = discountService;
+        this.reloadIntervalMinutes = reloadIntervalMinutes;
+        this.ingestParallelism = ingestParallelism > 0 ? ingestParallelism : FeedIngestor.defaultParallelism();
+        this.dataDirectory = dataDirectory == null || dataDirectory.isBlank() ? null : Paths.get(dataDirectory.trim());
+        this.snapshotFile = snapshotFile == null || snapshotFile.isBlank() ? null : Paths.get(snapshotFile.trim());
+        if (this.dataDirectory != null && !Files.isDirectory(this.dataDirectory)) {
+            throw new IllegalStateException("catalog.data-dir does not point to a directory: " + this.dataDirectory.toAbsolutePath());
+        }
+        this.lshSettings = switch (fuzzyMatchStrategy == null ? "" : fuzzyMatchStrategy.trim().toLowerCase(Locale.ROOT)) {
+            case "", "inverted-index" -> null;
+            case "lsh" -> new ProductLshIndex.Settings(lshBands, lshRowsPerBand);
+            default -> throw new IllegalStateException("catalog.fuzzy-match.strategy must be 'inverted-index' or 'lsh', got: " + fuzzyMatchStrategy);
+        };
+        if (lshSettings != null) {
+            logger.info("CatalogService: Fuzzy matching uses MinHash LSH with {} bands of {} rows.", lshBands, lshRowsPerBand);
+        }
+        this.reloadExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "catalog-reload");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Loads the initial snapshot, then starts watching the data directory and the periodic reload. Kept out of the
+     * constructor so neither the watcher nor the reload thread can call back into a half-built service.
+     */
+    @PostConstruct
+    public void start() {
+        logger.info("CatalogService: Loading initial catalog snapshot from {}...",
+                dataDirectory == null ? "bundled resources" : dataDirectory.toAbsolutePath());
+        load(openSnapshotFile());
+        this.feedWatcher = dataDirectory == null ? null : startWatcher(dataDirectory);
+
+        if (reloadIntervalMinutes > 0) {
+            reloadExecutor.scheduleWithFixedDelay(this::requestReload, reloadIntervalMinutes, reloadIntervalMinutes, TimeUnit.MINUTES);
+            logger.info("CatalogService: Scheduled background catalog reload every {} minute(s).", reloadIntervalMinutes);
+        }
+    }
+
+    public CatalogSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    public CatalogReloadStatus getReloadStatus() {
+        return reloadStatus;
+    }
+
+    /**
+     * Registers a callback run on the reloading thread for every new snapshot, just before it is published. It does
+     * not receive the snapshot current at registration, which the caller can read with {@link #getSnapshot()}.
+     */
+    public void addSnapshotListener(Consumer<CatalogSnapshot> listener) {
+        snapshotListeners.add(listener);
+    }
+
+    /**
+     * Schedules a reload on the background reload thread and returns immediately.
+     * If a reload is already queued or running, the caller joins that one instead of starting another.
+     *
+     * @return The status of the queued or running reload, already {@link CatalogReloadStatus.State#RUNNING}.
+     */
+    public CatalogReloadStatus requestReload() {
+        if (!reloadQueued.compareAndSet(false, true)) {
+            logger.info("CatalogService: Reload already in progress, joining it.");
+            return reloadStatus;
+        }
+        // Recorded before queuing, so the caller never sees the state of the previous reload.
+        CatalogReloadStatus queued = reloadStatus.started(LocalDateTime.now());
+        reloadStatus = queued;
+        reloadExecutor.execute(() -> {
+            try {
+                reload();
+            } catch (RuntimeException e) {
+                // Already logged and recorded in the reload status by reload().
+            } finally {
+                reloadQueued.set(false);
+            }
+        });
+        return queued;
+    }
+
+    /**
+     * Parses every product and discount feed once and publishes the result as a new snapshot.
+     * Runs on the calling thread; only concurrent reloads wait on each other, readers keep using the old snapshot.
+     *
+     * @return The freshly published snapshot.
+     */
+    public CatalogSnapshot reload() {
+        return load(null);
+    }
+
+    /**
+     * @param stored Snapshot file to restore unchanged feeds from, or null to parse every feed.
+     */
+    private CatalogSnapshot load(CatalogSnapshotFile stored) {
+        synchronized (reloadLock) {
+            long start = System.nanoTime();
+            reloadStatus = reloadStatus.started(LocalDateTime.now());
+            try {
+                Map<String, List<Product>> products;
+                Map<String, List<Discount>> discounts;
+                if (dataDirectory == null) {
+                    products = loadFeeds(PRODUCT_FEEDS, productLoader(stored), "product");
+                    discounts = loadFeeds(DISCOUNT_FEEDS, discountLoader(stored), "discount");
+                } else {
+                    products = loadFeeds(FeedDirectoryWatcher.listProductFeeds(dataDirectory), productLoader(stored), "product");
+                    discounts = loadFeeds(FeedDirectoryWatcher.listDiscountFeeds(dataDirectory), discountLoader(stored), "discount");
+                }
+                return publish(products, discounts, start);
+            } catch (IOException e) {
+                throw reloadFailed(new UncheckedIOException("Could not list feeds in " + dataDirectory + ": " + e.getMessage(), e), start);
+            } catch (RuntimeException e) {
+                throw reloadFailed(e, start);
+            }
+        }
+    }
+
+    /**
+     * Re-parses only the given feeds of the data directory and publishes a snapshot that reuses every other feed
+     * of the current one. A feed whose file no longer exists is dropped; a feed that fails to parse keeps its
+     * previous rows.
+     * <p>
+     * Only parsing is incremental. Publishing still costs as much as a full reload without the parsing: the new
+     * snapshot builds every index over all rows, the snapshot file is rewritten, and snapshot listeners rebuild
+     * their own state.
+     *
+     * @param productFeeds  Product feed file names that were created, modified or deleted.
+     * @param discountFeeds Discount feed file names that were created, modified or deleted.
+     * @return The freshly published snapshot.
+     */
+    public CatalogSnapshot applyFeedChanges(Collection<String> productFeeds, Collection<String> discountFeeds) {
+        if (dataDirectory == null) {
+            throw new IllegalStateException("Incremental reloads need catalog.data-dir to be set.");
+        }
+        synchronized (reloadLock) {
+            long start = System.nanoTime();
+            reloadStatus = reloadStatus.started(LocalDateTime.now());
+            try {
+                CatalogSnapshot current = snapshot;
+                Map<String, List<Product>> products = mergeFeeds(current.getProductFeeds(), productFeeds,
+                        dataDirectory, productLoader(null), "product");
+                Map<String, List<Discount>> discounts = mergeFeeds(current.getDiscountFeeds(), discountFeeds,
+                        dataDirectory.resolve(FeedDirectoryWatcher.DISCOUNTS_SUBDIRECTORY), discountLoader(null), "discount");
+                logger.info("CatalogService: Re-parsed {} product and {} discount feed(s) changed in {}.",
+                        productFeeds.size(), discountFeeds.size(), dataDirectory);
+                return publish(products, discounts, start);
+            } catch (RuntimeException e) {
+                throw reloadFailed(e, start);
+            }
+        }
+    }
+
+    /**
+     * @return A loader that restores a product feed from {@code stored} when its source file is unchanged and parses
+     * the CSV otherwise, recording the stamp of the source file it used.
+     */
+    private Function<String, List<Product>> productLoader(CatalogSnapshotFile stored) {
+        return fileName -> {
+            CatalogSnapshotFile.FeedStamp stamp = dataDirectory == null
+                    ? CatalogSnapshotFile.FeedStamp.ofResource(getClass().getClassLoader().getResource(fileName))
+                    : CatalogSnapshotFile.FeedStamp.of(dataDirectory.resolve(fileName));
+            List<Product> products = stored == null ? null : restore(() -> stored.products(fileName, stamp), fileName);
+            if (products == null) {
+                products = dataDirectory == null
+                        ? csvLoaderService.loadProductsFromCSV(fileName)
+                        : csvLoaderService.loadProductsFromFile(dataDirectory.resolve(fileName), ingestParallelism);
+            }
+            recordStamp(productStamps, fileName, stamp);
+            return products;
+        };
+    }
+
+    private Function<String, List<Discount>> discountLoader(CatalogSnapshotFile stored) {
+        return fileName -> {
+            String resource = FeedDirectoryWatcher.DISCOUNTS_SUBDIRECTORY + "/" + fileName;
+            CatalogSnapshotFile.FeedStamp stamp = dataDirectory == null
+                    ? CatalogSnapshotFile.FeedStamp.ofResource(getClass().getClassLoader().getResource(resource))
+                    : CatalogSnapshotFile.FeedStamp.of(dataDirectory.resolve(resource));
+            List<Discount> discounts = stored == null ? null : restore(() -> stored.discounts(fileName, stamp), fileName);
+            if (discounts == null) {
+                discounts = dataDirectory == null
+                        ? discountService.loadDiscountsFromCSV(fileName)
+                        : discountService.loadDiscountsFromFile(dataDirectory.resolve(resource));
+            }
+            recordStamp(discountStamps, fileName, stamp);
+            return discounts;
+        };
+    }
+
+    private <T> List<T> restore(Supplier<List<T>> decode, String fileName) {
+        try {
+            List<T> rows = decode.get();
+            if (rows != null) {
+                logger.info("CatalogService: Restored {} rows of {} from the snapshot file.", rows.size(), fileName);
+            }
+            return rows;
+        } catch (RuntimeException e) {
+            logger.warn("CatalogService: Could not restore {} from the snapshot file, parsing the CSV instead: {}", fileName, e.toString());
+            return null;
+        }
+    }
+
+    private static void recordStamp(Map<String, CatalogSnapshotFile.FeedStamp> stamps, String fileName, CatalogSnapshotFile.FeedStamp stamp) {
+        if (stamp == null) {
+            stamps.remove(fileName);
+        } else {
+            stamps.put(fileName, stamp);
+        }
+    }
+
+    private CatalogSnapshotFile openSnapshotFile() {
+        if (snapshotFile == null || !Files.isRegularFile(snapshotFile)) return null;
+        try {
+            return CatalogSnapshotFile.open(snapshotFile);
+        } catch (IOException e) {
+            logger.warn("CatalogService: Ignoring snapshot file {}: {}", snapshotFile, e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeSnapshotFile(CatalogSnapshot published) {
+        if (snapshotFile == null) return;
+        productStamps.keySet().retainAll(published.getProductFeeds().keySet());
+        discountStamps.keySet().retainAll(published.getDiscountFeeds().keySet());
+        long start = System.nanoTime();
+        try {
+            CatalogSnapshotFile.write(snapshotFile, published, productStamps, discountStamps);
+            logger.info("CatalogService: Wrote snapshot v{} to {} in {} ms.", published.getVersion(), snapshotFile,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (IOException e) {
+            logger.warn("CatalogService: Could not write snapshot file {}: {}", snapshotFile, e.getMessage());
+        }
+    }
+
+    /**
+     * Loads the given feeds concurrently. A feed that fails is logged and left out, like the sequential loaders did.
+     *
+     * @return The rows of every feed that loaded, keyed by file name in input order.
+     */
+    private <T> Map<String, List<T>> loadFeeds(List<String> fileNames, Function<String, List<T>> loadFile, String kind) {
+        List<List<T>> perFile = FeedIngestor.mapInOrder(fileNames, ingestParallelism, fileName -> {
+            try {
+                return loadFile.apply(fileName);
+            } catch (RuntimeException e) {
+                logger.error("CatalogService: Error loading {} feed {}: {}", kind, fileName, e.getMessage());
+                return null;
+            }
+        });
+        Map<String, List<T>> feeds = new LinkedHashMap<>();
+        for (int i = 0; i < fileNames.size(); i++) {
+            if (perFile.get(i) != null) {
+                feeds.put(fileNames.get(i), perFile.get(i));
+            }
+        }
+        return feeds;
+    }
+
+    private <T> Map<String, List<T>> mergeFeeds(Map<String, List<T>> current, Collection<String> changed, Path directory,
+                                                Function<String, List<T>> loadFile, String kind) {
+        // Directory feeds are kept sorted by file name, the same order a full reload lists them in.
+        Map<String, List<T>> merged = new TreeMap<>(current);
+        List<String> present = new ArrayList<>();
+        for (String fileName : changed) {
+            if (Files.isRegularFile(directory.resolve(fileName))) {
+                present.add(fileName);
+            } else if (merged.remove(fileName) != null) {
+                logger.info("CatalogService: Removed {} feed {}.", kind, fileName);
+            }
+        }
+        merged.putAll(loadFeeds(present, loadFile, kind));
+        return merged;
+    }
+
+    private CatalogSnapshot publish(Map<String, List<Product>> products, Map<String, List<Discount>> discounts, long start) {
+        // Fresh dictionaries per snapshot: rows reused from the current snapshot are encoded again along with the new ones.
+        CatalogDictionaries dictionaries = CatalogDictionaries.encode(products.values());
+        CatalogSnapshot loaded = new CatalogSnapshot(versionCounter.incrementAndGet(), LocalDateTime.now(), products, discounts, dictionaries, lshSettings);
+        // Listeners derive their state before readers can see the snapshot, so no request finds it missing.
+        for (Consumer<CatalogSnapshot> listener : snapshotListeners) {
+            try {
+                listener.accept(loaded);
+            } catch (RuntimeException e) {
+                logger.error("CatalogService: ❌ Snapshot listener failed for v{}: {}", loaded.getVersion(), e.getMessage(), e);
+            }
+        }
+        this.snapshot = loaded;
+        long durationMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        reloadStatus = reloadStatus.completed(loaded, durationMs);
+        logger.info("CatalogService: ✅ Published catalog snapshot v{} with {} products and {} discounts in {} ms.",
+                loaded.getVersion(), loaded.getProducts().size(), loaded.getDiscounts().size(), durationMs);
+        writeSnapshotFile(loaded);
+        return loaded;
+    }
+
+    private RuntimeException reloadFailed(RuntimeException e, long start) {
+        long durationMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        reloadStatus = reloadStatus.failed(e.getMessage(), durationMs);
+        logger.error("CatalogService: ❌ Catalog reload failed after {} ms, keeping snapshot v{}: {}",
+                durationMs, snapshot.getVersion(), e.getMessage(), e);
+        return e;
+    }
+
+    private FeedDirectoryWatcher startWatcher(Path directory) {
+        try {
+            FeedDirectoryWatcher watcher = new FeedDirectoryWatcher(directory, new FeedDirectoryWatcher.Listener() {
+                @Override
+                public void feedsChanged(Set<String> productFeeds, Set<String> discountFeeds) {
+                    applyFeedChanges(productFeeds, discountFeeds);
+                }
+
+                @Override
+                public void feedsOverflowed() {
+                    requestReload();
+                }
+            });
+            watcher.start();
+            return watcher;
+        } catch (IOException e) {
+            logger.warn("CatalogService: Could not watch {} for changes, only full reloads will pick up new feeds: {}",
+                    directory, e.getMessage());
+            return null;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (feedWatcher != null) {
+            feedWatcher.close();
+        }
+        reloadExecutor.shutdownNow();
+    }
+}
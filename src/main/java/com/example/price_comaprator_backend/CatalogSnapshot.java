@@ -0,0 +1,105 @@
+package com.example.price_comaprator_backend;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable, versioned view of every product and discount feed loaded by {@link CatalogService}.
+ * Services and controllers read the current snapshot once per request and never see a half-loaded catalog;
+ * a reload publishes a whole new snapshot instead of mutating this one.
+ * Rows are kept grouped by the feed file they came from, so an incremental reload can re-parse a single feed and
+ * reuse the parsed rows of every other one; the indexes below are always built over all rows.
+ */
+public final class CatalogSnapshot {
+
+    private final long version;
+    private final LocalDateTime loadedAt;
+    private final Map<String, List<Product>> productFeeds;
+    private final Map<String, List<Discount>> discountFeeds;
+    private final List<Product> products;
+    private final List<Discount> discounts;
+    private final CatalogDictionaries dictionaries;
+    private final ProductColumns productColumns;
+    private final ProductNameIndex nameIndex;
+    private final FuzzyMatchIndex fuzzyIndex;
+    private final ProductTrigramIndex trigramIndex;
+    private final ProductSuggestIndex suggestIndex;
+    private final ProductExistenceIndex existenceIndex;
+    private final DiscountValidityIndex discountValidity;
+    private final DiscountProductIndex discountProducts;
+    private final ProductSearchTree searchTree;
+
+    /**
+     * @param productFeeds  Parsed products per feed file name, in the order the feeds should appear in the catalog.
+     * @param discountFeeds Parsed discounts per feed file name, in catalog order.
+     * @param dictionaries  Dictionaries built from exactly the products of {@code productFeeds}.
+     * @param lshSettings   Shape of the {@link ProductLshIndex} to build for fuzzy matching, or null to use the exact
+     *                      {@link ProductTokenIndex}.
+     */
+    public CatalogSnapshot(long version, LocalDateTime loadedAt,
+                           Map<String, List<Product>> productFeeds, Map<String, List<Discount>> discountFeeds,
+                           CatalogDictionaries dictionaries, ProductLshIndex.Settings lshSettings) {
+        this.version = version;
+        this.loadedAt = loadedAt;
+        this.productFeeds = Collections.unmodifiableMap(new LinkedHashMap<>(productFeeds));
+        this.discountFeeds = Collections.unmodifiableMap(new LinkedHashMap<>(discountFeeds));
+        this.products = Collections.unmodifiableList(flatten(productFeeds));
+        this.discounts = Collections.unmodifiableList(flatten(discountFeeds));
+        this.dictionaries = dictionaries;
+        this.productColumns = new ProductColumns(products, dictionaries);
+        this.nameIndex = new ProductNameIndex(products, productColumns);
+        this.fuzzyIndex = lshSettings == null
+                ? new ProductTokenIndex(productColumns, dictionaries.getTokens())
+                : new ProductLshIndex(productColumns, lshSettings);
+        this.trigramIndex = new ProductTrigramIndex(productColumns);
+        this.suggestIndex = new ProductSuggestIndex(products, productColumns, nameIndex);
+        this.searchTree = new ProductSearchTree(nameIndex.names());
+        this.existenceIndex = new ProductExistenceIndex(products);
+        this.discountValidity = new DiscountValidityIndex(discounts);
+        this.discountProducts = new DiscountProductIndex(products, discounts);
+    }
+
+    public static CatalogSnapshot empty() {
+        return new CatalogSnapshot(0L, LocalDateTime.now(), Map.of(), Map.of(), CatalogDictionaries.empty(), null);
+    }
+
+    private static <T> List<T> flatten(Map<String, List<T>> feeds) {
+        List<T> rows = new ArrayList<>();
+        feeds.values().forEach(rows::addAll);
+        return rows;
+    }
+
+    public long getVersion() { return version; }
+    public LocalDateTime getLoadedAt() { return loadedAt; }
+    public List<Product> getProducts() { return products; }
+    public List<Discount> getDiscounts() { return discounts; }
+    public Map<String, List<Product>> getProductFeeds() { return productFeeds; }
+    public Map<String, List<Discount>> getDiscountFeeds() { return discountFeeds; }
+    public CatalogDictionaries getDictionaries() { return dictionaries; }
+    public ProductColumns getProductColumns() { return productColumns; }
+    public ProductNameIndex getNameIndex() { return nameIndex; }
+    public FuzzyMatchIndex getFuzzyIndex() { return fuzzyIndex; }
+    public ProductTrigramIndex getTrigramIndex() { return trigramIndex; }
+    public ProductSuggestIndex getSuggestIndex() { return suggestIndex; }
+    public ProductExistenceIndex getExistenceIndex() { return existenceIndex; }
+    public DiscountValidityIndex getDiscountValidity() { return discountValidity; }
+    public DiscountProductIndex getDiscountProducts() { return discountProducts; }
+
+    public ProductSearchTree getSearchTree() { return searchTree; }
+
+    @Override
+    public String toString() {
+        return "CatalogSnapshot{" +
+                "version=" + version +
+                ", loadedAt=" + loadedAt +
+                ", productFeeds=" + productFeeds.size() +
+                ", products=" + products.size() +
+                ", discountFeeds=" + discountFeeds.size() +
+                ", discounts=" + discounts.size() +
+                '}';
+    }
+}
@@ -0,0 +1,366 @@
+package com.example.price_comaprator_backend;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Binary on-disk copy of a fully processed {@link CatalogSnapshot}, so a restart can skip CSV parsing,
+ * {@link Product#calculateStandardizedMetrics()} and name normalization for every feed that has not changed since
+ * the file was written.
+ * <p>
+ * Layout (big-endian): magic, format version, a table of every distinct string, then one section per product
+ * feed and per discount feed. A section records the feed name, the {@link FeedStamp} of the source file it was
+ * parsed from and its rows as fixed-width records whose text columns are indexes into the string table.
+ * The file is memory-mapped on open and a feed's rows are only decoded when its stamp still matches the source.
+ */
+public final class CatalogSnapshotFile {
+
+    private static final int MAGIC = 0x50435331; // "PCS1"
+    private static final int FORMAT_VERSION = 2;
+    private static final int NO_STRING = -1;
+    private static final int NO_DATE = Integer.MIN_VALUE;
+    private static final int PRODUCT_RECORD_BYTES = 10 * Integer.BYTES + 2 * Double.BYTES + Integer.BYTES + 1;
+    private static final int DISCOUNT_RECORD_BYTES = 6 * Integer.BYTES + Double.BYTES + 3 * Integer.BYTES;
+    private static final UnitConverter.BaseUnitType[] UNIT_TYPES = UnitConverter.BaseUnitType.values();
+
+    /**
+     * Identifies the version of a source feed file a section was parsed from.
+     */
+    public static final class FeedStamp {
+        private final long lastModified;
+        private final long size;
+
+        public FeedStamp(long lastModified, long size) {
+            this.lastModified = lastModified;
+            this.size = size;
+        }
+
+        /**
+         * @return The stamp of a feed on the filesystem, or null if it cannot be read.
+         */
+        public static FeedStamp of(Path file) {
+            try {
+                return new FeedStamp(Files.getLastModifiedTime(file).toMillis(), Files.size(file));
+            } catch (IOException e) {
+                return null;
+            }
+        }
+
+        /**
+         * @return The stamp of a classpath feed (exploded or inside a jar), or null if the resource is missing
+         * or does not report a modification time.
+         */
+        public static FeedStamp ofResource(URL resource) {
+            if (resource == null) return null;
+            try {
+                URLConnection connection = resource.openConnection();
+                connection.setUseCaches(false);
+                long lastModified = connection.getLastModified();
+                long size = connection.getContentLengthLong();
+                connection.getInputStream().close();
+                return lastModified > 0 ? new FeedStamp(lastModified, size) : null;
+            } catch (IOException e) {
+                return null;
+            }
+        }
+
+        public long getLastModified() { return lastModified; }
+        public long getSize() { return size; }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof FeedStamp other)) return false;
+            return lastModified == other.lastModified && size == other.size;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(lastModified, size);
+        }
+    }
+
+    private static final class Section {
+        final FeedStamp stamp;
+        final int offset;
+        final int rowCount;
+
+        Section(FeedStamp stamp, int offset, int rowCount) {
+            this.stamp = stamp;
+            this.offset = offset;
+            this.rowCount = rowCount;
+        }
+    }
+
+    private final MappedByteBuffer buffer;
+    private final String[] strings;
+    private final Map<String, Section> productSections;
+    private final Map<String, Section> discountSections;
+
+    private CatalogSnapshotFile(MappedByteBuffer buffer, String[] strings,
+                                Map<String, Section> productSections, Map<String, Section> discountSections) {
+        this.buffer = buffer;
+        this.strings = strings;
+        this.productSections = productSections;
+        this.discountSections = discountSections;
+    }
+
+    /**
+     * Memory-maps a snapshot file and reads its string table and section index; rows stay on disk until requested.
+     *
+     * @throws IOException if the file cannot be read or was written in another format.
+     */
+    public static CatalogSnapshotFile open(Path file) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot file " + file + " is larger than 2 GB");
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        try {
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException(file + " is not a catalog snapshot file");
+            }
+            int version = buffer.getInt();
+            if (version != FORMAT_VERSION) {
+                throw new IOException("Snapshot file " + file + " has format version " + version + ", expected " + FORMAT_VERSION);
+            }
+            String[] strings = new String[buffer.getInt()];
+            for (int i = 0; i < strings.length; i++) {
+                byte[] bytes = new byte[buffer.getInt()];
+                buffer.get(bytes);
+                strings[i] = new String(bytes, StandardCharsets.UTF_8);
+            }
+            Map<String, Section> productSections = readSections(buffer, strings, PRODUCT_RECORD_BYTES);
+            Map<String, Section> discountSections = readSections(buffer, strings, DISCOUNT_RECORD_BYTES);
+            return new CatalogSnapshotFile(buffer, strings, productSections, discountSections);
+        } catch (RuntimeException e) {
+            throw new IOException("Snapshot file " + file + " is corrupt: " + e, e);
+        }
+    }
+
+    private static Map<String, Section> readSections(ByteBuffer buffer, String[] strings, int recordBytes) {
+        int count = buffer.getInt();
+        Map<String, Section> sections = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            String feed = strings[buffer.getInt()];
+            FeedStamp stamp = new FeedStamp(buffer.getLong(), buffer.getLong());
+            int rowCount = buffer.getInt();
+            sections.put(feed, new Section(stamp, buffer.position(), rowCount));
+            buffer.position(buffer.position() + rowCount * recordBytes);
+        }
+        return sections;
+    }
+
+    /**
+     * @return The stored products of {@code feed}, or null if the file has no section for it or the section was
+     * written from a different version of the source file.
+     */
+    public List<Product> products(String feed, FeedStamp current) {
+        Section section = productSections.get(feed);
+        if (section == null || !section.stamp.equals(current)) return null;
+        // Each caller reads through its own view, so feeds can be decoded from several threads at once.
+        ByteBuffer in = buffer.duplicate().position(section.offset);
+        List<Product> products = new ArrayList<>(section.rowCount);
+        for (int i = 0; i < section.rowCount; i++) {
+            Product product = new Product();
+            product.setProductId(string(in));
+            product.setProductName(string(in));
+            product.restoreNameKeys(string(in));
+            product.setProductCategory(string(in));
+            product.setBrand(string(in));
+            product.setPackageQuantity(string(in));
+            product.setPackageUnit(string(in));
+            product.setPrice(nullableDouble(in));
+            product.setCurrency(string(in));
+            product.setSource(string(in));
+            product.setPriceDate(date(in));
+            Double pricePerStandardUnit = nullableDouble(in);
+            String standardUnit = string(in);
+            byte unitType = in.get();
+            product.restoreStandardizedMetrics(pricePerStandardUnit, standardUnit, unitType < 0 ? null : UNIT_TYPES[unitType]);
+            products.add(product);
+        }
+        return products;
+    }
+
+    /**
+     * @return The stored discounts of {@code feed}, or null if missing or stale (see {@link #products}).
+     */
+    public List<Discount> discounts(String feed, FeedStamp current) {
+        Section section = discountSections.get(feed);
+        if (section == null || !section.stamp.equals(current)) return null;
+        ByteBuffer in = buffer.duplicate().position(section.offset);
+        List<Discount> discounts = new ArrayList<>(section.rowCount);
+        for (int i = 0; i < section.rowCount; i++) {
+            Discount discount = new Discount();
+            discount.setProductId(string(in));
+            discount.setProductName(string(in));
+            discount.setBrand(string(in));
+            discount.setPackageUnit(string(in));
+            discount.setProductCategory(string(in));
+            discount.setSource(string(in));
+            discount.setPackageQuantity(in.getDouble());
+            discount.setFromDate(date(in));
+            discount.setToDate(date(in));
+            discount.setPercentageOfDiscount(in.getInt());
+            discounts.add(discount);
+        }
+        return discounts;
+    }
+
+    private String string(ByteBuffer in) {
+        int index = in.getInt();
+        return index == NO_STRING ? null : strings[index];
+    }
+
+    private static Double nullableDouble(ByteBuffer in) {
+        double value = in.getDouble();
+        return Double.isNaN(value) ? null : value;
+    }
+
+    private static LocalDate date(ByteBuffer in) {
+        int epochDay = in.getInt();
+        return epochDay == NO_DATE ? null : LocalDate.ofEpochDay(epochDay);
+    }
+
+    /**
+     * Writes every feed of {@code snapshot} that has a stamp to {@code file}. The file is written next to the
+     * target and moved into place, so a concurrent or interrupted startup never maps a half-written snapshot.
+     *
+     * @param productStamps  Stamp of the source file each product feed was parsed from.
+     * @param discountStamps Stamp of the source file each discount feed was parsed from.
+     */
+    public static void write(Path file, CatalogSnapshot snapshot,
+                             Map<String, FeedStamp> productStamps, Map<String, FeedStamp> discountStamps) throws IOException {
+        Map<String, List<Product>> productFeeds = stamped(snapshot.getProductFeeds(), productStamps);
+        Map<String, List<Discount>> discountFeeds = stamped(snapshot.getDiscountFeeds(), discountStamps);
+
+        Map<String, Integer> stringIndex = new LinkedHashMap<>();
+        productFeeds.forEach((feed, products) -> {
+            intern(stringIndex, feed);
+            for (Product p : products) {
+                intern(stringIndex, p.getProductId(), p.getProductName(), p.getNormalizedName(), p.getProductCategory(), p.getBrand(),
+                        p.getPackageQuantity(), p.getPackageUnit(), p.getCurrency(), p.getSource(), p.getStandardUnit());
+            }
+        });
+        discountFeeds.forEach((feed, discounts) -> {
+            intern(stringIndex, feed);
+            for (Discount d : discounts) {
+                intern(stringIndex, d.getProductId(), d.getProductName(), d.getBrand(), d.getPackageUnit(),
+                        d.getProductCategory(), d.getSource());
+            }
+        });
+
+        Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeInt(stringIndex.size());
+                for (String s : stringIndex.keySet()) {
+                    byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+                    out.writeInt(bytes.length);
+                    out.write(bytes);
+                }
+
+                out.writeInt(productFeeds.size());
+                for (Map.Entry<String, List<Product>> feed : productFeeds.entrySet()) {
+                    writeSectionHeader(out, stringIndex, feed.getKey(), productStamps.get(feed.getKey()), feed.getValue().size());
+                    for (Product p : feed.getValue()) {
+                        writeString(out, stringIndex, p.getProductId());
+                        writeString(out, stringIndex, p.getProductName());
+                        writeString(out, stringIndex, p.getNormalizedName());
+                        writeString(out, stringIndex, p.getProductCategory());
+                        writeString(out, stringIndex, p.getBrand());
+                        writeString(out, stringIndex, p.getPackageQuantity());
+                        writeString(out, stringIndex, p.getPackageUnit());
+                        out.writeDouble(p.getPrice() == null ? Double.NaN : p.getPrice());
+                        writeString(out, stringIndex, p.getCurrency());
+                        writeString(out, stringIndex, p.getSource());
+                        writeDate(out, p.getPriceDate());
+                        out.writeDouble(p.getPricePerStandardUnit() == null ? Double.NaN : p.getPricePerStandardUnit());
+                        writeString(out, stringIndex, p.getStandardUnit());
+                        out.writeByte(p.getBaseUnitType() == null ? -1 : p.getBaseUnitType().ordinal());
+                    }
+                }
+
+                out.writeInt(discountFeeds.size());
+                for (Map.Entry<String, List<Discount>> feed : discountFeeds.entrySet()) {
+                    writeSectionHeader(out, stringIndex, feed.getKey(), discountStamps.get(feed.getKey()), feed.getValue().size());
+                    for (Discount d : feed.getValue()) {
+                        writeString(out, stringIndex, d.getProductId());
+                        writeString(out, stringIndex, d.getProductName());
+                        writeString(out, stringIndex, d.getBrand());
+                        writeString(out, stringIndex, d.getPackageUnit());
+                        writeString(out, stringIndex, d.getProductCategory());
+                        writeString(out, stringIndex, d.getSource());
+                        out.writeDouble(d.getPackageQuantity());
+                        writeDate(out, d.getFromDate());
+                        writeDate(out, d.getToDate());
+                        out.writeInt(d.getPercentageOfDiscount());
+                    }
+                }
+            }
+            try {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static <T> Map<String, List<T>> stamped(Map<String, List<T>> feeds, Map<String, FeedStamp> stamps) {
+        Map<String, List<T>> stamped = new LinkedHashMap<>();
+        feeds.forEach((feed, rows) -> {
+            if (stamps.get(feed) != null) stamped.put(feed, rows);
+        });
+        return stamped;
+    }
+
+    private static void intern(Map<String, Integer> stringIndex, String... values) {
+        for (String value : values) {
+            if (value != null) stringIndex.putIfAbsent(value, stringIndex.size());
+        }
+    }
+
+    private static void writeSectionHeader(DataOutputStream out, Map<String, Integer> stringIndex,
+                                           String feed, FeedStamp stamp, int rowCount) throws IOException {
+        out.writeInt(stringIndex.get(feed));
+        out.writeLong(stamp.getLastModified());
+        out.writeLong(stamp.getSize());
+        out.writeInt(rowCount);
+    }
+
+    private static void writeString(DataOutputStream out, Map<String, Integer> stringIndex, String value) throws IOException {
+        out.writeInt(value == null ? NO_STRING : stringIndex.get(value));
+    }
+
+    private static void writeDate(DataOutputStream out, LocalDate date) throws IOException {
+        out.writeInt(date == null ? NO_DATE : Math.toIntExact(date.toEpochDay()));
+    }
+}
@@ -137,6 +137,13 @@ public class Discount {
         this.source = source;
     }
 
+    /**
+     * @return true if {@code date} lies between fromDate and toDate inclusive; a missing bound is open.
+     */
+    public boolean isActiveOn(LocalDate date) {
+        return (fromDate == null || !fromDate.isAfter(date)) && (toDate == null || !toDate.isBefore(date));
+    }
+
     @Override
     public String toString() {
         return "Discount{" +
@@ -0,0 +1,301 @@
+package com.example.price_comaprator_backend;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the discounts active today as a live {@link ActiveDiscounts} set, so discount requests for today only ever
+ * see active rows and never filter validity dates themselves.
+ * <p>
+ * When a snapshot is published, its discounts active today go straight into a new live set, and the activation
+ * ({@code fromDate}) and expiry (the day after {@code toDate}) of every other discount that is still to come are
+ * scheduled on a {@link DiscountTimerWheel}. Just after each local midnight the wheel advances one day and the
+ * events it fires are applied to the standby set kept next to the live one, which then replaces it (see
+ * {@link ActiveDiscounts}); the live set is never modified while readers can see it.
+ * Requests for any other day, or racing a reload or the midnight tick, are answered from a set built from the
+ * snapshot's {@link DiscountValidityIndex}. The sets of the last few such days are kept per snapshot, so repeated
+ * requests for the same day reuse them instead of rebuilding.
+ * <p>
+ * Along with the live set, the scheduler keeps today's {@link EffectivePriceTable}, built for each new snapshot
+ * before it is published and copied with only the rows of the fired discounts repriced at each rollover, so every
+ * price-reading service sees the discounts active today without building a table per request. Tables for other
+ * days are kept alongside the fallback sets.
+ */
+@Service
+public class DiscountActivationScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(DiscountActivationScheduler.class);
+
+    // One lap is about two months: the discount windows in the feeds are days to weeks long.
+    private static final int WHEEL_SLOTS = 64;
+    private static final Duration TICK_DELAY_AFTER_MIDNIGHT = Duration.ofSeconds(1);
+    // Days other than the live one whose sets are kept; requests mostly ask for a few nearby days.
+    private static final int FALLBACK_DAYS = 8;
+    private static final int[] NO_ROWS = new int[0];
+
+    private final CatalogService catalogService;
+    private final ScheduledExecutorService tickExecutor;
+    private final Object lock = new Object();
+
+    // Guarded by lock; the live set it feeds is what readers see.
+    private CatalogSnapshot scheduledSnapshot;
+    private DiscountTimerWheel wheel;
+    // The set that becomes live at the next rollover, one rollover behind, and the rows that rollover changed.
+    private ActiveDiscounts standby;
+    private int[] lastChangedRows = NO_ROWS;
+    private volatile Live live;
+    private volatile FallbackDays fallback;
+
+    public DiscountActivationScheduler(CatalogService catalogService) {
+        this.catalogService = catalogService;
+        this.tickExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "discount-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Builds the live set for the current snapshot, follows later reloads and starts the midnight ticks.
+     */
+    @PostConstruct
+    public void start() {
+        // Registered before the first build, so a snapshot published in between is not missed.
+        catalogService.addSnapshotListener(this::reschedule);
+        reschedule(catalogService.getSnapshot());
+        scheduleNextTick();
+    }
+
+    /**
+     * @param date The day the discounts must be active on.
+     * @return The live set when {@code date} is the day it tracks for the current snapshot, otherwise a set built
+     * from the snapshot's validity index, reused while the snapshot and day stay the same.
+     */
+    public ActiveDiscounts activeOn(LocalDate date) {
+        CatalogSnapshot snapshot = catalogService.getSnapshot();
+        Live current = live;
+        if (current != null && current.snapshot == snapshot && date.equals(current.active.getDay())) {
+            return current.active;
+        }
+        return fallbackFor(snapshot).activeOn(date);
+    }
+
+    private FallbackDays fallbackFor(CatalogSnapshot snapshot) {
+        FallbackDays days = fallback;
+        if (days == null || days.snapshot != snapshot) {
+            // A racing request for an older snapshot may replace this again; that only costs a rebuild.
+            days = new FallbackDays(snapshot);
+            fallback = days;
+        }
+        return days;
+    }
+
+    /**
+     * @param snapshot The snapshot the caller reads product rows from; the table is numbered against its rows.
+     * @param date     The day the prices are for.
+     * @return The product prices of {@code snapshot} with the discounts active on {@code date} applied: the live
+     * table for today, otherwise a table built once per snapshot and day.
+     */
+    public EffectivePriceTable effectivePrices(CatalogSnapshot snapshot, LocalDate date) {
+        Live current = live;
+        if (current != null && current.snapshot == snapshot && date.equals(current.prices.getDay())) {
+            return current.prices;
+        }
+        if (snapshot != catalogService.getSnapshot()) {
+            // The caller still holds a snapshot a reload has since replaced; not worth caching.
+            return new EffectivePriceTable(snapshot, snapshot.getDiscountValidity().activeOn(date), date);
+        }
+        return fallbackFor(snapshot).pricesOn(date);
+    }
+
+    /**
+     * Rebuilds the live set and the wheel for a new snapshot, as of today. Runs before the snapshot is published,
+     * so readers find its live set and price table ready; snapshots older than the scheduled one are ignored.
+     */
+    void reschedule(CatalogSnapshot snapshot) {
+        synchronized (lock) {
+            if (scheduledSnapshot != null && snapshot.getVersion() <= scheduledSnapshot.getVersion()) return;
+            long start = System.nanoTime();
+            LocalDate today = LocalDate.now();
+            long todayDay = today.toEpochDay();
+            List<Discount> discounts = snapshot.getDiscounts();
+            ActiveDiscounts active = new ActiveDiscounts(discounts, today);
+            DiscountTimerWheel newWheel = new DiscountTimerWheel(WHEEL_SLOTS, todayDay);
+            int[] activeRows = new int[discounts.size()];
+            int activeCount = 0;
+            for (int row = 0; row < discounts.size(); row++) {
+                Discount discount = discounts.get(row);
+                long from = discount.getFromDate() == null ? Long.MIN_VALUE : discount.getFromDate().toEpochDay();
+                long to = discount.getToDate() == null ? Long.MAX_VALUE : discount.getToDate().toEpochDay();
+                if (to < todayDay || to < from) continue;
+                if (from <= todayDay) {
+                    activeRows[activeCount++] = row;
+                } else {
+                    newWheel.scheduleActivation(from, row);
+                }
+                if (to != Long.MAX_VALUE) newWheel.scheduleExpiry(to + 1, row);
+            }
+            active.activateAll(Arrays.copyOf(activeRows, activeCount));
+            active.publishRankings();
+            this.scheduledSnapshot = snapshot;
+            this.wheel = newWheel;
+            this.standby = active.copyFor(today);
+            this.lastChangedRows = NO_ROWS;
+            EffectivePriceTable prices = new EffectivePriceTable(snapshot, active.discounts(), today);
+            this.live = new Live(snapshot, active, prices);
+            logger.info("DiscountActivationScheduler: Snapshot v{} has {} discount(s) active on {} ({} discounted product rows) and {} scheduled event(s), built in {} ms.",
+                    snapshot.getVersion(), active.size(), today, prices.discountedRows(), newWheel.pending(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+    }
+
+    /**
+     * Advances the wheel to today and swaps in the standby set, brought up to date with the activations and expiries
+     * of the last two rollovers, along with a price table repriced for the discounts they changed.
+     */
+    void tick() {
+        synchronized (lock) {
+            Live current = live;
+            if (current == null) return;
+            LocalDate today = LocalDate.now();
+            if (today.toEpochDay() <= wheel.currentDay()) return;
+            // Until the standby set is swapped in, requests for the new day fall back to the validity index.
+            ActiveDiscounts next = standby;
+            next.catchUp(current.active, lastChangedRows);
+            next.moveTo(today);
+            ChangedRows changes = new ChangedRows(next);
+            int fired = wheel.advanceTo(today.toEpochDay(), changes);
+            int rerankedScopes = next.publishRankings();
+            int[] changedRows = changes.toArray();
+            EffectivePriceTable prices = new EffectivePriceTable(current.prices, current.snapshot, next, changedRows, today);
+            this.live = new Live(current.snapshot, next, prices);
+            this.standby = current.active;
+            this.lastChangedRows = changedRows;
+            logger.info("DiscountActivationScheduler: ✅ Rolled over to {}: {} activation/expiry event(s), {} discount(s) active, {} ranking(s) updated, {} discounted product rows, {} pending.",
+                    today, fired, next.size(), rerankedScopes, prices.discountedRows(), wheel.pending());
+        }
+    }
+
+    private void scheduleNextTick() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime next = now.toLocalDate().plusDays(1).atStartOfDay().plus(TICK_DELAY_AFTER_MIDNIGHT);
+        tickExecutor.schedule(() -> {
+            try {
+                tick();
+            } catch (RuntimeException e) {
+                logger.error("DiscountActivationScheduler: ❌ Day rollover failed: {}", e.getMessage(), e);
+            } finally {
+                scheduleNextTick();
+            }
+        }, Duration.between(now, next).toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        tickExecutor.shutdownNow();
+    }
+
+    /**
+     * The sets and price tables built for days without a live set, for one snapshot; the least recently used day is
+     * dropped first.
+     */
+    private static final class FallbackDays {
+        private final CatalogSnapshot snapshot;
+        private final LinkedHashMap<LocalDate, ActiveDiscounts> activeByDay = new LinkedHashMap<>(16, 0.75f, true);
+        private final LinkedHashMap<LocalDate, EffectivePriceTable> pricesByDay = new LinkedHashMap<>(16, 0.75f, true);
+
+        FallbackDays(CatalogSnapshot snapshot) {
+            this.snapshot = snapshot;
+        }
+
+        synchronized ActiveDiscounts activeOn(LocalDate date) {
+            ActiveDiscounts active = activeByDay.get(date);
+            if (active == null) {
+                active = ActiveDiscounts.of(date, snapshot.getDiscountValidity().activeOn(date));
+                putBounded(activeByDay, date, active);
+            }
+            return active;
+        }
+
+        synchronized EffectivePriceTable pricesOn(LocalDate date) {
+            EffectivePriceTable prices = pricesByDay.get(date);
+            if (prices == null) {
+                prices = new EffectivePriceTable(snapshot, snapshot.getDiscountValidity().activeOn(date), date);
+                putBounded(pricesByDay, date, prices);
+            }
+            return prices;
+        }
+
+        private static <T> void putBounded(LinkedHashMap<LocalDate, T> byDay, LocalDate date, T value) {
+            byDay.put(date, value);
+            if (byDay.size() > FALLBACK_DAYS) {
+                Iterator<LocalDate> eldest = byDay.keySet().iterator();
+                eldest.next();
+                eldest.remove();
+            }
+        }
+    }
+
+    /**
+     * Applies the events fired by the wheel to a set and records the rows they changed.
+     */
+    private static final class ChangedRows implements DiscountTimerWheel.Handler {
+        private final ActiveDiscounts active;
+        private int[] rows = new int[16];
+        private int count;
+
+        ChangedRows(ActiveDiscounts active) {
+            this.active = active;
+        }
+
+        @Override
+        public void activate(int row) {
+            active.activate(row);
+            add(row);
+        }
+
+        @Override
+        public void expire(int row) {
+            active.expire(row);
+            add(row);
+        }
+
+        private void add(int row) {
+            if (count == rows.length) rows = Arrays.copyOf(rows, count * 2);
+            rows[count++] = row;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(rows, count);
+        }
+    }
+
+    /**
+     * The live set and today's prices, together with the snapshot their rows are numbered against.
+     */
+    private static final class Live {
+        private final CatalogSnapshot snapshot;
+        private final ActiveDiscounts active;
+        private final EffectivePriceTable prices;
+
+        Live(CatalogSnapshot snapshot, ActiveDiscounts active, EffectivePriceTable prices) {
+            this.snapshot = snapshot;
+            this.active = active;
+            this.prices = prices;
+        }
+    }
+}
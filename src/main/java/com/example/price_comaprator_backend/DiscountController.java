@@ -1,8 +1,12 @@
 package com.example.price_comaprator_backend;
 
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import java.time.LocalDate;
 import java.util.List;
 
 
@@ -11,25 +15,20 @@ import java.util.List;
 public class DiscountController {
 
     private final DiscountService discountService;
-    private final List<Discount> allDiscounts;
+    private final DiscountActivationScheduler activationScheduler;
 
-    public DiscountController(DiscountService discountService) {
+    public DiscountController(DiscountService discountService, DiscountActivationScheduler activationScheduler) {
         this.discountService = discountService;
-
-        this.allDiscounts = discountService.loadDiscounts(List.of(
-                "altex_discounts-2025-05-20.csv",
-                "emag_discounts_2025-05-20.csv",
-                "kaufland_discounts_2025-05-01.csv",
-                "kaufland_discounts_2025-05-08.csv",
-                "lidl_discounts_2025-05-01.csv",
-                "lidl_discounts_2025-05-08.csv",
-                "profi_discounts_2025-05-01.csv",
-                "profi_discounts_2025-05-08.csv"
-        ));
+        this.activationScheduler = activationScheduler;
     }
 
     @GetMapping("/best")
-    public List<Discount> getBestDiscounts() {
-        return discountService.getBestDiscounts(allDiscounts, 10);
+    public List<Discount> getBestDiscounts(
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(required = false) String store,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate asOf) {
+        LocalDate date = asOf != null ? asOf : LocalDate.now();
+        return discountService.getBestDiscounts(activationScheduler.activeOn(date), limit, store, category);
     }
 }
@@ -0,0 +1,43 @@
+package com.example.price_comaprator_backend;
+
+/**
+ * Lookup keys grouping discounts by (product name, brand, store), each trimmed and lowercased, so the discounts of a
+ * basket item or catalog product are one hash lookup instead of a pass over every discount. Discounts missing any
+ * of the three have no key and are never matched. Used by {@link ActiveDiscounts} and {@link DiscountProductIndex}.
+ */
+public final class DiscountKeys {
+
+    private static final char SEPARATOR = '\u001F';
+
+    private DiscountKeys() {}
+
+    /**
+     * @return The lookup key of a discount, or null if it can never be matched.
+     */
+    static String keyOf(Discount discount) {
+        if (discount.getProductName() == null || discount.getBrand() == null || discount.getSource() == null) return null;
+        return key(discount.getProductName(), discount.getBrand(), discount.getSource());
+    }
+
+    /**
+     * @return The key of the discounts applying to a catalog product, or null if it lacks a name, brand or store.
+     */
+    static String keyOf(Product product) {
+        if (product.getProductName() == null || product.getBrand() == null || product.getSource() == null) return null;
+        return key(product.getProductName(), product.getBrand(), product.getSource());
+    }
+
+    /**
+     * @return The key of the discounts applying to a basket item, or null if it has no product name.
+     */
+    static String keyOf(BasketItem item) {
+        if (item.getProductName() == null) return null;
+        return key(item.getProductName(),
+                item.getBrand() != null ? item.getBrand() : "",
+                item.getSource() != null ? item.getSource() : "");
+    }
+
+    private static String key(String productName, String brand, String source) {
+        return productName.trim().toLowerCase() + SEPARATOR + brand.trim().toLowerCase() + SEPARATOR + source.trim().toLowerCase();
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.price_comaprator_backend;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The product rows every discount of a {@link CatalogSnapshot} applies to, joined once per snapshot on the same
+ * (product name, brand, store) key that matches basket items ({@link DiscountKeys}). A discount usually covers
+ * one row per product feed of its store that lists the product.
+ */
+public final class DiscountProductIndex {
+
+    private static final int[] NO_ROWS = new int[0];
+
+    private final Map<Discount, int[]> rowsByDiscount = new IdentityHashMap<>();
+
+    public DiscountProductIndex(List<Product> products, List<Discount> discounts) {
+        // Count the rows of each key first, then fill exactly sized arrays in ascending row order.
+        String[] keys = new String[products.size()];
+        Map<String, int[]> counts = new HashMap<>();
+        for (int row = 0; row < products.size(); row++) {
+            keys[row] = DiscountKeys.keyOf(products.get(row));
+            if (keys[row] != null) counts.computeIfAbsent(keys[row], key -> new int[1])[0]++;
+        }
+        Map<String, int[]> rowsByKey = new HashMap<>(counts.size() * 4 / 3 + 1);
+        for (Map.Entry<String, int[]> count : counts.entrySet()) {
+            rowsByKey.put(count.getKey(), new int[count.getValue()[0]]);
+            count.getValue()[0] = 0;
+        }
+        for (int row = 0; row < products.size(); row++) {
+            if (keys[row] == null) continue;
+            rowsByKey.get(keys[row])[counts.get(keys[row])[0]++] = row;
+        }
+        for (Discount discount : discounts) {
+            String key = DiscountKeys.keyOf(discount);
+            int[] rows = key == null ? null : rowsByKey.get(key);
+            if (rows != null) rowsByDiscount.put(discount, rows);
+        }
+    }
+
+    /**
+     * @return The ascending product rows the discount applies to; empty for a discount of another snapshot.
+     */
+    public int[] productRows(Discount discount) {
+        return rowsByDiscount.getOrDefault(discount, NO_ROWS);
+    }
+
+    /** @return The number of discounts that apply to at least one product. */
+    public int size() {
+        return rowsByDiscount.size();
+    }
+}
@@ -0,0 +1,187 @@
+package com.example.price_comaprator_backend;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Best-discount rankings of an {@link ActiveDiscounts} set: overall, per store, per category and per store and
+ * category. A ranking holds one discount per product (name and brand), the one with the highest percentage,
+ * ordered by percentage and then catalog order.
+ * <p>
+ * Every ranking is a sorted set updated on each activation and expiry in {@code O(log n)}. Readers never see those
+ * sets: {@link #publish()} copies the first {@link #MAX_RANKED} entries of each into immutable arrays behind one
+ * volatile field, so serving a ranking is an array slice. Only the rankings changed since the last publish are
+ * copied again, so a day rollover costs its activations and expiries rather than the whole set. Only the thread
+ * owning the active set calls the mutators.
+ */
+public final class DiscountRankings {
+
+    public static final int MAX_RANKED = 100;
+
+    private static final char SEPARATOR = '\u001F';
+    private static final Discount[] NO_DISCOUNTS = new Discount[0];
+
+    private final List<Discount> discounts;
+    private final Comparator<Integer> byRank;
+    private final Map<String, Scope> scopes = new HashMap<>();
+    // Scopes whose ranking may differ from the published one.
+    private final Set<String> changedScopes = new HashSet<>();
+    private volatile Map<String, Discount[]> published = Collections.emptyMap();
+
+    /**
+     * @param discounts Every discount rows are numbered against.
+     */
+    DiscountRankings(List<Discount> discounts) {
+        this.discounts = discounts;
+        this.byRank = Comparator.<Integer>comparingInt(row -> -discounts.get(row).getPercentageOfDiscount())
+                .thenComparingInt(row -> row);
+    }
+
+    /**
+     * Copies the rankings of {@code source}, sorted sets included, without ranking any row again.
+     */
+    DiscountRankings(DiscountRankings source) {
+        this.discounts = source.discounts;
+        this.byRank = source.byRank;
+        for (Map.Entry<String, Scope> entry : source.scopes.entrySet()) {
+            scopes.put(entry.getKey(), new Scope(entry.getValue()));
+        }
+        this.changedScopes.addAll(source.changedScopes);
+        this.published = source.published;
+    }
+
+    /**
+     * @param limit    The maximum number of discounts, capped at {@link #MAX_RANKED}.
+     * @param store    Only rank discounts of this store; null or blank for every store.
+     * @param category Only rank discounts of this product category; null or blank for every category.
+     * @return The best discounts of the scope as of the last {@link #publish()}, best first.
+     */
+    public List<Discount> top(int limit, String store, String category) {
+        Discount[] ranked = published.getOrDefault(scopeKey(normalize(store), normalize(category)), NO_DISCOUNTS);
+        int count = Math.max(0, Math.min(limit, ranked.length));
+        return Collections.unmodifiableList(Arrays.asList(ranked).subList(0, count));
+    }
+
+    void activate(int row) {
+        Discount discount = discounts.get(row);
+        String productKey = productKey(discount);
+        if (productKey == null) return;
+        for (String scopeKey : scopeKeys(discount)) {
+            scopes.computeIfAbsent(scopeKey, key -> new Scope()).add(productKey, row);
+            changedScopes.add(scopeKey);
+        }
+    }
+
+    void expire(int row) {
+        Discount discount = discounts.get(row);
+        String productKey = productKey(discount);
+        if (productKey == null) return;
+        for (String scopeKey : scopeKeys(discount)) {
+            Scope scope = scopes.get(scopeKey);
+            if (scope == null) continue;
+            scope.remove(productKey, row);
+            if (scope.ranking.isEmpty()) scopes.remove(scopeKey);
+            changedScopes.add(scopeKey);
+        }
+    }
+
+    /**
+     * Makes the rankings as of now visible to {@link #top(int, String, String)}, reusing the published arrays of the
+     * scopes nothing changed in.
+     *
+     * @return The number of scopes whose ranking was copied again.
+     */
+    int publish() {
+        Map<String, Discount[]> snapshot = new HashMap<>(published);
+        for (String scopeKey : changedScopes) {
+            Scope scope = scopes.get(scopeKey);
+            if (scope == null) {
+                snapshot.remove(scopeKey);
+                continue;
+            }
+            Discount[] top = new Discount[Math.min(MAX_RANKED, scope.ranking.size())];
+            Iterator<Integer> rows = scope.ranking.iterator();
+            for (int i = 0; i < top.length; i++) top[i] = discounts.get(rows.next());
+            snapshot.put(scopeKey, top);
+        }
+        int republished = changedScopes.size();
+        changedScopes.clear();
+        this.published = snapshot;
+        return republished;
+    }
+
+    private List<String> scopeKeys(Discount discount) {
+        String store = normalize(discount.getSource());
+        String category = normalize(discount.getProductCategory());
+        List<String> keys = new ArrayList<>(4);
+        keys.add(scopeKey(null, null));
+        if (store != null) keys.add(scopeKey(store, null));
+        if (category != null) keys.add(scopeKey(null, category));
+        if (store != null && category != null) keys.add(scopeKey(store, category));
+        return keys;
+    }
+
+    private static String scopeKey(String store, String category) {
+        return (store == null ? "" : store) + SEPARATOR + (category == null ? "" : category);
+    }
+
+    private static String normalize(String value) {
+        return value == null || value.isBlank() ? null : value.trim().toLowerCase();
+    }
+
+    /**
+     * @return The product a discount is deduplicated by, keyed by lower-cased name and brand.
+     */
+    private static String productKey(Discount discount) {
+        if (discount.getProductName() == null || discount.getBrand() == null) return null;
+        return (discount.getProductName() + "_" + discount.getBrand()).toLowerCase().trim();
+    }
+
+    /**
+     * The active discounts of one scope per product, and the best of each product in rank order.
+     */
+    private final class Scope {
+        private final Map<String, TreeSet<Integer>> rowsByProduct;
+        private final TreeSet<Integer> ranking;
+
+        Scope() {
+            this.rowsByProduct = new HashMap<>();
+            this.ranking = new TreeSet<>(byRank);
+        }
+
+        Scope(Scope source) {
+            this.rowsByProduct = new HashMap<>(source.rowsByProduct.size() * 4 / 3 + 1);
+            for (Map.Entry<String, TreeSet<Integer>> entry : source.rowsByProduct.entrySet()) {
+                // Copying a sorted set keeps its comparator and takes linear time.
+                rowsByProduct.put(entry.getKey(), new TreeSet<>(entry.getValue()));
+            }
+            this.ranking = new TreeSet<>(source.ranking);
+        }
+
+        void add(String productKey, int row) {
+            TreeSet<Integer> rows = rowsByProduct.computeIfAbsent(productKey, key -> new TreeSet<>(byRank));
+            Integer previousBest = rows.isEmpty() ? null : rows.first();
+            if (!rows.add(row)) return;
+            if (previousBest == null || byRank.compare(row, previousBest) < 0) {
+                if (previousBest != null) ranking.remove(previousBest);
+                ranking.add(row);
+            }
+        }
+
+        void remove(String productKey, int row) {
+            TreeSet<Integer> rows = rowsByProduct.get(productKey);
+            if (rows == null || !rows.remove(row)) return;
+            if (ranking.remove(row) && !rows.isEmpty()) ranking.add(rows.first());
+            if (rows.isEmpty()) rowsByProduct.remove(productKey);
+        }
+    }
+}
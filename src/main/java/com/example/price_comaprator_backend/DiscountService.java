@@ -5,13 +5,15 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.util.*;
-import java.util.stream.Collectors;
 
 @Service
 public class DiscountService {
@@ -19,156 +21,146 @@ public class DiscountService {
     private static final Logger logger = LoggerFactory.getLogger(DiscountService.class);
 
     /**
-     * Loads discount data from a list of specified CSV filenames.
-     * Assumes CSV files are located in a "discounts/" subdirectory within the classpath resources.
+     * Loads the discounts of a single CSV file from the "discounts/" classpath directory.
      *
-     * @param fileNames List of CSV file names to load.
-     * @return A list of Discount objects parsed from the files.
+     * @param fileName The discount CSV file name.
+     * @return The discounts in the file, with their source set to the store named in the filename.
+     * @throws RuntimeException if the file is missing or cannot be parsed.
      */
-    public List<Discount> loadDiscounts(List<String> fileNames) {
-        logger.info("DiscountService: Attempting to load discounts from {} files.", fileNames.size());
-        List<Discount> discounts = new ArrayList<>();
-
-        for (String fileName : fileNames) {
-            String resourcePath = "discounts/" + fileName;
-            logger.debug("DiscountService: Loading discounts from resource: {}", resourcePath);
-            try (InputStream inputStream = getClass().getClassLoader().getResourceAsStream(resourcePath);
-
-                 Reader reader = new InputStreamReader(Objects.requireNonNull(inputStream, "InputStream for " + resourcePath + " was null."), StandardCharsets.UTF_8)) {
-
-                List<Discount> fileDiscounts = new CsvToBeanBuilder<Discount>(reader)
-                        .withType(Discount.class)
-                        .withIgnoreLeadingWhiteSpace(true)
-                        .withSeparator(';')
-                        .build()
-                        .parse();
-
-                // Extracts store name from filename (e.g., "kaufland" from "kaufland_discounts_...")
-                String store = "unknown";
-                if (fileName != null && fileName.contains("_")) {
-                    store = fileName.split("_")[0].toLowerCase();
-                } else {
-                    logger.warn("DiscountService: Could not determine store from discount filename: {}. Defaulting to 'unknown'.", fileName);
-                }
-
-                for (Discount discount : fileDiscounts) {
-                    discount.setSource(store);
-                }
-
-                discounts.addAll(fileDiscounts);
-                logger.info("DiscountService: Successfully loaded {} discounts from {}.", fileDiscounts.size(), fileName);
-
-            } catch (NullPointerException e) {
-                logger.error("DiscountService: ❌ Discount resource not found (NullPointerException) at path: {}. Check if file exists and path is correct. Error: {}", resourcePath, e.getMessage());
-            }
-            catch (Exception e) {
-                logger.error("DiscountService: ❌ Failed to load or parse discounts from {}: {}", resourcePath, e.getMessage(), e);
-            }
+    public List<Discount> loadDiscountsFromCSV(String fileName) {
+        String resourcePath = "discounts/" + fileName;
+        logger.debug("DiscountService: Loading discounts from resource: {}", resourcePath);
+        try {
+            return prepareDiscounts(fileName, parseResource(resourcePath));
+        } catch (NullPointerException e) {
+            throw new RuntimeException("Discount resource not found at path: " + resourcePath + ". Check if file exists and path is correct.", e);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to load or parse discounts from " + resourcePath + ": " + e.getMessage(), e);
         }
-        logger.info("DiscountService: Finished loading discounts from all specified files. Total loaded: {}.", discounts.size());
-        return discounts;
     }
 
     /**
-     * Finds discounts from a list of all available discounts that are applicable to items in a given basket.
-     * Matching is based on a case-insensitive comparison of product name, brand, and source (store).
+     * Loads the discounts of a single CSV file from the filesystem.
      *
-     * @param basket       The list of items in the user's basket.
-     * @param allDiscounts The complete list of all available discounts.
-     * @return A list of Discount objects that match items in the basket.
+     * @param path The discount feed file, named like "store_discounts_yyyy-MM-dd.csv".
+     * @return The discounts in the file, with their source set to the store named in the filename.
+     * @throws RuntimeException if the file is missing or cannot be parsed.
      */
-    public List<Discount> findDiscountsForBasket(List<BasketItem> basket, List<Discount> allDiscounts) {
-        logger.info("Finding discounts for basket with {} item types, from a pool of {} discounts.", basket.size(), allDiscounts.size());
-        List<Discount> matched = new ArrayList<>();
-        if (basket.isEmpty() || allDiscounts.isEmpty()) {
-            logger.debug("Basket or global discount list is empty, no discounts matched.");
-            return matched;
+    public List<Discount> loadDiscountsFromFile(Path path) {
+        logger.debug("DiscountService: Loading discounts from file: {}", path);
+        try {
+            return prepareDiscounts(path.getFileName().toString(), parseFile(path));
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to load or parse discounts from " + path + ": " + e.getMessage(), e);
         }
+    }
 
-        for (BasketItem item : basket) {
-            String basketProductName = item.getProductName().trim().toLowerCase();
-            String basketBrand = (item.getBrand() != null) ? item.getBrand().trim().toLowerCase() : "";
-            String basketSource = (item.getSource() != null) ? item.getSource().trim().toLowerCase() : "";
-
-            logger.trace("Checking discounts for basket item: Name='{}', Brand='{}', Source='{}'", basketProductName, basketBrand, basketSource);
-
-            for (Discount discount : allDiscounts) {
+    private List<Discount> prepareDiscounts(String fileName, List<Discount> fileDiscounts) {
+        // Extracts store name from filename (e.g., "kaufland" from "kaufland_discounts_...")
+        String store = "unknown";
+        if (fileName != null && fileName.contains("_")) {
+            store = fileName.split("_")[0].toLowerCase();
+        } else {
+            logger.warn("DiscountService: Could not determine store from discount filename: {}. Defaulting to 'unknown'.", fileName);
+        }
 
-                if (discount.getProductName() != null && discount.getBrand() != null && discount.getSource() != null) {
-                    String discountProductName = discount.getProductName().trim().toLowerCase();
-                    String discountBrand = discount.getBrand().trim().toLowerCase();
-                    String discountSource = discount.getSource().trim().toLowerCase();
+        for (Discount discount : fileDiscounts) {
+            discount.setSource(store);
+        }
 
-                    if (basketProductName.equals(discountProductName) &&
-                            basketBrand.equals(discountBrand) &&
-                            basketSource.equals(discountSource)) {
-                        logger.debug("Match found for basket item '{}': Discount on '{}' from '{}'", item.getProductName(), discount.getProductName(), discount.getSource());
-                        matched.add(discount);
+        logger.info("DiscountService: Successfully loaded {} discounts from {}.", fileDiscounts.size(), fileName);
+        return fileDiscounts;
+    }
 
-                    }
-                }
-            }
+    private List<Discount> parseFile(Path path) throws IOException {
+        try (Reader reader = new InputStreamReader(Files.newInputStream(path), StandardCharsets.UTF_8)) {
+            return FeedCsvParser.parseDiscounts(reader);
+        } catch (FeedCsvParser.FallbackRequiredException e) {
+            logger.warn("DiscountService: {} is not in the plain feed layout ({}). Falling back to OpenCSV.", path.getFileName(), e.getMessage());
+        }
+        try (Reader reader = new InputStreamReader(Files.newInputStream(path), StandardCharsets.UTF_8)) {
+            return parseDiscountsWithOpenCsv(reader);
         }
-        logger.info("Found {} discounts applicable to the basket items.", matched.size());
-        return matched;
     }
 
     /**
-     * Retrieves the top N discounts based on the highest percentage off.
-     * If multiple discounts exist for the same product (defined by name + brand),
-     * only the one with the highest percentage discount is considered among them.
-     *
-     * @param allDiscounts The list of all discounts to consider.
-     * @param limit        The maximum number of best discounts to return.
-     * @return A list of Discount objects representing the best discounts, sorted by percentage.
+     * Parses a discount feed with the streaming {@link FeedCsvParser}, re-reading it with OpenCSV
+     * if the file uses a layout the streaming parser does not handle.
      */
-    public List<Discount> getBestDiscounts(List<Discount> allDiscounts, int limit) {
-        logger.info("Getting best {} discounts from a pool of {} total discounts.", limit, allDiscounts.size());
-        if (allDiscounts.isEmpty()) {
-            return Collections.emptyList();
+    private List<Discount> parseResource(String resourcePath) throws IOException {
+        try (Reader reader = openResource(resourcePath)) {
+            return FeedCsvParser.parseDiscounts(reader);
+        } catch (FeedCsvParser.FallbackRequiredException e) {
+            logger.warn("DiscountService: {} is not in the plain feed layout ({}). Falling back to OpenCSV.", resourcePath, e.getMessage());
         }
+        try (Reader reader = openResource(resourcePath)) {
+            return parseDiscountsWithOpenCsv(reader);
+        }
+    }
 
+    private Reader openResource(String resourcePath) {
+        InputStream inputStream = getClass().getClassLoader().getResourceAsStream(resourcePath);
+        return new InputStreamReader(Objects.requireNonNull(inputStream, "InputStream for " + resourcePath + " was null."), StandardCharsets.UTF_8);
+    }
 
-        Map<String, Discount> bestPerProduct = new HashMap<>();
-        for (Discount d : allDiscounts) {
-            if (d.getProductName() == null || d.getBrand() == null) {
-                logger.trace("Skipping discount with null name or brand while finding best: {}", d);
-                continue;
-            }
-            String key = (d.getProductName() + "_" + d.getBrand()).toLowerCase().trim();
-
+    static List<Discount> parseDiscountsWithOpenCsv(Reader reader) {
+        return new CsvToBeanBuilder<Discount>(reader)
+                .withType(Discount.class)
+                .withIgnoreLeadingWhiteSpace(true)
+                .withSeparator(';')
+                .build()
+                .parse();
+    }
 
-            bestPerProduct.merge(key, d, (oldD, newD) -> newD.getPercentageOfDiscount() > oldD.getPercentageOfDiscount() ? newD : oldD);
+    /**
+     * Finds the discounts applicable to the items of a basket among the discounts active on one day.
+     *
+     * @param basket The list of items in the user's basket.
+     * @param active The active discounts, e.g. from {@link DiscountActivationScheduler#activeOn(LocalDate)}.
+     * @return A list of Discount objects that match items in the basket, grouped by basket item.
+     */
+    public List<Discount> findDiscountsForBasket(List<BasketItem> basket, ActiveDiscounts active) {
+        logger.info("Finding discounts for basket with {} item types, among {} discounts active on {}.", basket.size(), active.size(), active.getDay());
+        List<Discount> matched = new ArrayList<>();
+        for (BasketItem item : basket) {
+            List<Discount> itemDiscounts = active.discountsFor(item);
+            logger.trace("Basket item: Name='{}', Brand='{}', Source='{}' has {} discount(s).",
+                    item.getProductName(), item.getBrand(), item.getSource(), itemDiscounts.size());
+            matched.addAll(itemDiscounts);
         }
+        logger.info("Found {} discounts applicable to the basket items.", matched.size());
+        return matched;
+    }
 
-        List<Discount> topDiscounts = bestPerProduct.values().stream()
-                .sorted(Comparator.comparingInt(Discount::getPercentageOfDiscount).reversed()) 
-                .limit(limit)
-                .collect(Collectors.toList());
-
-        logger.info("Returning {} top discounts.", topDiscounts.size());
+    /**
+     * Retrieves the top N discounts of a day from its precomputed rankings, optionally within one store and/or
+     * product category. Discounts are deduplicated per product (name and brand), keeping the highest percentage.
+     *
+     * @param active   The active discounts, e.g. from {@link DiscountActivationScheduler#activeOn(LocalDate)}.
+     * @param limit    The maximum number of best discounts to return, capped at {@link DiscountRankings#MAX_RANKED}.
+     * @param store    Only consider this store; null for every store.
+     * @param category Only consider this product category; null for every category.
+     * @return A list of Discount objects representing the best discounts, sorted by percentage.
+     */
+    public List<Discount> getBestDiscounts(ActiveDiscounts active, int limit, String store, String category) {
+        List<Discount> topDiscounts = active.getRankings().top(limit, store, category);
+        logger.debug("Returning {} top discounts active on {} (store={}, category={}).", topDiscounts.size(), active.getDay(), store, category);
         return topDiscounts;
     }
 
     /**
-     * Finds discounts that are considered "new" based on their start date ('fromDate').
-     * A discount is new if its 'fromDate' is not before the date calculated by subtracting 'days' from the current date.
+     * Finds the discounts that started within the {@code days} days up to and including {@code asOf},
+     * by binary search over the start dates instead of a scan.
      *
-     * @param allDiscounts The list of all discounts to filter.
-     * @param days         The number of past days to consider for newness (e.g., 1 for "today", 7 for "last week").
-     * @return A list of new Discount objects.
+     * @param validityIndex The discounts to search, e.g. {@link CatalogSnapshot#getDiscountValidity()}.
+     * @param days          The number of past days to consider for newness (e.g., 1 for "since yesterday").
+     * @param asOf          The reference date, normally today.
+     * @return The new discounts, in catalog order.
      */
-    public List<Discount> findNewDiscounts(List<Discount> allDiscounts, int days) {
-        logger.info("Finding new discounts with a start date within the last {} day(s).", days);
-        if (allDiscounts.isEmpty()) {
-            return Collections.emptyList();
-        }
-        LocalDate cutoffDate = LocalDate.now().minusDays(days);
-
-        List<Discount> newDiscountsList = allDiscounts.stream()
-                .filter(d -> d.getFromDate() != null && !d.getFromDate().isBefore(cutoffDate))
-                .collect(Collectors.toList());
-        logger.info("Found {} new discounts starting on or after {}.", newDiscountsList.size(), cutoffDate.plusDays(1));
+    public List<Discount> findNewDiscounts(DiscountValidityIndex validityIndex, int days, LocalDate asOf) {
+        LocalDate cutoffDate = asOf.minusDays(days);
+        List<Discount> newDiscountsList = validityIndex.startedBetween(cutoffDate, asOf);
+        logger.info("Found {} new discounts starting between {} and {}.", newDiscountsList.size(), cutoffDate, asOf);
         return newDiscountsList;
     }
 }
\ No newline at end of file
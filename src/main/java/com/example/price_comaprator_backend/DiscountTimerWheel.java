@@ -0,0 +1,113 @@
+package com.example.price_comaprator_backend;
+
+import java.util.Arrays;
+
+/**
+ * Hashed timer wheel with one tick per day, holding the activation and expiry events of discount rows.
+ * <p>
+ * An event for day {@code d} goes into slot {@code d mod slots}, so scheduling is an append. Advancing the wheel by
+ * one day visits a single slot and fires the events due that day; events further than one lap ahead share the slot
+ * and stay put until the wheel comes around on their day. Not thread-safe: the owner serializes access.
+ */
+public final class DiscountTimerWheel {
+
+    /**
+     * Receives the events fired by {@link #advanceTo(long, Handler)}.
+     */
+    public interface Handler {
+        void activate(int row);
+
+        void expire(int row);
+    }
+
+    private static final int EXPIRY = 0;
+    private static final int ACTIVATION = 1;
+
+    private final int mask;
+    // Per slot: events encoded as (day << 32) | (row << 1) | kind, unordered.
+    private final long[][] slots;
+    private final int[] slotSizes;
+    private long currentDay;
+    private int pending;
+
+    /**
+     * @param slots      Number of slots, rounded up to a power of two; about one lap of days keeps slots short.
+     * @param currentDay The epoch day the wheel starts on. Events are only accepted for later days.
+     */
+    public DiscountTimerWheel(int slots, long currentDay) {
+        int size = Integer.highestOneBit(Math.max(1, slots - 1)) << 1;
+        this.mask = size - 1;
+        this.slots = new long[size][];
+        this.slotSizes = new int[size];
+        this.currentDay = currentDay;
+    }
+
+    public void scheduleActivation(long day, int row) {
+        schedule(day, row, ACTIVATION);
+    }
+
+    public void scheduleExpiry(long day, int row) {
+        schedule(day, row, EXPIRY);
+    }
+
+    private void schedule(long day, int row, int kind) {
+        if (day <= currentDay) {
+            throw new IllegalArgumentException("Event for day " + day + " is not after the current day " + currentDay);
+        }
+        int slot = (int) (day & mask);
+        long[] events = slots[slot];
+        if (events == null) {
+            events = slots[slot] = new long[4];
+        } else if (slotSizes[slot] == events.length) {
+            events = slots[slot] = Arrays.copyOf(events, events.length * 2);
+        }
+        events[slotSizes[slot]++] = day << 32 | (long) row << 1 | kind;
+        pending++;
+    }
+
+    /**
+     * Moves the wheel forward one day at a time up to {@code day}, firing each day's expiries before its activations.
+     *
+     * @return The number of events fired.
+     */
+    public int advanceTo(long day, Handler handler) {
+        int fired = 0;
+        while (currentDay < day) {
+            currentDay++;
+            fired += fire((int) (currentDay & mask), EXPIRY, handler);
+            fired += fire((int) (currentDay & mask), ACTIVATION, handler);
+        }
+        return fired;
+    }
+
+    private int fire(int slot, int kind, Handler handler) {
+        long[] events = slots[slot];
+        int size = slotSizes[slot];
+        int fired = 0;
+        for (int i = 0; i < size; ) {
+            long event = events[i];
+            if (event >> 32 != currentDay || (event & 1) != kind) {
+                i++;
+                continue;
+            }
+            // Swap-remove: the slot is unordered, so the last event takes this one's place.
+            events[i] = events[--size];
+            int row = (int) event >>> 1;
+            if (kind == ACTIVATION) handler.activate(row);
+            else handler.expire(row);
+            fired++;
+        }
+        slotSizes[slot] = size;
+        pending -= fired;
+        return fired;
+    }
+
+    public long currentDay() {
+        return currentDay;
+    }
+
+    /** @return The number of events scheduled and not fired yet. */
+    public int pending() {
+        return pending;
+    }
+}
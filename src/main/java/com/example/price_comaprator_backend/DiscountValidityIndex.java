@@ -0,0 +1,133 @@
+package com.example.price_comaprator_backend;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Validity windows ({@code fromDate}..{@code toDate}, both inclusive) of the discounts of a {@link CatalogSnapshot},
+ * for date queries that do not scan every discount.
+ * <p>
+ * Discounts are sorted by start date. "Started between two dates" is then a binary-searched range. "Active on a
+ * date" is the prefix of discounts started by that date, filtered by end date through a max-end segment tree over
+ * the sorted order: subtrees whose latest end is before the date are skipped whole, so a query costs
+ * {@code O(log n)} per discount returned. A missing {@code fromDate} counts as "always started" and a missing
+ * {@code toDate} as "never ends". Results come back in catalog order, as if the discount list had been filtered.
+ */
+public final class DiscountValidityIndex {
+
+    private static final int OPEN_START = Integer.MIN_VALUE;
+    private static final int OPEN_END = Integer.MAX_VALUE;
+
+    private final List<Discount> discounts;
+    // Catalog positions of the discounts, sorted by start day, and the start/end days in that order.
+    private final int[] byStart;
+    private final int[] startDays;
+    private final int[] endDays;
+    private final int leaves;
+    private final int[] maxEnd;
+
+    public DiscountValidityIndex(List<Discount> discounts) {
+        this.discounts = discounts;
+        int size = discounts.size();
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) order[i] = i;
+        Arrays.sort(order, (a, b) -> Integer.compare(startDay(discounts.get(a)), startDay(discounts.get(b))));
+
+        this.byStart = new int[size];
+        this.startDays = new int[size];
+        this.endDays = new int[size];
+        for (int i = 0; i < size; i++) {
+            byStart[i] = order[i];
+            startDays[i] = startDay(discounts.get(order[i]));
+            endDays[i] = endDay(discounts.get(order[i]));
+        }
+
+        int leafCount = 1;
+        while (leafCount < Math.max(1, size)) leafCount <<= 1;
+        this.leaves = leafCount;
+        this.maxEnd = new int[2 * leafCount];
+        Arrays.fill(maxEnd, OPEN_START);
+        System.arraycopy(endDays, 0, maxEnd, leafCount, size);
+        for (int node = leafCount - 1; node >= 1; node--) {
+            maxEnd[node] = Math.max(maxEnd[2 * node], maxEnd[2 * node + 1]);
+        }
+    }
+
+    /**
+     * @return The discounts whose validity window contains {@code date}, in catalog order.
+     */
+    public List<Discount> activeOn(LocalDate date) {
+        int day = (int) date.toEpochDay();
+        int[][] found = {new int[16]};
+        int count = collectEndingOnOrAfter(1, 0, leaves, upperBound(day), day, found, 0);
+        return inCatalogOrder(found[0], count);
+    }
+
+    /**
+     * Appends the catalog positions of the discounts in {@code [nodeFrom, nodeTo) ∩ [0, started)} of the start order
+     * that end on or after {@code day}.
+     *
+     * @return The new number of positions in {@code found[0]}.
+     */
+    private int collectEndingOnOrAfter(int node, int nodeFrom, int nodeTo, int started, int day, int[][] found, int count) {
+        if (nodeFrom >= started || maxEnd[node] < day) return count;
+        if (nodeTo - nodeFrom == 1) {
+            if (count == found[0].length) found[0] = Arrays.copyOf(found[0], count * 2);
+            found[0][count] = byStart[nodeFrom];
+            return count + 1;
+        }
+        int middle = (nodeFrom + nodeTo) >>> 1;
+        count = collectEndingOnOrAfter(2 * node, nodeFrom, middle, started, day, found, count);
+        return collectEndingOnOrAfter(2 * node + 1, middle, nodeTo, started, day, found, count);
+    }
+
+    /**
+     * @return The discounts whose {@code fromDate} lies between {@code from} and {@code to} inclusive, in catalog
+     * order. Discounts without a start date are not included.
+     */
+    public List<Discount> startedBetween(LocalDate from, LocalDate to) {
+        int low = Math.max(lowerBound((int) from.toEpochDay()), lowerBound(OPEN_START + 1));
+        int high = upperBound((int) to.toEpochDay());
+        if (low >= high) return new ArrayList<>();
+        return inCatalogOrder(Arrays.copyOfRange(byStart, low, high), high - low);
+    }
+
+    private List<Discount> inCatalogOrder(int[] positions, int count) {
+        Arrays.sort(positions, 0, count);
+        List<Discount> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) result.add(discounts.get(positions[i]));
+        return result;
+    }
+
+    /** @return The number of discounts started on or before {@code day}. */
+    private int upperBound(int day) {
+        int low = 0, high = startDays.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (startDays[mid] <= day) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    /** @return The number of discounts started before {@code day}. */
+    private int lowerBound(int day) {
+        int low = 0, high = startDays.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (startDays[mid] < day) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    private static int startDay(Discount discount) {
+        return discount.getFromDate() == null ? OPEN_START : (int) discount.getFromDate().toEpochDay();
+    }
+
+    private static int endDay(Discount discount) {
+        return discount.getToDate() == null ? OPEN_END : (int) discount.getToDate().toEpochDay();
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.price_comaprator_backend;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The prices customers actually pay on one day: every product row of a {@link CatalogSnapshot} with the best of
+ * its active discounts applied, row for row with {@link ProductColumns}. Built once per snapshot and day from the
+ * snapshot's {@link DiscountProductIndex}, so the optimizer, recommendations and alerts read a final price with an
+ * array access instead of joining discounts per request. At a day rollover the next day's table is a copy of the
+ * previous one with only the rows of the discounts that started or ended priced again.
+ * <p>
+ * Discounted prices are rounded half up to the cent; prices per standard unit are scaled by the same factor.
+ * Rows without an active discount keep their list price, and missing prices stay NaN.
+ */
+public final class EffectivePriceTable {
+
+    private static final int[] NO_ROWS = new int[0];
+
+    private final LocalDate day;
+    private final double[] prices;
+    private final double[] pricesPerUnit;
+    private final int[] percentagesOff;
+    private final int discountedRows;
+
+    /**
+     * @param snapshot        The snapshot whose product rows are priced.
+     * @param activeDiscounts The discounts of {@code snapshot} active on {@code day}.
+     * @param day             The day the prices are for.
+     */
+    public EffectivePriceTable(CatalogSnapshot snapshot, List<Discount> activeDiscounts, LocalDate day) {
+        ProductColumns columns = snapshot.getProductColumns();
+        DiscountProductIndex discountProducts = snapshot.getDiscountProducts();
+        int size = columns.size();
+        this.day = day;
+        this.prices = new double[size];
+        this.pricesPerUnit = new double[size];
+        this.percentagesOff = new int[size];
+
+        // Several discounts on one row (overlapping promotions) do not stack: the largest one wins.
+        int[] best = new int[size];
+        for (Discount discount : activeDiscounts) {
+            int percentage = percentageOf(discount);
+            for (int row : discountProducts.productRows(discount)) {
+                best[row] = Math.max(best[row], percentage);
+            }
+        }
+        int discounted = 0;
+        for (int row = 0; row < size; row++) {
+            setPrice(columns, row, best[row]);
+            if (best[row] > 0) discounted++;
+        }
+        this.discountedRows = discounted;
+    }
+
+    /**
+     * Copies {@code previous} and prices again only the product rows the changed discounts apply to.
+     *
+     * @param previous            The table of {@code snapshot} before the discounts changed.
+     * @param active              The discounts of {@code snapshot} active on {@code day}.
+     * @param changedDiscountRows Rows of {@link CatalogSnapshot#getDiscounts()} activated or expired since
+     *                            {@code previous}, e.g. by a day rollover.
+     */
+    EffectivePriceTable(EffectivePriceTable previous, CatalogSnapshot snapshot, ActiveDiscounts active,
+                        int[] changedDiscountRows, LocalDate day) {
+        ProductColumns columns = snapshot.getProductColumns();
+        DiscountProductIndex discountProducts = snapshot.getDiscountProducts();
+        List<Discount> discounts = snapshot.getDiscounts();
+        this.day = day;
+        this.prices = previous.prices.clone();
+        this.pricesPerUnit = previous.pricesPerUnit.clone();
+        this.percentagesOff = previous.percentagesOff.clone();
+
+        int discounted = previous.discountedRows;
+        for (int discountRow : changedDiscountRows) {
+            Discount discount = discounts.get(discountRow);
+            int[] productRows = discountProducts.productRows(discount);
+            if (productRows.length == 0) continue;
+            // A discount applies to exactly the product rows sharing its key, so the key's active rows are every
+            // discount on those rows.
+            int percentage = 0;
+            for (int row : active.rowsFor(DiscountKeys.keyOf(discount))) {
+                percentage = Math.max(percentage, percentageOf(discounts.get(row)));
+            }
+            for (int row : productRows) {
+                if (percentagesOff[row] == percentage) continue;
+                if (percentagesOff[row] == 0) discounted++;
+                else if (percentage == 0) discounted--;
+                setPrice(columns, row, percentage);
+            }
+        }
+        this.discountedRows = discounted;
+    }
+
+    private static int percentageOf(Discount discount) {
+        return Math.max(0, Math.min(100, discount.getPercentageOfDiscount()));
+    }
+
+    private void setPrice(ProductColumns columns, int row, int percentage) {
+        percentagesOff[row] = percentage;
+        if (percentage == 0) {
+            prices[row] = columns.price(row);
+            pricesPerUnit[row] = columns.pricePerUnit(row);
+        } else {
+            prices[row] = discounted(columns.price(row), percentage);
+            pricesPerUnit[row] = columns.pricePerUnit(row) * (100 - percentage) / 100.0;
+        }
+    }
+
+    /**
+     * @return The price with {@code percentage} taken off, rounded half up to the cent in decimal arithmetic, so
+     * 5% off 5.30 is 5.04 and not the 5.03 that binary floating point rounds 5.035 to.
+     */
+    static double discounted(double price, int percentage) {
+        if (Double.isNaN(price) || Double.isInfinite(price)) return price;
+        return BigDecimal.valueOf(price)
+                .multiply(BigDecimal.valueOf(100 - percentage))
+                .movePointLeft(2)
+                .setScale(2, RoundingMode.HALF_UP)
+                .doubleValue();
+    }
+
+    public LocalDate getDay() {
+        return day;
+    }
+
+    public double price(int row) { return prices[row]; }
+    public double pricePerUnit(int row) { return pricesPerUnit[row]; }
+    /** @return The percentage taken off the row's list price, 0 if it has no active discount. */
+    public int percentageOff(int row) { return percentagesOff[row]; }
+
+    /** @return The number of rows priced below their list price. */
+    public int discountedRows() {
+        return discountedRows;
+    }
+
+    /**
+     * @param rows Candidate rows, e.g. {@link ProductNameIndex#rowsByPrice(String)}.
+     * @return The row with the lowest effective price, the earliest row on ties, or -1 if {@code rows} is empty.
+     * Rows without a price only win when no row has one.
+     */
+    public int cheapest(int[] rows) {
+        int best = -1;
+        for (int row : rows) {
+            if (best < 0 || Double.compare(prices[row], prices[best]) < 0
+                    || Double.compare(prices[row], prices[best]) == 0 && row < best) {
+                best = row;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * @param rows     Candidate rows, e.g. {@link ProductNameIndex#rowsByPrice(String)}.
+     * @param maxPrice The inclusive upper bound on the effective price.
+     * @return The rows whose effective price is at most {@code maxPrice}, in ascending row order.
+     */
+    public int[] rowsAtOrBelow(int[] rows, double maxPrice) {
+        if (rows.length == 0) return NO_ROWS;
+        int[] matching = new int[rows.length];
+        int count = 0;
+        for (int row : rows) {
+            if (prices[row] <= maxPrice) matching[count++] = row;
+        }
+        matching = Arrays.copyOf(matching, count);
+        Arrays.sort(matching);
+        return matching;
+    }
+}
@@ -0,0 +1,578 @@
+package com.example.price_comaprator_backend;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Reflection-free streaming parser for the fixed ';'-separated product and discount feeds.
+ * <p>
+ * Header positions are resolved once per file; every data row is then split in place inside the read buffer,
+ * numbers and dates are parsed straight from the characters, and low-cardinality text columns
+ * (category, brand, unit, currency) reuse one String instance per distinct value.
+ * Anything outside the simple layout (quoted fields, ragged rows, unparseable values) raises
+ * {@link FallbackRequiredException} so the caller can re-read the file with OpenCSV.
+ * Very large files on disk can instead be memory-mapped and parsed as parallel chunks.
+ */
+public final class FeedCsvParser {
+
+    static final char SEPARATOR = ';';
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final long MIN_CHUNK_BYTES = 1L << 20;
+    private static final long MAX_CHUNK_BYTES = 16L << 20;
+    private static final int SCAN_WINDOW_BYTES = 64 * 1024;
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private FeedCsvParser() {}
+
+    /**
+     * Signals that a file cannot be handled by the streaming parser and should be parsed by OpenCSV instead.
+     */
+    public static final class FallbackRequiredException extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        private final long lineNumber;
+        private final String detail;
+
+        public FallbackRequiredException(long lineNumber, String detail) {
+            super("line " + lineNumber + ": " + detail);
+            this.lineNumber = lineNumber;
+            this.detail = detail;
+        }
+
+        public long getLineNumber() {
+            return lineNumber;
+        }
+
+        /**
+         * @return The same failure reported at {@code offset} lines further into the file.
+         */
+        FallbackRequiredException shiftedBy(long offset) {
+            return new FallbackRequiredException(lineNumber + offset, detail);
+        }
+    }
+
+    interface RowBinder<T> {
+        T bind(Row row) throws FallbackRequiredException;
+    }
+
+    /**
+     * The columns a feed type reads, in the order its binder refers to them, plus the binder itself.
+     */
+    static final class Schema<T> {
+        final String[] columns;
+        final RowBinder<T> binder;
+
+        Schema(String[] columns, RowBinder<T> binder) {
+            this.columns = columns;
+            this.binder = binder;
+        }
+    }
+
+    static final Schema<Product> PRODUCT_SCHEMA = new Schema<>(
+            new String[]{"product_id", "product_name", "product_category", "brand",
+                    "package_quantity", "package_unit", "price", "currency"},
+            row -> {
+                Product product = new Product();
+                product.setProductId(row.text(0));
+                product.setProductName(row.text(1));
+                product.setProductCategory(row.sharedText(2));
+                product.setBrand(row.sharedText(3));
+                product.setPackageQuantity(row.sharedText(4));
+                product.setPackageUnit(row.sharedText(5));
+                product.setPrice(row.boxedDecimal(6));
+                product.setCurrency(row.sharedText(7));
+                return product;
+            });
+
+    static final Schema<Discount> DISCOUNT_SCHEMA = new Schema<>(
+            new String[]{"product_id", "product_name", "brand", "package_quantity", "package_unit",
+                    "product_category", "from_date", "to_date", "percentage_of_discount", "source"},
+            row -> {
+                Discount discount = new Discount();
+                discount.setProductId(row.text(0));
+                discount.setProductName(row.text(1));
+                discount.setBrand(row.sharedText(2));
+                discount.setPackageQuantity(row.decimal(3));
+                discount.setPackageUnit(row.sharedText(4));
+                discount.setProductCategory(row.sharedText(5));
+                discount.setFromDate(row.date(6));
+                discount.setToDate(row.date(7));
+                discount.setPercentageOfDiscount(row.integer(8));
+                discount.setSource(row.sharedText(9));
+                return discount;
+            });
+
+    public static List<Product> parseProducts(Reader reader) throws IOException, FallbackRequiredException {
+        return parse(reader, PRODUCT_SCHEMA);
+    }
+
+    public static List<Discount> parseDiscounts(Reader reader) throws IOException, FallbackRequiredException {
+        return parse(reader, DISCOUNT_SCHEMA);
+    }
+
+    /**
+     * Streams the whole reader through the schema's binder, one buffer of characters at a time.
+     */
+    static <T> List<T> parse(Reader reader, Schema<T> schema) throws IOException, FallbackRequiredException {
+        Session<T> session = new Session<>(schema, 1L);
+        char[] buffer = new char[BUFFER_SIZE];
+        int lineStart = 0;
+        int scanFrom = 0;
+        int limit = 0;
+        while (true) {
+            int newline = indexOf(buffer, '\n', scanFrom, limit);
+            if (newline >= 0) {
+                session.acceptLine(buffer, lineStart, newline);
+                lineStart = newline + 1;
+                scanFrom = lineStart;
+                continue;
+            }
+            if (lineStart > 0) {
+                System.arraycopy(buffer, lineStart, buffer, 0, limit - lineStart);
+                limit -= lineStart;
+                lineStart = 0;
+            }
+            scanFrom = limit;
+            if (limit == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+            int read = reader.read(buffer, limit, buffer.length - limit);
+            if (read < 0) {
+                if (limit > 0) {
+                    session.acceptLine(buffer, 0, limit);
+                }
+                return session.rows;
+            }
+            limit += read;
+        }
+    }
+
+    public static List<Product> parseProducts(Path path, int parallelism) throws IOException, FallbackRequiredException {
+        return parseMapped(path, PRODUCT_SCHEMA, parallelism);
+    }
+
+    /**
+     * Memory-maps a feed file, splits the data after the header into byte ranges that end on a line boundary
+     * and parses the ranges in parallel. Splitting on raw bytes is safe because '\n' never occurs inside a
+     * multi-byte UTF-8 sequence. Rows come back in file order, and a parse error reports its line number
+     * within the whole file.
+     */
+    static <T> List<T> parseMapped(Path path, Schema<T> schema, int parallelism) throws IOException, FallbackRequiredException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long dataStart = nextLineStart(channel, 0, size);
+
+            Session<T> header = new Session<>(schema, 1L);
+            CharBuffer headerChars = decode(channel, 0, dataStart);
+            int headerFrom = headerChars.arrayOffset() + headerChars.position();
+            int headerTo = headerFrom + headerChars.remaining();
+            if (headerTo > headerFrom && headerChars.array()[headerTo - 1] == '\n') headerTo--;
+            header.acceptLine(headerChars.array(), headerFrom, headerTo);
+            if (!header.hasHeader()) {
+                throw new FallbackRequiredException(1, "missing header line");
+            }
+
+            List<ChunkResult<T>> chunks;
+            try {
+                chunks = FeedIngestor.mapInOrder(splitIntoChunks(channel, dataStart, size, parallelism), parallelism,
+                        range -> parseChunk(channel, header, range));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+
+            List<T> rows = new ArrayList<>();
+            long linesBeforeChunk = header.linesConsumed();
+            for (ChunkResult<T> chunk : chunks) {
+                if (chunk.error != null) {
+                    throw chunk.error.shiftedBy(linesBeforeChunk);
+                }
+                rows.addAll(chunk.rows);
+                linesBeforeChunk += chunk.lineCount;
+            }
+            return rows;
+        }
+    }
+
+    private static final class ChunkResult<T> {
+        final List<T> rows;
+        final long lineCount;
+        final FallbackRequiredException error;
+
+        ChunkResult(List<T> rows, long lineCount, FallbackRequiredException error) {
+            this.rows = rows;
+            this.lineCount = lineCount;
+            this.error = error;
+        }
+    }
+
+    private static <T> ChunkResult<T> parseChunk(FileChannel channel, Session<T> header, long[] range) {
+        Session<T> session = new Session<>(header);
+        try {
+            CharBuffer chars = decode(channel, range[0], range[1]);
+            char[] buffer = chars.array();
+            int lineStart = chars.arrayOffset() + chars.position();
+            int end = lineStart + chars.remaining();
+            while (lineStart < end) {
+                int newline = indexOf(buffer, '\n', lineStart, end);
+                int lineEnd = newline < 0 ? end : newline;
+                session.acceptLine(buffer, lineStart, lineEnd);
+                lineStart = lineEnd + 1;
+            }
+            return new ChunkResult<>(session.rows, session.linesConsumed(), null);
+        } catch (FallbackRequiredException e) {
+            return new ChunkResult<>(null, 0, e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Cuts [dataStart, size) into roughly equal ranges, several per worker so uneven chunks even out,
+     * moving every cut forward to just after the next newline.
+     */
+    private static List<long[]> splitIntoChunks(FileChannel channel, long dataStart, long size, int parallelism) throws IOException {
+        long target = (size - dataStart) / (Math.max(1, parallelism) * 4L);
+        target = Math.max(MIN_CHUNK_BYTES, Math.min(MAX_CHUNK_BYTES, target));
+        List<long[]> ranges = new ArrayList<>();
+        long start = dataStart;
+        while (start < size) {
+            long end = start + target >= size ? size : nextLineStart(channel, start + target - 1, size);
+            ranges.add(new long[]{start, end});
+            start = end;
+        }
+        return ranges;
+    }
+
+    /**
+     * @return The offset just after the first '\n' at or after {@code from}, or {@code size} if there is none.
+     */
+    private static long nextLineStart(FileChannel channel, long from, long size) throws IOException {
+        long position = from;
+        while (position < size) {
+            int length = (int) Math.min(SCAN_WINDOW_BYTES, size - position);
+            MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+            for (int i = 0; i < length; i++) {
+                if (window.get(i) == '\n') return position + i + 1;
+            }
+            position += length;
+        }
+        return size;
+    }
+
+    private static CharBuffer decode(FileChannel channel, long from, long to) throws IOException {
+        MappedByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, from, to - from);
+        return StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE)
+                .decode(bytes);
+    }
+
+    static int indexOf(char[] buffer, char target, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (buffer[i] == target) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Parse state for one file (or one chunk of a file): the resolved header, the reusable row and the output.
+     */
+    static final class Session<T> {
+        private final Schema<T> schema;
+        private final Row row;
+        final List<T> rows = new ArrayList<>();
+        private final long firstLineNumber;
+        private long lineNumber;
+
+        Session(Schema<T> schema, long firstLineNumber) {
+            this.schema = schema;
+            this.row = new Row(schema.columns);
+            this.firstLineNumber = firstLineNumber;
+            this.lineNumber = firstLineNumber;
+        }
+
+        /**
+         * Starts a session for lines that follow an already parsed header, e.g. one chunk of a large file.
+         * Line numbers are counted from 1 within the chunk.
+         */
+        Session(Session<T> headerSource) {
+            this(headerSource.schema, 1L);
+            this.row.columnMap = headerSource.row.columnMap;
+            this.row.headerWidth = headerSource.row.headerWidth;
+        }
+
+        boolean hasHeader() {
+            return row.columnMap != null;
+        }
+
+        long linesConsumed() {
+            return lineNumber - firstLineNumber;
+        }
+
+        void acceptLine(char[] buffer, int from, int to) throws FallbackRequiredException {
+            long current = lineNumber++;
+            if (to > from && buffer[to - 1] == '\r') to--;
+            if (current == 1 && row.columnMap == null && to > from && buffer[from] == '\uFEFF') from++;
+            if (isBlank(buffer, from, to)) return;
+
+            row.split(buffer, from, to, current);
+            if (row.columnMap == null) {
+                row.resolveHeader();
+                return;
+            }
+            if (row.width != row.headerWidth) {
+                throw new FallbackRequiredException(current, "expected " + row.headerWidth +
+                        " fields but found " + row.width);
+            }
+            rows.add(schema.binder.bind(row));
+        }
+    }
+
+    /**
+     * A view over the fields of the current line. Field boundaries point into the caller's buffer, so no
+     * String is created unless a binder asks for text.
+     */
+    static final class Row {
+        private final String[] columns;
+        private final StringCache sharedStrings = new StringCache();
+        private char[] buffer;
+        private int[] starts = new int[16];
+        private int[] ends = new int[16];
+        private int width;
+        private long lineNumber;
+        private int[] columnMap;
+        private int headerWidth;
+
+        Row(String[] columns) {
+            this.columns = columns;
+        }
+
+        void split(char[] buffer, int from, int to, long lineNumber) throws FallbackRequiredException {
+            this.buffer = buffer;
+            this.lineNumber = lineNumber;
+            int field = 0;
+            int fieldStart = from;
+            for (int i = from; i <= to; i++) {
+                if (i == to || buffer[i] == SEPARATOR) {
+                    if (field == starts.length) {
+                        starts = Arrays.copyOf(starts, field * 2);
+                        ends = Arrays.copyOf(ends, field * 2);
+                    }
+                    starts[field] = fieldStart;
+                    ends[field] = i;
+                    field++;
+                    fieldStart = i + 1;
+                } else if (buffer[i] == '"') {
+                    throw new FallbackRequiredException(lineNumber, "quoted fields are not supported");
+                }
+            }
+            this.width = field;
+        }
+
+        void resolveHeader() {
+            int[] map = new int[columns.length];
+            Arrays.fill(map, -1);
+            for (int field = 0; field < width; field++) {
+                int s = trimStart(buffer, starts[field], ends[field]);
+                int e = trimEnd(buffer, s, ends[field]);
+                String name = new String(buffer, s, e - s).toLowerCase(Locale.ROOT);
+                for (int c = 0; c < columns.length; c++) {
+                    if (columns[c].equals(name)) map[c] = field;
+                }
+            }
+            this.columnMap = map;
+            this.headerWidth = width;
+        }
+
+        /**
+         * @return The field exactly as written, surrounding whitespace included, like OpenCSV with
+         * {@code ignoreLeadingWhiteSpace}: that option only drops whitespace in front of an opening quote, and a quote
+         * anywhere on the line makes {@link #split} fall back to OpenCSV before a field is read.
+         */
+        String text(int column) {
+            int field = columnMap[column];
+            if (field < 0) return null;
+            return new String(buffer, starts[field], ends[field] - starts[field]);
+        }
+
+        String sharedText(int column) {
+            int field = columnMap[column];
+            if (field < 0) return null;
+            return sharedStrings.get(buffer, starts[field], ends[field]);
+        }
+
+        Double boxedDecimal(int column) throws FallbackRequiredException {
+            int field = columnMap[column];
+            if (field < 0) return null;
+            int s = trimStart(buffer, starts[field], ends[field]);
+            int e = trimEnd(buffer, s, ends[field]);
+            return s == e ? null : parseDecimal(s, e, column);
+        }
+
+        double decimal(int column) throws FallbackRequiredException {
+            int field = columnMap[column];
+            if (field < 0) return 0.0;
+            int s = trimStart(buffer, starts[field], ends[field]);
+            int e = trimEnd(buffer, s, ends[field]);
+            return s == e ? 0.0 : parseDecimal(s, e, column);
+        }
+
+        int integer(int column) throws FallbackRequiredException {
+            int field = columnMap[column];
+            if (field < 0) return 0;
+            int s = trimStart(buffer, starts[field], ends[field]);
+            int e = trimEnd(buffer, s, ends[field]);
+            if (s == e) return 0;
+            int i = s;
+            boolean negative = buffer[i] == '-';
+            if (negative || buffer[i] == '+') i++;
+            if (i == e || e - i > 9) throw invalid(column, s, e);
+            int value = 0;
+            for (; i < e; i++) {
+                char c = buffer[i];
+                if (c < '0' || c > '9') throw invalid(column, s, e);
+                value = value * 10 + (c - '0');
+            }
+            return negative ? -value : value;
+        }
+
+        LocalDate date(int column) throws FallbackRequiredException {
+            int field = columnMap[column];
+            if (field < 0) return null;
+            int s = trimStart(buffer, starts[field], ends[field]);
+            int e = trimEnd(buffer, s, ends[field]);
+            if (s == e) return null;
+            if (e - s != 10 || buffer[s + 4] != '-' || buffer[s + 7] != '-') throw invalid(column, s, e);
+            int year = digits(s, s + 4, column, e);
+            int month = digits(s + 5, s + 7, column, e);
+            int day = digits(s + 8, s + 10, column, e);
+            try {
+                return LocalDate.of(year, month, day);
+            } catch (DateTimeException ex) {
+                throw invalid(column, s, e);
+            }
+        }
+
+        private int digits(int from, int to, int column, int fieldEnd) throws FallbackRequiredException {
+            int value = 0;
+            for (int i = from; i < to; i++) {
+                char c = buffer[i];
+                if (c < '0' || c > '9') throw invalid(column, from, fieldEnd);
+                value = value * 10 + (c - '0');
+            }
+            return value;
+        }
+
+        /**
+         * Parses plain decimals such as "9.90" or "-0.25" exactly: the digits are accumulated into a long and divided
+         * once by an exact power of ten, which IEEE-754 rounds correctly. Longer or exotic literals go through
+         * {@link Double#parseDouble}.
+         */
+        private double parseDecimal(int s, int e, int column) throws FallbackRequiredException {
+            int i = s;
+            boolean negative = buffer[i] == '-';
+            if (negative || buffer[i] == '+') i++;
+            long mantissa = 0;
+            int scale = 0;
+            boolean seenDot = false;
+            boolean seenDigit = false;
+            for (; i < e; i++) {
+                char c = buffer[i];
+                if (c >= '0' && c <= '9') {
+                    mantissa = mantissa * 10 + (c - '0');
+                    seenDigit = true;
+                    if (seenDot) scale++;
+                    if (mantissa > MAX_EXACT_MANTISSA || scale >= POWERS_OF_TEN.length) {
+                        return parseDecimalSlow(s, e, column);
+                    }
+                } else if (c == '.' && !seenDot) {
+                    seenDot = true;
+                } else {
+                    return parseDecimalSlow(s, e, column);
+                }
+            }
+            if (!seenDigit) throw invalid(column, s, e);
+            double value = mantissa / POWERS_OF_TEN[scale];
+            return negative ? -value : value;
+        }
+
+        private double parseDecimalSlow(int s, int e, int column) throws FallbackRequiredException {
+            try {
+                return Double.parseDouble(new String(buffer, s, e - s));
+            } catch (NumberFormatException ex) {
+                throw invalid(column, s, e);
+            }
+        }
+
+        private FallbackRequiredException invalid(int column, int s, int e) {
+            return new FallbackRequiredException(lineNumber, "invalid value '" +
+                    new String(buffer, s, e - s) + "' in column " + columns[column]);
+        }
+    }
+
+    /**
+     * Tiny direct-mapped cache that hands out one String per distinct value of a low-cardinality column.
+     * A collision simply replaces the slot, so the cache never grows.
+     */
+    private static final class StringCache {
+        private final String[] slots = new String[512];
+
+        String get(char[] buffer, int from, int to) {
+            int hash = 0;
+            for (int i = from; i < to; i++) {
+                hash = 31 * hash + buffer[i];
+            }
+            int slot = (hash ^ (hash >>> 16)) & (slots.length - 1);
+            String cached = slots[slot];
+            if (cached != null && matches(cached, buffer, from, to)) {
+                return cached;
+            }
+            String created = new String(buffer, from, to - from);
+            slots[slot] = created;
+            return created;
+        }
+
+        private static boolean matches(String cached, char[] buffer, int from, int to) {
+            if (cached.length() != to - from) return false;
+            for (int i = 0; i < cached.length(); i++) {
+                if (cached.charAt(i) != buffer[from + i]) return false;
+            }
+            return true;
+        }
+    }
+
+    private static boolean isBlank(char[] buffer, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (!Character.isWhitespace(buffer[i])) return false;
+        }
+        return true;
+    }
+
+    private static int trimStart(char[] buffer, int from, int to) {
+        while (from < to && Character.isWhitespace(buffer[from])) from++;
+        return from;
+    }
+
+    private static int trimEnd(char[] buffer, int from, int to) {
+        while (to > from && Character.isWhitespace(buffer[to - 1])) to--;
+        return to;
+    }
+}
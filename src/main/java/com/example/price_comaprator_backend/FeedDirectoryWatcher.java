@@ -0,0 +1,182 @@
+package com.example.price_comaprator_backend;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Watches an external data directory for product feeds ("store_yyyy-MM-dd.csv") and, in its "discounts"
+ * subdirectory, discount feeds ("store_discounts_yyyy-MM-dd.csv"). Events are collected until the directory has
+ * been quiet for a short while, so a file that is still being copied is reported once, and then handed to the
+ * listener as the set of feed names that were created, modified or deleted, so only those feeds are re-parsed.
+ */
+public class FeedDirectoryWatcher implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(FeedDirectoryWatcher.class);
+
+    static final String DISCOUNTS_SUBDIRECTORY = "discounts";
+    private static final Pattern PRODUCT_FEED = Pattern.compile("(?i)[a-z0-9]+_\\d{4}-\\d{2}-\\d{2}\\.csv");
+    private static final Pattern DISCOUNT_FEED = Pattern.compile("(?i)[a-z0-9]+_discounts[_-]\\d{4}-\\d{2}-\\d{2}\\.csv");
+    private static final long QUIET_PERIOD_MS = 500;
+
+    public interface Listener {
+        /**
+         * Called with the names of the feeds that were touched since the last call. A name may refer to a file
+         * that no longer exists, which means the feed was removed.
+         */
+        void feedsChanged(Set<String> productFeeds, Set<String> discountFeeds);
+
+        /**
+         * Called when the watcher lost track of individual events and the whole directory must be re-read.
+         */
+        void feedsOverflowed();
+    }
+
+    private final Path directory;
+    private final Path discountDirectory;
+    private final Listener listener;
+    private final WatchService watchService;
+    private final Thread thread;
+
+    public FeedDirectoryWatcher(Path directory, Listener listener) throws IOException {
+        this.directory = directory;
+        this.discountDirectory = directory.resolve(DISCOUNTS_SUBDIRECTORY);
+        this.listener = listener;
+        this.watchService = FileSystems.getDefault().newWatchService();
+        register(directory);
+        if (Files.isDirectory(discountDirectory)) {
+            register(discountDirectory);
+        }
+        this.thread = new Thread(this::run, "catalog-feed-watcher");
+        this.thread.setDaemon(true);
+    }
+
+    public void start() {
+        thread.start();
+        logger.info("FeedDirectoryWatcher: Watching {} for feed changes.", directory);
+    }
+
+    static boolean isProductFeed(String fileName) {
+        return PRODUCT_FEED.matcher(fileName).matches();
+    }
+
+    static boolean isDiscountFeed(String fileName) {
+        return DISCOUNT_FEED.matcher(fileName).matches();
+    }
+
+    /**
+     * @return The product feed file names in {@code directory}, sorted by name.
+     */
+    static List<String> listProductFeeds(Path directory) throws IOException {
+        return list(directory, PRODUCT_FEED);
+    }
+
+    /**
+     * @return The discount feed file names in the "discounts" subdirectory of {@code directory}, sorted by name.
+     */
+    static List<String> listDiscountFeeds(Path directory) throws IOException {
+        return list(directory.resolve(DISCOUNTS_SUBDIRECTORY), DISCOUNT_FEED);
+    }
+
+    private static List<String> list(Path directory, Pattern pattern) throws IOException {
+        if (!Files.isDirectory(directory)) return List.of();
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(Files::isRegularFile)
+                    .map(file -> file.getFileName().toString())
+                    .filter(name -> pattern.matcher(name).matches())
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private void register(Path path) throws IOException {
+        path.register(watchService,
+                StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY,
+                StandardWatchEventKinds.ENTRY_DELETE);
+    }
+
+    private void run() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                Set<String> productFeeds = new TreeSet<>();
+                Set<String> discountFeeds = new TreeSet<>();
+                WatchKey key = watchService.take();
+                boolean overflowed = false;
+                // Keep draining until the directory has been quiet for QUIET_PERIOD_MS.
+                while (key != null) {
+                    overflowed |= collect(key, productFeeds, discountFeeds);
+                    key = watchService.poll(QUIET_PERIOD_MS, TimeUnit.MILLISECONDS);
+                }
+                try {
+                    if (overflowed) {
+                        listener.feedsOverflowed();
+                    } else if (!productFeeds.isEmpty() || !discountFeeds.isEmpty()) {
+                        listener.feedsChanged(productFeeds, discountFeeds);
+                    }
+                } catch (RuntimeException e) {
+                    logger.error("FeedDirectoryWatcher: ❌ Failed to apply feed changes: {}", e.getMessage(), e);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            logger.debug("FeedDirectoryWatcher: Watch service closed, stopping.");
+        }
+    }
+
+    private boolean collect(WatchKey key, Set<String> productFeeds, Set<String> discountFeeds) {
+        boolean overflowed = false;
+        Path watched = (Path) key.watchable();
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                overflowed = true;
+                continue;
+            }
+            Path relative = (Path) event.context();
+            String name = relative.getFileName().toString();
+            if (watched.equals(directory)) {
+                if (name.equals(DISCOUNTS_SUBDIRECTORY) && event.kind() == StandardWatchEventKinds.ENTRY_CREATE) {
+                    // The discounts directory appeared after startup: watch it and pick up whatever it already holds.
+                    try {
+                        register(discountDirectory);
+                        discountFeeds.addAll(listDiscountFeeds(directory));
+                    } catch (IOException e) {
+                        logger.error("FeedDirectoryWatcher: Could not watch {}: {}", discountDirectory, e.getMessage());
+                    }
+                } else if (isProductFeed(name)) {
+                    productFeeds.add(name);
+                }
+            } else if (isDiscountFeed(name)) {
+                discountFeeds.add(name);
+            }
+        }
+        key.reset();
+        return overflowed;
+    }
+
+    @Override
+    public void close() {
+        thread.interrupt();
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            logger.warn("FeedDirectoryWatcher: Error closing watch service: {}", e.getMessage());
+        }
+    }
+}
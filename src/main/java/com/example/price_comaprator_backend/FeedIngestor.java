@@ -0,0 +1,92 @@
+package com.example.price_comaprator_backend;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * Runs one load task per feed file (or per chunk of a large file) on one shared, bounded pool and returns the results
+ * in the order they were given, so the outcome is the same as a sequential load no matter which task finishes first.
+ * {@link CatalogService} maps its feed files through it and {@link FeedCsvParser} the chunks of a large file.
+ */
+final class FeedIngestor {
+
+    private static final AtomicInteger threadCounter = new AtomicInteger();
+
+    // One pool for every load, created with the class and never shut down; its daemon workers exit when idle.
+    // A worker that would block waiting for other tasks keeps waiting instead of starting a compensating thread.
+    private static final ForkJoinPool POOL = new ForkJoinPool(defaultParallelism(), pool -> {
+        ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+        thread.setName("feed-ingest-" + threadCounter.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    }, null, false, 0, defaultParallelism(), 1, pool -> true, 60, TimeUnit.SECONDS);
+
+    private FeedIngestor() {}
+
+    /**
+     * @return The number of worker threads to use when no explicit parallelism is configured.
+     */
+    static int defaultParallelism() {
+        return Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Applies {@code task} to every input on the shared ingest pool and returns the results in input order.
+     * A task that throws fails the whole call; callers that need per-input isolation catch inside the task.
+     * <p>
+     * Calls nest: a file task that splits a large file into chunks maps the chunks onto the same pool, so nested
+     * loads never run more threads than the pool has, and a worker waiting on its chunks runs queued tasks meanwhile.
+     *
+     * @param parallelism Maximum number of tasks running at once, capped at the pool size; 1 or less runs them on the
+     *                    caller thread.
+     */
+    static <I, R> List<R> mapInOrder(List<I> inputs, int parallelism, Function<I, R> task) {
+        List<R> results = new ArrayList<>(inputs.size());
+        if (parallelism <= 1 || inputs.size() <= 1) {
+            for (I input : inputs) {
+                results.add(task.apply(input));
+            }
+            return results;
+        }
+
+        // Each worker claims the next unclaimed input until none is left or one of them fails.
+        Object[] outputs = new Object[inputs.size()];
+        AtomicInteger next = new AtomicInteger();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<ForkJoinTask<?>> workers = new ArrayList<>();
+        for (int w = Math.min(Math.min(parallelism, POOL.getParallelism()), inputs.size()); w > 0; w--) {
+            workers.add(ForkJoinTask.adapt(() -> {
+                for (int i = next.getAndIncrement(); i < outputs.length && failure.get() == null; i = next.getAndIncrement()) {
+                    try {
+                        outputs[i] = task.apply(inputs.get(i));
+                    } catch (Throwable t) {
+                        failure.compareAndSet(null, t);
+                    }
+                }
+            }));
+        }
+        if (ForkJoinTask.getPool() == POOL) {
+            ForkJoinTask.invokeAll(workers);
+        } else {
+            POOL.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(workers)));
+        }
+
+        Throwable cause = failure.get();
+        if (cause instanceof RuntimeException runtime) throw runtime;
+        if (cause instanceof Error error) throw error;
+        if (cause != null) throw new IllegalStateException(cause.getMessage(), cause);
+        for (Object output : outputs) {
+            @SuppressWarnings("unchecked")
+            R result = (R) output;
+            results.add(result);
+        }
+        return results;
+    }
+}
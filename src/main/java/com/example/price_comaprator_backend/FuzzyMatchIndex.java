@@ -0,0 +1,30 @@
+package com.example.price_comaprator_backend;
+
+import java.util.function.IntPredicate;
+
+/**
+ * Finds the catalog rows whose names are most similar to a query by Jaccard similarity of their name tokens
+ * ({@link TokenSimilarity}). Each {@link CatalogSnapshot} builds the implementation selected by
+ * {@code catalog.fuzzy-match.strategy}: the exact {@link ProductTokenIndex}, or the approximate
+ * {@link ProductLshIndex} for very large catalogs.
+ */
+public interface FuzzyMatchIndex {
+
+    /**
+     * @param queryTokens The sorted token ids of the query, see {@link TokenSimilarity#queryTokenIds}.
+     * @param minScore    The minimum similarity a row needs to be returned.
+     * @param limit       The maximum number of rows to return.
+     * @param accept      Extra filter on the rows to consider.
+     * @return The matching rows, best first: higher score, then lower price, then earlier in catalog order.
+     */
+    int[] bestMatches(int[] queryTokens, double minScore, int limit, IntPredicate accept);
+
+    default int[] bestMatches(int[] queryTokens, double minScore, int limit) {
+        return bestMatches(queryTokens, minScore, limit, row -> true);
+    }
+
+    /**
+     * @return The similarity of {@code row}'s name to the query, as used by {@link #bestMatches}.
+     */
+    double score(int[] queryTokens, int row);
+}
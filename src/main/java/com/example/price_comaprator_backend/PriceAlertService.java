@@ -4,20 +4,22 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
-import java.text.Normalizer;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 public class PriceAlertService {
 
     private static final Logger logger = LoggerFactory.getLogger(PriceAlertService.class);
-    private final BasketOptimizationService basketOptimizationService;
+    private final CatalogService catalogService;
+    private final DiscountActivationScheduler activationScheduler;
     private final List<PriceAlert> alerts = new ArrayList<>();
 
-    public PriceAlertService(BasketOptimizationService basketOptimizationService) {
-        this.basketOptimizationService = basketOptimizationService;
+    public PriceAlertService(CatalogService catalogService, DiscountActivationScheduler activationScheduler) {
+        this.catalogService = catalogService;
+        this.activationScheduler = activationScheduler;
     }
 
     public void addAlert(PriceAlert alert) {
@@ -38,81 +40,54 @@ public class PriceAlertService {
     }
 
     public List<PriceAlert> checkAlerts() {
-        List<Product> allProducts = basketOptimizationService.getAllProducts();
+        CatalogSnapshot snapshot = catalogService.getSnapshot();
+        ProductColumns columns = snapshot.getProductColumns();
+        List<Product> allProducts = snapshot.getProducts();
+        // Alerts fire on what the product costs today, discounts included.
+        EffectivePriceTable prices = activationScheduler.effectivePrices(snapshot, LocalDate.now());
         List<PriceAlert> triggeredAlerts = new ArrayList<>();
 
-        if (allProducts == null || allProducts.isEmpty()) {
-            logger.warn("PriceAlertService.checkAlerts() - Product list is empty from BasketOptimizationService. Cannot check alerts.");
+        if (columns.size() == 0) {
+            logger.warn("PriceAlertService.checkAlerts() - Product list is empty in the catalog snapshot. Cannot check alerts.");
             return triggeredAlerts;
         }
-        logger.info("PriceAlertService.checkAlerts() - Product count from BasketOptimizationService: {}", allProducts.size());
+        logger.info("PriceAlertService.checkAlerts() - Product count from catalog snapshot v{}: {}", snapshot.getVersion(), columns.size());
 
         for (PriceAlert userAlert : alerts) {
             if (userAlert.getCurrency() == null || userAlert.getCurrency().isBlank()) {
                 logger.warn("PriceAlertService.checkAlerts() - Skipping alert with no currency: {}", userAlert.getProductName());
                 continue;
             }
-            String normalizedAlertName = normalize(userAlert.getProductName());
+            String normalizedAlertName = TextNormalizer.normalize(userAlert.getProductName());
+            BitSet alertCurrencies = snapshot.getDictionaries().getCurrencies()
+                    .codesMatching(currency -> currency.equalsIgnoreCase(userAlert.getCurrency()));
+            double targetPrice = userAlert.getTargetPrice();
 
             logger.info("PriceAlertService.checkAlerts() --- Checking Alert ---");
             logger.info("PriceAlertService.checkAlerts() - Alert Details: Name='{}', Normalized='{}', TargetPrice={}, Currency='{}'",
                     userAlert.getProductName(), normalizedAlertName, userAlert.getTargetPrice(), userAlert.getCurrency());
 
-            allProducts.stream()
-                    .filter(product -> {
-                        if (product.getProductName() == null || product.getPrice() == null || product.getCurrency() == null) {
-                            logger.trace("PriceAlertService.checkAlerts() - Product ID '{}' (Name: '{}') missing critical fields (name/price/currency). Skipping.", product.getProductId(), product.getProductName());
-                            return false;
-                        }
-                        return true;
-                    })
-                    .filter(product -> {
-                        String normalizedProductNameFromCSV = normalize(product.getProductName());
-                        boolean nameMatch = normalizedProductNameFromCSV.equals(normalizedAlertName);
-                        if (!nameMatch) {
-                            logger.trace("PriceAlertService.checkAlerts() - Name Mismatch for alert '{}': Product Name='{}' (Normalized='{}') vs Alert Normalized='{}'",
-                                    userAlert.getProductName(), product.getProductName(), normalizedProductNameFromCSV, normalizedAlertName);
-                        } else {
-                            logger.debug("PriceAlertService.checkAlerts() - Name MATCH for alert '{}': Product Name='{}' (Normalized='{}')",
-                                    userAlert.getProductName(), product.getProductName(), normalizedProductNameFromCSV);
-                        }
-                        return nameMatch;
-                    })
-                    .filter(product -> {
-                        boolean currencyMatch = product.getCurrency().equalsIgnoreCase(userAlert.getCurrency());
-                        if (!currencyMatch) {
-                            logger.trace("PriceAlertService.checkAlerts() - Currency Mismatch for '{}': Product Currency='{}' vs Alert Currency='{}'",
-                                    product.getProductName(), product.getCurrency(), userAlert.getCurrency());
-                        } else {
-                            logger.debug("PriceAlertService.checkAlerts() - Currency MATCH for '{}': Product Currency='{}'", product.getProductName(), product.getCurrency());
-                        }
-                        return currencyMatch;
-                    })
-                    .filter(product -> {
-                        boolean priceMatch = product.getPrice() <= userAlert.getTargetPrice();
-                        if (!priceMatch) {
-                            logger.trace("PriceAlertService.checkAlerts() - Price Mismatch for '{}': Product Price={} vs Alert TargetPrice={}",
-                                    product.getProductName(), product.getPrice(), userAlert.getTargetPrice());
-                        } else {
-                            logger.debug("PriceAlertService.checkAlerts() - Price MATCH for '{}': Product Price={} <= Alert TargetPrice={}",
-                                    product.getProductName(), product.getPrice(), userAlert.getTargetPrice());
-                        }
-                        return priceMatch;
-                    })
-                    .forEach(matchingProduct -> {
-                        logger.info("PriceAlertService.checkAlerts() --- INSIDE FOREACH for product: {} ---", matchingProduct.getProductName());
-                        PriceAlert triggered = new PriceAlert(
-                                matchingProduct.getProductName(),
-                                userAlert.getTargetPrice(),
-                                userAlert.getCurrency(),
-                                matchingProduct.getPrice(),
-                                matchingProduct.getSource()
-                        );
-                        triggeredAlerts.add(triggered);
-                        logger.info("PriceAlertService.checkAlerts() - ✅ Alert triggered (PAS): '{}' (target: {} {}) found at {} {} in store {}",
-                                matchingProduct.getProductName(), userAlert.getTargetPrice(), userAlert.getCurrency(),
-                                matchingProduct.getPrice(), matchingProduct.getCurrency(), matchingProduct.getSource());
-                    });
+            // Only same-name rows at or below the target after discounts, so just the currency is left to test.
+            for (int row : prices.rowsAtOrBelow(snapshot.getNameIndex().rowsByPrice(normalizedAlertName), targetPrice)) {
+                int currencyCode = columns.currencyCode(row);
+                if (currencyCode == StringDictionary.NO_CODE || !alertCurrencies.get(currencyCode)) continue;
+
+                Product matchingProduct = allProducts.get(row);
+                logger.debug("PriceAlertService.checkAlerts() - MATCH for alert '{}': Product Name='{}', Price={} {} <= Alert TargetPrice={}",
+                        userAlert.getProductName(), matchingProduct.getProductName(), prices.price(row),
+                        matchingProduct.getCurrency(), userAlert.getTargetPrice());
+                PriceAlert triggered = new PriceAlert(
+                        matchingProduct.getProductName(),
+                        userAlert.getTargetPrice(),
+                        userAlert.getCurrency(),
+                        prices.price(row),
+                        matchingProduct.getSource()
+                );
+                triggeredAlerts.add(triggered);
+                logger.info("PriceAlertService.checkAlerts() - ✅ Alert triggered (PAS): '{}' (target: {} {}) found at {} {} in store {}",
+                        matchingProduct.getProductName(), userAlert.getTargetPrice(), userAlert.getCurrency(),
+                        prices.price(row), matchingProduct.getCurrency(), matchingProduct.getSource());
+            }
             logger.info("PriceAlertService.checkAlerts() --- Finished Checking Alert for '{}' ---", userAlert.getProductName());
         }
         if (triggeredAlerts.isEmpty() && !alerts.isEmpty()) {
@@ -120,16 +95,4 @@ public class PriceAlertService {
         }
         return triggeredAlerts;
     }
-
-
-    private String normalize(String s) {
-        if (s == null) return "";
-        String normalized = Normalizer.normalize(s, Normalizer.Form.NFD);
-        normalized = normalized.replaceAll("\\p{M}", "");
-        normalized = normalized.toLowerCase();
-        normalized = normalized.replaceAll("[^a-z0-9 ]", "");
-        normalized = normalized.trim();
-
-        return normalized;
-    }
 }
\ No newline at end of file
@@ -1,79 +1,59 @@
 package com.example.price_comaprator_backend;
 
-import com.opencsv.bean.CsvToBeanBuilder;
 import org.springframework.stereotype.Service;
 
-import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.time.LocalDate;
-import java.util.*;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
 
 
 @Service
 public class PriceHistoryService {
 
-    private final List<String> csvFilenames = List.of(
-            "altex_2025-05-20.csv",
-            "emag_2025-05-20.csv",
-            "kaufland_2025-05-01.csv",
-            "kaufland_2025-05-08.csv",
-            "lidl_2025-05-01.csv",
-            "lidl_2025-05-08.csv",
-            "profi_2025-05-01.csv",
-            "profi_2025-05-08.csv"
-    );
+    private final CatalogService catalogService;
+
+    public PriceHistoryService(CatalogService catalogService) {
+        this.catalogService = catalogService;
+    }
 
     public List<PriceHistoryEntry> getPriceHistory(String productName, String brand, String store, String category) {
         List<PriceHistoryEntry> entries = new ArrayList<>();
-
-        for (String filename : csvFilenames) {
-            try (InputStream is = getClass().getClassLoader().getResourceAsStream(filename)) {
-                if (is == null) continue;
-
-                List<Product> products = new CsvToBeanBuilder<Product>(new InputStreamReader(is))
-                        .withType(Product.class)
-                        .withSeparator(';')
-                        .build()
-                        .parse();
-
-                for (Product p : products) {
-                    if (p.getProductName() == null || p.getPrice() == null) continue;
-
-                    boolean matches = (productName == null || normalize(p.getProductName()).contains(normalize(productName))) &&
-                            (brand == null || p.getBrand() != null && p.getBrand().equalsIgnoreCase(brand)) &&
-                            (store == null || filename.contains(store)) &&
-                            (category == null || p.getProductCategory() != null && p.getProductCategory().equalsIgnoreCase(category));
-
-                    if (matches) {
-                        entries.add(new PriceHistoryEntry(
-                                p.getProductName(),
-                                p.getBrand(),
-                                extractStoreName(filename),
-                                p.getProductCategory(),
-                                extractDate(filename),
-                                p.getPrice()
-                        ));
-                    }
-                }
-
-            } catch (Exception e) {
-                e.printStackTrace();
+        String normalizedQuery = productName == null ? null : TextNormalizer.normalize(productName);
+        CatalogSnapshot snapshot = catalogService.getSnapshot();
+        ProductColumns columns = snapshot.getProductColumns();
+        List<Product> products = snapshot.getProducts();
+
+        // Resolve the attribute filters against the few dictionary values once, then test each row by its code.
+        CatalogDictionaries dictionaries = snapshot.getDictionaries();
+        BitSet brands = brand == null ? null : dictionaries.getBrands().codesMatching(b -> b.equalsIgnoreCase(brand));
+        BitSet stores = store == null ? null : dictionaries.getStores().codesMatching(s -> s.contains(store));
+        BitSet categories = category == null ? null : dictionaries.getCategories().codesMatching(c -> c.equalsIgnoreCase(category));
+
+        // A name query only visits the rows the trigram index finds containing it; otherwise every row is filtered.
+        int[] nameMatches = normalizedQuery == null ? null : snapshot.getTrigramIndex().rowsContaining(normalizedQuery);
+        int rowCount = nameMatches == null ? columns.size() : nameMatches.length;
+        for (int i = 0; i < rowCount; i++) {
+            int row = nameMatches == null ? i : nameMatches[i];
+            if (!columns.hasName(row) || !columns.hasPrice(row)) continue;
+            if (!matchesCode(stores, columns.storeCode(row)) || !matchesCode(categories, columns.categoryCode(row))) continue;
+
+            Product p = products.get(row);
+            if (matchesCode(brands, columns.brandCode(row))) {
+                entries.add(new PriceHistoryEntry(
+                        p.getProductName(),
+                        p.getBrand(),
+                        p.getSource(),
+                        p.getProductCategory(),
+                        p.getPriceDate(),
+                        p.getPrice()
+                ));
             }
         }
 
         return entries;
     }
 
-    private static String extractStoreName(String filename) {
-        return filename.split("_")[0];
-    }
-
-    private static LocalDate extractDate(String filename) {
-        String datePart = filename.replaceAll("[^0-9\\-]", "").substring(0, 10);
-        return LocalDate.parse(datePart);
-    }
-
-    private static String normalize(String s) {
-        return s == null ? "" : s.toLowerCase().replaceAll("[^a-z0-9 ]", "").trim();
+    private static boolean matchesCode(BitSet codes, int code) {
+        return codes == null || code != StringDictionary.NO_CODE && codes.get(code);
     }
 }
@@ -5,6 +5,8 @@ import com.opencsv.bean.CsvBindByName;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.LocalDate;
+
 public class Product {
     private static final Logger logger = LoggerFactory.getLogger(Product.class);
 
@@ -33,17 +35,26 @@ public class Product {
     private String currency;
 
     private String source;
+    private LocalDate priceDate;
 
 
     private Double pricePerStandardUnit;
     private String standardUnit;
     private UnitConverter.BaseUnitType baseUnitType;
 
+    // Matching keys derived from productName once at ingest, see TextNormalizer.
+    private String normalizedName;
+    private String[] nameTokens;
+
 
     public String getProductId() { return productId; }
     public void setProductId(String productId) { this.productId = productId; }
     public String getProductName() { return productName; }
-    public void setProductName(String productName) { this.productName = productName; }
+    public void setProductName(String productName) {
+        this.productName = productName;
+        this.normalizedName = null;
+        this.nameTokens = null;
+    }
     public String getProductCategory() { return productCategory; }
     public void setProductCategory(String productCategory) { this.productCategory = productCategory; }
     public String getBrand() { return brand; }
@@ -58,6 +69,8 @@ public class Product {
     public void setCurrency(String currency) { this.currency = currency; }
     public String getSource() { return source; }
     public void setSource(String source) { this.source = source; }
+    public LocalDate getPriceDate() { return priceDate; }
+    public void setPriceDate(LocalDate priceDate) { this.priceDate = priceDate; }
 
 
 
@@ -120,6 +133,41 @@ public class Product {
         }
     }
 
+    /**
+     * Restores metrics previously computed by {@link #calculateStandardizedMetrics()}, e.g. when the product is
+     * read back from a {@link CatalogSnapshotFile} instead of being parsed from its CSV feed.
+     */
+    void restoreStandardizedMetrics(Double pricePerStandardUnit, String standardUnit, UnitConverter.BaseUnitType baseUnitType) {
+        this.pricePerStandardUnit = pricePerStandardUnit;
+        this.standardUnit = standardUnit;
+        this.baseUnitType = baseUnitType;
+    }
+
+    /**
+     * Computes the normalized name and its distinct tokens, so request paths never normalize catalog names.
+     */
+    void precomputeNameKeys() {
+        restoreNameKeys(TextNormalizer.normalize(productName));
+    }
+
+    /**
+     * Sets a normalized name computed earlier (e.g. stored in a {@link CatalogSnapshotFile}) and derives its tokens.
+     */
+    void restoreNameKeys(String normalizedName) {
+        this.nameTokens = TextNormalizer.tokens(normalizedName);
+        this.normalizedName = normalizedName;
+    }
+
+    String getNormalizedName() {
+        if (normalizedName == null) precomputeNameKeys();
+        return normalizedName;
+    }
+
+    String[] getNameTokens() {
+        if (nameTokens == null) precomputeNameKeys();
+        return nameTokens;
+    }
+
     // parse packageQuantity (String) into Double
     public Double getMeasurementQuantity() {
         if (packageQuantity == null || packageQuantity.trim().isEmpty()) return null;
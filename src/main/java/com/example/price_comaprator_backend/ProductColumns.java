@@ -0,0 +1,141 @@
+package com.example.price_comaprator_backend;
+
+import java.util.List;
+
+/**
+ * Struct-of-arrays copy of the products of a {@link CatalogSnapshot}: row {@code i} describes
+ * {@code snapshot.getProducts().get(i)}. Full-catalog scans (alerts, basket optimization, recommendations)
+ * walk these primitive columns instead of dereferencing a {@link Product} and its boxed fields per row,
+ * and only touch the {@link Product} of the rows they actually return.
+ * <p>
+ * Missing prices are stored as NaN, missing unit types as {@link #NO_UNIT_TYPE}. Attribute codes and name token
+ * ids are looked up in the snapshot's {@link CatalogDictionaries} and kept only here, because the rows are shared
+ * with other snapshots whose codes differ. The normalized names precomputed at ingest ({@link TextNormalizer})
+ * are packed into one shared char buffer and addressed by offset.
+ */
+public final class ProductColumns {
+
+    public static final int NO_UNIT_TYPE = -1;
+
+    private final int size;
+    private final double[] prices;
+    private final double[] pricesPerUnit;
+    private final int[] brandCodes;
+    private final int[] storeCodes;
+    private final int[] categoryCodes;
+    private final int[] currencyCodes;
+    private final int[] unitTypes;
+    private final boolean[] named;
+    private final int[] nameOffsets;
+    private final char[] names;
+    private final int[][] nameTokenIds;
+
+    /**
+     * @param products     Products, in snapshot order.
+     * @param dictionaries Dictionaries built from exactly these products, see {@link CatalogDictionaries#encode}.
+     */
+    public ProductColumns(List<Product> products, CatalogDictionaries dictionaries) {
+        this.size = products.size();
+        this.prices = new double[size];
+        this.pricesPerUnit = new double[size];
+        this.brandCodes = new int[size];
+        this.storeCodes = new int[size];
+        this.categoryCodes = new int[size];
+        this.currencyCodes = new int[size];
+        this.unitTypes = new int[size];
+        this.named = new boolean[size];
+        this.nameOffsets = new int[size + 1];
+        this.nameTokenIds = new int[size][];
+
+        String[] normalizedNames = new String[size];
+        int nameChars = 0;
+        for (int row = 0; row < size; row++) {
+            Product product = products.get(row);
+            prices[row] = product.getPrice() == null ? Double.NaN : product.getPrice();
+            pricesPerUnit[row] = product.getPricePerStandardUnit() == null ? Double.NaN : product.getPricePerStandardUnit();
+            brandCodes[row] = dictionaries.getBrands().code(product.getBrand());
+            storeCodes[row] = dictionaries.getStores().code(product.getSource());
+            categoryCodes[row] = dictionaries.getCategories().code(product.getProductCategory());
+            currencyCodes[row] = dictionaries.getCurrencies().code(product.getCurrency());
+            unitTypes[row] = product.getBaseUnitType() == null ? NO_UNIT_TYPE : product.getBaseUnitType().ordinal();
+            named[row] = product.getProductName() != null;
+            normalizedNames[row] = product.getNormalizedName();
+            // Every catalog token is in the dictionary, so no negative ids appear here.
+            nameTokenIds[row] = TokenSimilarity.queryTokenIds(product.getNameTokens(), dictionaries.getTokens());
+            nameChars += normalizedNames[row].length();
+        }
+
+        this.names = new char[nameChars];
+        int offset = 0;
+        for (int row = 0; row < size; row++) {
+            nameOffsets[row] = offset;
+            String name = normalizedNames[row];
+            name.getChars(0, name.length(), names, offset);
+            offset += name.length();
+        }
+        nameOffsets[size] = offset;
+    }
+
+    public int size() { return size; }
+
+    public boolean hasPrice(int row) { return !Double.isNaN(prices[row]); }
+    public double price(int row) { return prices[row]; }
+    public boolean hasPricePerUnit(int row) { return !Double.isNaN(pricesPerUnit[row]); }
+    public double pricePerUnit(int row) { return pricesPerUnit[row]; }
+    public int brandCode(int row) { return brandCodes[row]; }
+    public int storeCode(int row) { return storeCodes[row]; }
+    public int categoryCode(int row) { return categoryCodes[row]; }
+    public int currencyCode(int row) { return currencyCodes[row]; }
+
+    /**
+     * @return The ordinal of the row's {@link UnitConverter.BaseUnitType}, or {@link #NO_UNIT_TYPE}.
+     */
+    public int unitType(int row) { return unitTypes[row]; }
+
+    /**
+     * @return Whether the product has a name; an unnamed product has an empty normalized name.
+     */
+    public boolean hasName(int row) { return named[row]; }
+
+    /**
+     * @return Whether the normalized name of the row equals {@code normalized}, compared in place without allocating.
+     */
+    public boolean nameEquals(int row, String normalized) {
+        int start = nameOffsets[row];
+        int length = nameOffsets[row + 1] - start;
+        if (length != normalized.length()) return false;
+        for (int i = 0; i < length; i++) {
+            if (names[start + i] != normalized.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return Whether the normalized name of the row contains {@code normalized}, searched in place without allocating.
+     */
+    public boolean nameContains(int row, String normalized) {
+        int start = nameOffsets[row];
+        int end = nameOffsets[row + 1];
+        int length = normalized.length();
+        for (int from = start; from + length <= end; from++) {
+            int i = 0;
+            while (i < length && names[from + i] == normalized.charAt(i)) i++;
+            if (i == length) return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return The sorted token ids of the row's normalized name; do not modify.
+     */
+    public int[] nameTokenIds(int row) {
+        return nameTokenIds[row];
+    }
+
+    /**
+     * @return The normalized name of the row as a new String.
+     */
+    public String name(int row) {
+        return new String(names, nameOffsets[row], nameOffsets[row + 1] - nameOffsets[row]);
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.price_comaprator_backend;
+
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/products")
+public class ProductController {
+
+    private final ProductSearchService productSearchService;
+
+    public ProductController(ProductSearchService productSearchService) {
+        this.productSearchService = productSearchService;
+    }
+
+    @GetMapping("/search")
+    public List<ProductSearchResult> search(
+            @RequestParam String query,
+            @RequestParam(required = false) Integer maxDistance,
+            @RequestParam(defaultValue = "20") int limit
+    ) {
+        return productSearchService.search(query, maxDistance, limit);
+    }
+
+    @GetMapping("/suggest")
+    public List<ProductSuggestIndex.Suggestion> suggest(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "10") int limit
+    ) {
+        return productSearchService.suggest(prefix, limit);
+    }
+}
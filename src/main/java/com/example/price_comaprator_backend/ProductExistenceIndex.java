@@ -0,0 +1,74 @@
+package com.example.price_comaprator_backend;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Answers whether a {@link CatalogSnapshot} has a product with a given name, brand and store, the check behind
+ * adding an item to the basket, without scanning the catalog.
+ * <p>
+ * Matching is case-insensitive on trimmed values, and a missing brand or store on either side matches anything.
+ * To turn that into exact lookups, every product is stored under four keys: with its brand or a wildcard, times its
+ * store or a wildcard (a missing product brand or store is stored as a "null" marker). A query with a missing brand
+ * or store looks up the wildcard; otherwise it looks up the value and the "null" marker. That is at most four
+ * lookups, each first rejected by a Bloom filter for the common "not in the catalog" case, then confirmed in an
+ * exact hash set.
+ */
+public final class ProductExistenceIndex {
+
+    private static final int BLOOM_BITS_PER_KEY = 10;
+    private static final char SEPARATOR = '\u001F';
+    private static final String ANY = "\u0001";
+    private static final String NULL = "\u0002";
+
+    private final BloomFilter bloomFilter;
+    private final Set<String> keys;
+
+    public ProductExistenceIndex(List<Product> products) {
+        this.bloomFilter = new BloomFilter(products.size() * 4, BLOOM_BITS_PER_KEY);
+        this.keys = new HashSet<>(products.size() * 4 * 4 / 3 + 1);
+        for (Product product : products) {
+            if (product.getProductName() == null) continue;
+            String name = fold(product.getProductName());
+            String brand = product.getBrand() == null ? NULL : fold(product.getBrand());
+            String store = product.getSource() == null ? NULL : fold(product.getSource());
+            add(key(name, brand, store));
+            add(key(name, ANY, store));
+            add(key(name, brand, ANY));
+            add(key(name, ANY, ANY));
+        }
+    }
+
+    private void add(String key) {
+        if (keys.add(key)) bloomFilter.add(key);
+    }
+
+    /**
+     * @param brand  The brand to match, or null for any brand.
+     * @param source The store to match, or null for any store.
+     * @return Whether a product with this name, brand and store exists, compared case-insensitively.
+     */
+    public boolean contains(String productName, String brand, String source) {
+        if (productName == null) return false;
+        String name = fold(productName);
+        String[] brands = brand == null ? new String[]{ANY} : new String[]{fold(brand), NULL};
+        String[] stores = source == null ? new String[]{ANY} : new String[]{fold(source), NULL};
+        for (String b : brands) {
+            for (String s : stores) {
+                String key = key(name, b, s);
+                if (bloomFilter.mightContain(key) && keys.contains(key)) return true;
+            }
+        }
+        return false;
+    }
+
+    private static String fold(String value) {
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static String key(String name, String brand, String store) {
+        return name + SEPARATOR + brand + SEPARATOR + store;
+    }
+}
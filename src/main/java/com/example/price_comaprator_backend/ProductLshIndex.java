@@ -0,0 +1,162 @@
+package com.example.price_comaprator_backend;
+
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+/**
+ * Approximate {@link FuzzyMatchIndex} of a {@link CatalogSnapshot} for catalogs too large to merge the postings
+ * of common tokens: MinHash signatures of every row's name tokens, split into bands (locality-sensitive hashing).
+ * <p>
+ * A row becomes a candidate for a query only if all the MinHash values of at least one band agree. With {@code b}
+ * bands of {@code r} values, a name whose token set has Jaccard similarity {@code s} with the query is a candidate
+ * with probability {@code 1 - (1 - s^r)^b}. The defaults (16 bands of 2) catch s = 0.5 about 99% of the time and
+ * s = 0.2 about half the time. Candidates are then scored exactly, so the ranking among them is the same as with
+ * {@link ProductTokenIndex}; only dissimilar rows are missed. The index takes {@code 8 * bands} bytes per row.
+ */
+public final class ProductLshIndex implements FuzzyMatchIndex {
+
+    private static final int[] NO_ROWS = new int[0];
+
+    private final ProductColumns columns;
+    private final int bands;
+    private final int rowsPerBand;
+    private final int[] seeds;
+    // Per band: (band hash << 32 | row) of every indexed row, sorted, so a bucket is one contiguous range.
+    private final long[][] buckets;
+
+    public ProductLshIndex(ProductColumns columns, Settings settings) {
+        this.columns = columns;
+        this.bands = settings.bands;
+        this.rowsPerBand = settings.rowsPerBand;
+        this.seeds = new int[bands * rowsPerBand];
+        for (int i = 0; i < seeds.length; i++) {
+            seeds[i] = mix(0x9E3779B9 * (i + 1));
+        }
+
+        int indexed = 0;
+        long[][] entries = new long[bands][columns.size()];
+        int[] signature = new int[seeds.length];
+        for (int row = 0; row < columns.size(); row++) {
+            if (!columns.hasName(row) || !columns.hasPrice(row) || columns.nameTokenIds(row).length == 0) continue;
+            sign(columns.nameTokenIds(row), signature);
+            for (int band = 0; band < bands; band++) {
+                entries[band][indexed] = (long) bandHash(signature, band) << 32 | row;
+            }
+            indexed++;
+        }
+
+        this.buckets = new long[bands][];
+        for (int band = 0; band < bands; band++) {
+            buckets[band] = indexed == entries[band].length ? entries[band] : Arrays.copyOf(entries[band], indexed);
+            Arrays.sort(buckets[band]);
+        }
+    }
+
+    @Override
+    public int[] bestMatches(int[] queryTokens, double minScore, int limit, IntPredicate accept) {
+        if (queryTokens.length == 0 || limit <= 0) return NO_ROWS;
+
+        int[] candidates = candidates(queryTokens);
+        RankedRows best = new RankedRows(limit, candidates.length);
+        for (int row : candidates) {
+            double score = TokenSimilarity.jaccard(queryTokens, columns.nameTokenIds(row));
+            if (score < minScore || !accept.test(row)) continue;
+            best.offer(row, score, columns.price(row));
+        }
+        return best.toArray();
+    }
+
+    @Override
+    public double score(int[] queryTokens, int row) {
+        return TokenSimilarity.jaccard(queryTokens, columns.nameTokenIds(row));
+    }
+
+    /**
+     * @return The distinct rows sharing at least one band with the query, in ascending row order.
+     */
+    int[] candidates(int[] queryTokens) {
+        if (queryTokens.length == 0) return NO_ROWS;
+        // Unknown query tokens have negative ids and hash like any other, so they lower the query's similarity
+        // exactly as they lower its Jaccard score.
+        int[] signature = new int[seeds.length];
+        sign(queryTokens, signature);
+
+        int[] rows = new int[16];
+        int count = 0;
+        for (int band = 0; band < bands; band++) {
+            long[] entries = buckets[band];
+            long key = (long) bandHash(signature, band) << 32;
+            int from = lowerBound(entries, key);
+            for (int i = from; i < entries.length && (entries[i] & 0xFFFFFFFF00000000L) == key; i++) {
+                if (count == rows.length) rows = Arrays.copyOf(rows, count * 2);
+                rows[count++] = (int) entries[i];
+            }
+        }
+
+        Arrays.sort(rows, 0, count);
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (distinct == 0 || rows[distinct - 1] != rows[i]) rows[distinct++] = rows[i];
+        }
+        return Arrays.copyOf(rows, distinct);
+    }
+
+    private void sign(int[] tokens, int[] signature) {
+        for (int i = 0; i < seeds.length; i++) {
+            int min = Integer.MAX_VALUE;
+            for (int token : tokens) {
+                min = Math.min(min, mix(token ^ seeds[i]));
+            }
+            signature[i] = min;
+        }
+    }
+
+    private int bandHash(int[] signature, int band) {
+        int hash = band;
+        for (int i = band * rowsPerBand; i < (band + 1) * rowsPerBand; i++) {
+            hash = 31 * hash + signature[i];
+        }
+        return mix(hash);
+    }
+
+    private static int lowerBound(long[] sorted, long key) {
+        int low = 0, high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] < key) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    /**
+     * MurmurHash3 finalizer: a bijection on ints with good avalanche, used as the family of token permutations.
+     */
+    private static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    /**
+     * LSH shape, from {@code catalog.fuzzy-match.lsh-bands} and {@code catalog.fuzzy-match.lsh-rows}.
+     */
+    public static final class Settings {
+        private final int bands;
+        private final int rowsPerBand;
+
+        public Settings(int bands, int rowsPerBand) {
+            if (bands <= 0 || rowsPerBand <= 0) {
+                throw new IllegalArgumentException("LSH bands and rows per band must be positive, got " + bands + " x " + rowsPerBand);
+            }
+            this.bands = bands;
+            this.rowsPerBand = rowsPerBand;
+        }
+
+        public int getBands() { return bands; }
+        public int getRowsPerBand() { return rowsPerBand; }
+    }
+}
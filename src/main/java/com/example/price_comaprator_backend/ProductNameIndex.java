@@ -0,0 +1,76 @@
+package com.example.price_comaprator_backend;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Exact-name index of a {@link CatalogSnapshot}: maps every normalized product name to the rows carrying it,
+ * sorted by ascending price (catalog order among equal prices). Only rows with a name and a price are indexed.
+ * Built once per snapshot, so an exact basket or alert match is a hash lookup instead of a catalog scan.
+ */
+public final class ProductNameIndex {
+
+    private static final int[] NO_ROWS = new int[0];
+
+    private final ProductColumns columns;
+    private final Map<String, int[]> rowsByName;
+
+    public ProductNameIndex(List<Product> products, ProductColumns columns) {
+        this.columns = columns;
+        Map<String, List<Integer>> grouped = new HashMap<>();
+        for (int row = 0; row < columns.size(); row++) {
+            if (!columns.hasName(row) || !columns.hasPrice(row)) continue;
+            grouped.computeIfAbsent(products.get(row).getNormalizedName(), name -> new ArrayList<>(2)).add(row);
+        }
+
+        this.rowsByName = new HashMap<>(grouped.size() * 4 / 3 + 1);
+        grouped.forEach((name, rows) -> {
+            // List.sort is stable and rows were added in catalog order, so equal prices keep catalog order.
+            rows.sort((a, b) -> Double.compare(columns.price(a), columns.price(b)));
+            rowsByName.put(name, rows.stream().mapToInt(Integer::intValue).toArray());
+        });
+    }
+
+    /**
+     * @return The rows whose normalized name is exactly {@code normalizedName}, cheapest first; do not modify.
+     */
+    public int[] rowsByPrice(String normalizedName) {
+        return rowsByName.getOrDefault(normalizedName, NO_ROWS);
+    }
+
+    /**
+     * @return The cheapest row named exactly {@code normalizedName}, or -1 if there is none.
+     */
+    public int cheapest(String normalizedName) {
+        int[] rows = rowsByPrice(normalizedName);
+        return rows.length == 0 ? -1 : rows[0];
+    }
+
+    /**
+     * @return The rows named exactly {@code normalizedName} priced at most {@code maxPrice}, in catalog order.
+     */
+    public int[] rowsAtOrBelow(String normalizedName, double maxPrice) {
+        int[] rows = rowsByPrice(normalizedName);
+        int count = 0;
+        while (count < rows.length && columns.price(rows[count]) <= maxPrice) count++;
+        int[] matching = Arrays.copyOf(rows, count);
+        Arrays.sort(matching);
+        return matching;
+    }
+
+    /**
+     * @return Every indexed normalized name.
+     */
+    public Set<String> names() {
+        return Collections.unmodifiableSet(rowsByName.keySet());
+    }
+
+    public int size() {
+        return rowsByName.size();
+    }
+}
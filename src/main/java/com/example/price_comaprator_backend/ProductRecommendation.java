@@ -0,0 +1,59 @@
+package com.example.price_comaprator_backend;
+
+/**
+ * A recommended product priced as of today: {@code price} and {@code pricePerStandardUnit} include the best active
+ * discount, {@code listPrice} is the catalog price it was taken from. Prices the catalog lacks are null.
+ */
+public class ProductRecommendation {
+    private String productId;
+    private String productName;
+    private String productCategory;
+    private String brand;
+    private String packageQuantity;
+    private String packageUnit;
+    private String source;
+    private String currency;
+    private Double price;
+    private Double listPrice;
+    private int percentageOff;
+    private Double pricePerStandardUnit;
+    private String standardUnit;
+
+    public ProductRecommendation(Product product, EffectivePriceTable prices, int row) {
+        this.productId = product.getProductId();
+        this.productName = product.getProductName();
+        this.productCategory = product.getProductCategory();
+        this.brand = product.getBrand();
+        this.packageQuantity = product.getPackageQuantity();
+        this.packageUnit = product.getPackageUnit();
+        this.source = product.getSource();
+        this.currency = product.getCurrency();
+        this.price = orNull(prices.price(row));
+        this.listPrice = product.getPrice();
+        this.percentageOff = prices.percentageOff(row);
+        this.pricePerStandardUnit = orNull(prices.pricePerUnit(row));
+        this.standardUnit = product.getStandardUnit();
+    }
+
+    private static Double orNull(double value) {
+        return Double.isNaN(value) ? null : value;
+    }
+
+
+    public String getProductId() { return productId; }
+    public String getProductName() { return productName; }
+    public String getProductCategory() { return productCategory; }
+    public String getBrand() { return brand; }
+    public String getPackageQuantity() { return packageQuantity; }
+    public String getPackageUnit() { return packageUnit; }
+    public String getSource() { return source; }
+    public String getCurrency() { return currency; }
+    /** Price paid today, with the best active discount applied. */
+    public Double getPrice() { return price; }
+    public Double getListPrice() { return listPrice; }
+    /** Percentage taken off the list price today, 0 without an active discount. */
+    public int getPercentageOff() { return percentageOff; }
+    /** Price per standard unit paid today, with the same discount applied. */
+    public Double getPricePerStandardUnit() { return pricePerStandardUnit; }
+    public String getStandardUnit() { return standardUnit; }
+}
@@ -0,0 +1,35 @@
+package com.example.price_comaprator_backend;
+
+public class ProductSearchResult {
+    private String productId;
+    private String productName;
+    private String brand;
+    private String store;
+    private String category;
+    private double price;
+    private String currency;
+    private int distance;
+
+    public ProductSearchResult(String productId, String productName, String brand, String store, String category,
+                               double price, String currency, int distance) {
+        this.productId = productId;
+        this.productName = productName;
+        this.brand = brand;
+        this.store = store;
+        this.category = category;
+        this.price = price;
+        this.currency = currency;
+        this.distance = distance;
+    }
+
+
+    public String getProductId() { return productId; }
+    public String getProductName() { return productName; }
+    public String getBrand() { return brand; }
+    public String getStore() { return store; }
+    public String getCategory() { return category; }
+    public double getPrice() { return price; }
+    public String getCurrency() { return currency; }
+    /** Number of single-character edits between the normalized query and the normalized product name. */
+    public int getDistance() { return distance; }
+}
@@ -0,0 +1,94 @@
+package com.example.price_comaprator_backend;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+public class ProductSearchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductSearchService.class);
+    private static final int MAX_ALLOWED_DISTANCE = 3;
+    private static final int MAX_SEARCH_RESULTS = 100;
+    private static final int MAX_SUGGESTIONS = 50;
+
+    private final CatalogService catalogService;
+
+    public ProductSearchService(CatalogService catalogService) {
+        this.catalogService = catalogService;
+    }
+
+    /**
+     * Typo-tolerant product search: finds the products whose normalized name is within a few single-character
+     * edits (Levenshtein distance) of the normalized query, using the snapshot's {@link ProductSearchTree}.
+     *
+     * @param query       The product name as typed by the user.
+     * @param maxDistance The largest edit distance accepted, capped at 3; null picks 1 for queries of up to
+     *                    4 characters and 2 otherwise.
+     * @param limit       The maximum number of products to return, capped at 100.
+     * @return The matching products ordered by distance, then price, then catalog order.
+     */
+    public List<ProductSearchResult> search(String query, Integer maxDistance, int limit) {
+        String normalizedQuery = TextNormalizer.normalize(query);
+        if (normalizedQuery.isEmpty() || limit <= 0) {
+            logger.warn("ProductSearchService: Empty search query '{}' or limit {}, returning no results.", query, limit);
+            return Collections.emptyList();
+        }
+        limit = Math.min(limit, MAX_SEARCH_RESULTS);
+        int tolerance = maxDistance != null
+                ? Math.max(0, Math.min(maxDistance, MAX_ALLOWED_DISTANCE))
+                : normalizedQuery.length() <= 4 ? 1 : 2;
+
+        CatalogSnapshot snapshot = catalogService.getSnapshot();
+        ProductColumns columns = snapshot.getProductColumns();
+        ProductNameIndex nameIndex = snapshot.getNameIndex();
+        List<ProductSearchTree.Match> matches = snapshot.getSearchTree().search(normalizedQuery, tolerance);
+
+        // Only the few matched names are expanded to their rows; a smaller distance ranks as a higher score.
+        int[][] matchedRows = new int[matches.size()][];
+        int candidates = 0;
+        for (int i = 0; i < matchedRows.length; i++) {
+            matchedRows[i] = nameIndex.rowsByPrice(matches.get(i).getNormalizedName());
+            candidates += matchedRows[i].length;
+        }
+        RankedRows ranked = new RankedRows(limit, candidates);
+        Map<String, Integer> distances = new HashMap<>();
+        for (int i = 0; i < matchedRows.length; i++) {
+            ProductSearchTree.Match match = matches.get(i);
+            distances.put(match.getNormalizedName(), match.getDistance());
+            for (int row : matchedRows[i]) {
+                ranked.offer(row, -match.getDistance(), columns.price(row));
+            }
+        }
+
+        List<ProductSearchResult> results = new ArrayList<>();
+        for (int row : ranked.toArray()) {
+            Product p = snapshot.getProducts().get(row);
+            results.add(new ProductSearchResult(p.getProductId(), p.getProductName(), p.getBrand(), p.getSource(),
+                    p.getProductCategory(), p.getPrice(), p.getCurrency(), distances.get(p.getNormalizedName())));
+        }
+
+        logger.info("ProductSearchService: '{}' (normalized '{}', max distance {}) matched {} name(s), returning {} product(s).",
+                query, normalizedQuery, tolerance, matches.size(), results.size());
+        return results;
+    }
+
+    /**
+     * Type-ahead completions for a product name prefix, from the snapshot's {@link ProductSuggestIndex}.
+     *
+     * @param prefix The beginning of a product name as typed by the user.
+     * @param limit  The maximum number of completions, capped at 50.
+     * @return The product names starting with the prefix, sold in the most stores first, then alphabetically.
+     */
+    public List<ProductSuggestIndex.Suggestion> suggest(String prefix, int limit) {
+        // No logging here: this runs on every keystroke.
+        return catalogService.getSnapshot().getSuggestIndex()
+                .suggest(TextNormalizer.normalize(prefix), Math.min(limit, MAX_SUGGESTIONS));
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.price_comaprator_backend;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * BK-tree over the distinct normalized product names of a {@link CatalogSnapshot}, for typo-tolerant search.
+ * <p>
+ * Every child hangs off its parent under their Levenshtein distance. Since edit distance is a metric, a name
+ * within {@code t} edits of the query can only sit below a node at distance {@code d} from the query along an edge
+ * in {@code [d - t, d + t]}, so whole subtrees are skipped without comparing their names. Each comparison is
+ * itself cut off as soon as the distance exceeds what could still lead to a match.
+ */
+public final class ProductSearchTree {
+
+    private static final int NONE = -1;
+
+    private final String[] names;
+    private final int[] edgeDistance;
+    private final int[] firstChild;
+    private final int[] nextSibling;
+    // Largest edge below each node, so the comparison against it can stop at maxChildDistance + tolerance.
+    private final int[] maxChildDistance;
+
+    /**
+     * @param normalizedNames Distinct normalized names; inserted in sorted order so the tree does not depend on
+     *                        hash iteration order.
+     */
+    public ProductSearchTree(Collection<String> normalizedNames) {
+        String[] sorted = normalizedNames.toArray(new String[0]);
+        Arrays.sort(sorted);
+        int size = sorted.length;
+        this.names = sorted;
+        this.edgeDistance = new int[size];
+        this.firstChild = new int[size];
+        this.nextSibling = new int[size];
+        this.maxChildDistance = new int[size];
+        Arrays.fill(firstChild, NONE);
+        Arrays.fill(nextSibling, NONE);
+
+        int[][] scratch = new int[2][];
+        for (int node = 1; node < size; node++) {
+            insert(node, scratch);
+        }
+    }
+
+    private void insert(int node, int[][] scratch) {
+        int parent = 0;
+        while (true) {
+            // The distance never exceeds the longer length, so this cap never cuts it short: edge labels are exact.
+            int distance = distance(names[node], names[parent], Math.max(names[node].length(), names[parent].length()), scratch);
+            int child = firstChild[parent];
+            while (child != NONE && edgeDistance[child] != distance) child = nextSibling[child];
+            if (child == NONE) {
+                edgeDistance[node] = distance;
+                nextSibling[node] = firstChild[parent];
+                firstChild[parent] = node;
+                maxChildDistance[parent] = Math.max(maxChildDistance[parent], distance);
+                return;
+            }
+            parent = child;
+        }
+    }
+
+    /**
+     * @param normalizedQuery Text already passed through {@link TextNormalizer#normalize(String)}.
+     * @param maxDistance     The largest number of single-character edits allowed.
+     * @return The names within {@code maxDistance} edits of the query, in no particular order.
+     */
+    public List<Match> search(String normalizedQuery, int maxDistance) {
+        List<Match> matches = new ArrayList<>();
+        if (names.length == 0) return matches;
+
+        int[][] scratch = new int[2][];
+        int[] stack = new int[16];
+        int depth = 0;
+        stack[depth++] = 0;
+        while (depth > 0) {
+            int node = stack[--depth];
+            // Beyond maxChildDistance + maxDistance neither this node nor any child edge can match, so stop counting there.
+            int distance = distance(normalizedQuery, names[node], maxChildDistance[node] + maxDistance, scratch);
+            if (distance <= maxDistance) matches.add(new Match(names[node], distance));
+            for (int child = firstChild[node]; child != NONE; child = nextSibling[child]) {
+                if (Math.abs(edgeDistance[child] - distance) <= maxDistance) {
+                    if (depth == stack.length) stack = Arrays.copyOf(stack, depth * 2);
+                    stack[depth++] = child;
+                }
+            }
+        }
+        return matches;
+    }
+
+    public int size() {
+        return names.length;
+    }
+
+    /**
+     * Levenshtein distance, computed row by row and abandoned once every cell of a row exceeds {@code cap}.
+     *
+     * @return The distance, or {@code cap + 1} if it is larger than {@code cap}.
+     */
+    static int distance(String a, String b, int cap, int[][] scratch) {
+        if (Math.abs(a.length() - b.length()) > cap) return cap + 1;
+        int columns = b.length() + 1;
+        if (scratch[0] == null || scratch[0].length < columns) {
+            scratch[0] = new int[columns];
+            scratch[1] = new int[columns];
+        }
+        int[] previous = scratch[0];
+        int[] current = scratch[1];
+        for (int j = 0; j < columns; j++) previous[j] = j;
+
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = i;
+            char ca = a.charAt(i - 1);
+            for (int j = 1; j < columns; j++) {
+                int substitution = previous[j - 1] + (ca == b.charAt(j - 1) ? 0 : 1);
+                int cell = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+                current[j] = cell;
+                rowMin = Math.min(rowMin, cell);
+            }
+            if (rowMin > cap) return cap + 1;
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return Math.min(previous[columns - 1], cap + 1);
+    }
+
+    /**
+     * A name found by {@link #search(String, int)} and its edit distance from the query.
+     */
+    public static final class Match {
+        private final String normalizedName;
+        private final int distance;
+
+        Match(String normalizedName, int distance) {
+            this.normalizedName = normalizedName;
+            this.distance = distance;
+        }
+
+        public String getNormalizedName() { return normalizedName; }
+        public int getDistance() { return distance; }
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.price_comaprator_backend;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Prefix autocomplete over the distinct normalized product names of a {@link CatalogSnapshot}, weighted by the
+ * number of stores selling each name.
+ * <p>
+ * The names are kept sorted, so the completions of a prefix are one contiguous range found by binary search.
+ * A max-segment-tree over the weights then yields the heaviest names of that range one at a time: take the range's
+ * best name, split the range around it, and continue with the best of the remaining pieces. A request touches
+ * {@code O(limit * log names)} entries however many names share the prefix.
+ */
+public final class ProductSuggestIndex {
+
+    private final String[] names;
+    private final String[] displayNames;
+    private final int[] storeCounts;
+    // Iterative segment tree: leaves at [size, 2 * size), each inner node holds the index of its subtree's best name.
+    private final int size;
+    private final int[] best;
+
+    public ProductSuggestIndex(List<Product> products, ProductColumns columns, ProductNameIndex nameIndex) {
+        this.names = nameIndex.names().toArray(new String[0]);
+        Arrays.sort(names);
+        this.displayNames = new String[names.length];
+        this.storeCounts = new int[names.length];
+        for (int i = 0; i < names.length; i++) {
+            int[] rows = nameIndex.rowsByPrice(names[i]);
+            BitSet stores = new BitSet();
+            int firstRow = Integer.MAX_VALUE;
+            for (int row : rows) {
+                if (columns.storeCode(row) != StringDictionary.NO_CODE) stores.set(columns.storeCode(row));
+                firstRow = Math.min(firstRow, row);
+            }
+            storeCounts[i] = stores.cardinality();
+            displayNames[i] = products.get(firstRow).getProductName();
+        }
+
+        int leaves = 1;
+        while (leaves < Math.max(1, names.length)) leaves <<= 1;
+        this.size = leaves;
+        this.best = new int[2 * leaves];
+        Arrays.fill(best, -1);
+        for (int i = 0; i < names.length; i++) best[leaves + i] = i;
+        for (int node = leaves - 1; node >= 1; node--) {
+            best[node] = better(best[2 * node], best[2 * node + 1]);
+        }
+    }
+
+    /**
+     * @param normalizedPrefix Text already passed through {@link TextNormalizer#normalize(String)}.
+     * @param limit            The maximum number of completions.
+     * @return The names starting with the prefix, most stores first, then alphabetically by normalized name.
+     */
+    public List<Suggestion> suggest(String normalizedPrefix, int limit) {
+        int from = lowerBound(normalizedPrefix);
+        int to = endOfPrefix(normalizedPrefix, from);
+        int count = Math.max(0, Math.min(limit, to - from));
+        List<Suggestion> suggestions = new ArrayList<>(count);
+        if (count == 0) return suggestions;
+
+        // Pending ranges as parallel arrays, with a linear scan for the best one: limit is small. Every pick removes
+        // one range and adds at most two, so there are never more than count + 1.
+        int[] rangeFrom = new int[count + 1];
+        int[] rangeTo = new int[count + 1];
+        int[] rangeBest = new int[count + 1];
+        int ranges = 0;
+        rangeFrom[ranges] = from;
+        rangeTo[ranges] = to;
+        rangeBest[ranges++] = bestIn(from, to);
+
+        while (suggestions.size() < count && ranges > 0) {
+            int pick = 0;
+            for (int r = 1; r < ranges; r++) {
+                if (better(rangeBest[r], rangeBest[pick]) == rangeBest[r]) pick = r;
+            }
+            int name = rangeBest[pick];
+            int pickedFrom = rangeFrom[pick], pickedTo = rangeTo[pick];
+            ranges--;
+            rangeFrom[pick] = rangeFrom[ranges];
+            rangeTo[pick] = rangeTo[ranges];
+            rangeBest[pick] = rangeBest[ranges];
+
+            suggestions.add(new Suggestion(displayNames[name], storeCounts[name]));
+            if (pickedFrom < name) {
+                rangeFrom[ranges] = pickedFrom;
+                rangeTo[ranges] = name;
+                rangeBest[ranges++] = bestIn(pickedFrom, name);
+            }
+            if (name + 1 < pickedTo) {
+                rangeFrom[ranges] = name + 1;
+                rangeTo[ranges] = pickedTo;
+                rangeBest[ranges++] = bestIn(name + 1, pickedTo);
+            }
+        }
+        return suggestions;
+    }
+
+    public int size() {
+        return names.length;
+    }
+
+    private int bestIn(int from, int to) {
+        int result = -1;
+        for (int low = from + size, high = to + size; low < high; low >>= 1, high >>= 1) {
+            if ((low & 1) == 1) result = better(result, best[low++]);
+            if ((high & 1) == 1) result = better(result, best[--high]);
+        }
+        return result;
+    }
+
+    private int better(int a, int b) {
+        if (a < 0) return b;
+        if (b < 0) return a;
+        if (storeCounts[a] != storeCounts[b]) return storeCounts[a] > storeCounts[b] ? a : b;
+        return Math.min(a, b);
+    }
+
+    private int lowerBound(String prefix) {
+        int low = 0, high = names.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (names[mid].compareTo(prefix) < 0) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    private int endOfPrefix(String prefix, int from) {
+        int low = from, high = names.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (names[mid].startsWith(prefix)) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    /**
+     * A completion returned by {@link #suggest(String, int)}.
+     */
+    public static final class Suggestion {
+        private final String productName;
+        private final int storeCount;
+
+        Suggestion(String productName, int storeCount) {
+            this.productName = productName;
+            this.storeCount = storeCount;
+        }
+
+        public String getProductName() { return productName; }
+        public int getStoreCount() { return storeCount; }
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.price_comaprator_backend;
+
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+/**
+ * Inverted index of a {@link CatalogSnapshot}: maps every name token id (see {@link TokenSimilarity}) to the
+ * postings list of rows whose normalized name contains it, in ascending row order. Only rows with a name and a
+ * price are indexed.
+ * <p>
+ * Fuzzy matching merges the postings of the query tokens, so only rows sharing at least one token with the query
+ * are scored, and keeps the best {@code limit} rows in a bounded heap instead of sorting every score. The result is
+ * exact: every row that scores at least the minimum is considered.
+ */
+public final class ProductTokenIndex implements FuzzyMatchIndex {
+
+    private static final int[] NO_ROWS = new int[0];
+
+    private final ProductColumns columns;
+    private final int[][] postings;
+
+    /**
+     * @param tokens The token dictionary the rows' token ids come from.
+     */
+    public ProductTokenIndex(ProductColumns columns, StringDictionary tokens) {
+        this.columns = columns;
+        // Count first, so each postings list is allocated once at its exact size.
+        int[] lengths = new int[tokens.size()];
+        for (int row = 0; row < columns.size(); row++) {
+            if (!columns.hasName(row) || !columns.hasPrice(row)) continue;
+            for (int tokenId : columns.nameTokenIds(row)) lengths[tokenId]++;
+        }
+
+        this.postings = new int[tokens.size()][];
+        for (int tokenId = 0; tokenId < postings.length; tokenId++) {
+            postings[tokenId] = lengths[tokenId] == 0 ? NO_ROWS : new int[lengths[tokenId]];
+        }
+        Arrays.fill(lengths, 0);
+        for (int row = 0; row < columns.size(); row++) {
+            if (!columns.hasName(row) || !columns.hasPrice(row)) continue;
+            for (int tokenId : columns.nameTokenIds(row)) postings[tokenId][lengths[tokenId]++] = row;
+        }
+    }
+
+    /**
+     * @return The rows whose name contains the token, in ascending row order, or none for an unknown
+     * (negative) id; do not modify.
+     */
+    public int[] postings(int tokenId) {
+        return tokenId >= 0 && tokenId < postings.length ? postings[tokenId] : NO_ROWS;
+    }
+
+    @Override
+    public int[] bestMatches(int[] queryTokens, double minScore, int limit, IntPredicate accept) {
+        if (queryTokens.length == 0 || limit <= 0) return NO_ROWS;
+
+        int[][] lists = new int[queryTokens.length][];
+        int[] positions = new int[queryTokens.length];
+        int postingsLength = 0;
+        for (int i = 0; i < queryTokens.length; i++) {
+            lists[i] = postings(queryTokens[i]);
+            postingsLength += lists[i].length;
+        }
+
+        RankedRows best = new RankedRows(limit, postingsLength);
+        while (true) {
+            // Postings are sorted, so the smallest head across the lists is the next candidate row; the number of
+            // lists currently headed by it is the size of its token intersection with the query.
+            int row = Integer.MAX_VALUE;
+            for (int i = 0; i < lists.length; i++) {
+                if (positions[i] < lists[i].length) row = Math.min(row, lists[i][positions[i]]);
+            }
+            if (row == Integer.MAX_VALUE) break;
+
+            int intersectionSize = 0;
+            for (int i = 0; i < lists.length; i++) {
+                if (positions[i] < lists[i].length && lists[i][positions[i]] == row) {
+                    intersectionSize++;
+                    positions[i]++;
+                }
+            }
+
+            double score = TokenSimilarity.jaccard(queryTokens.length, columns.nameTokenIds(row).length, intersectionSize);
+            if (score < minScore || !accept.test(row)) continue;
+            best.offer(row, score, columns.price(row));
+        }
+        return best.toArray();
+    }
+
+    @Override
+    public double score(int[] queryTokens, int row) {
+        return TokenSimilarity.jaccard(queryTokens, columns.nameTokenIds(row));
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.price_comaprator_backend;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Trigram index over the normalized names of a {@link CatalogSnapshot}, for substring search: every run of three
+ * characters of a name maps to the ascending rows whose name contains it. A name containing the query contains all
+ * of the query's trigrams, so intersecting their postings narrows the catalog to a few candidates, which are then
+ * verified in place with {@link ProductColumns#nameContains(int, String)}.
+ * <p>
+ * Normalized names only use {@code a-z}, {@code 0-9} and the space ({@link TextNormalizer}), so trigrams are dense
+ * codes into a fixed table. Queries shorter than three characters have no trigram and are answered by a scan.
+ */
+public final class ProductTrigramIndex {
+
+    public static final int MIN_QUERY_LENGTH = 3;
+
+    private static final int ALPHABET = 37; // a-z, 0-9, space
+    private static final int[] NO_ROWS = new int[0];
+
+    private final ProductColumns columns;
+    private final int[][] postings = new int[ALPHABET * ALPHABET * ALPHABET][];
+    // Rows whose name has a character outside the alphabet; never expected, but always verified rather than missed.
+    private final int[] unindexedRows;
+
+    public ProductTrigramIndex(ProductColumns columns) {
+        this.columns = columns;
+        int[] lengths = new int[postings.length];
+        int[] unindexed = new int[0];
+        int unindexedCount = 0;
+        // Two passes over the distinct trigrams of each name: count, then fill exactly sized postings.
+        for (int pass = 0; pass < 2; pass++) {
+            for (int row = 0; row < columns.size(); row++) {
+                if (!columns.hasName(row)) continue;
+                int[] trigrams = trigrams(columns.name(row));
+                if (trigrams == null) {
+                    if (pass == 0) {
+                        unindexed = Arrays.copyOf(unindexed, unindexedCount + 1);
+                        unindexed[unindexedCount++] = row;
+                    }
+                    continue;
+                }
+                for (int trigram : trigrams) {
+                    if (pass == 0) lengths[trigram]++;
+                    else postings[trigram][lengths[trigram]++] = row;
+                }
+            }
+            if (pass == 0) {
+                for (int trigram = 0; trigram < postings.length; trigram++) {
+                    postings[trigram] = lengths[trigram] == 0 ? NO_ROWS : new int[lengths[trigram]];
+                }
+                Arrays.fill(lengths, 0);
+            }
+        }
+        this.unindexedRows = unindexed;
+    }
+
+    /**
+     * @param normalizedQuery Text already passed through {@link TextNormalizer#normalize(String)}.
+     * @return Every row whose normalized name contains the query, in ascending row order.
+     */
+    public int[] rowsContaining(String normalizedQuery) {
+        int[] queryTrigrams = normalizedQuery.length() < MIN_QUERY_LENGTH ? null : trigrams(normalizedQuery);
+        if (queryTrigrams == null) return scan(normalizedQuery);
+
+        // Intersect the shortest postings first, so the candidate set is as small as possible from the start.
+        int[][] lists = new int[queryTrigrams.length][];
+        for (int i = 0; i < queryTrigrams.length; i++) {
+            lists[i] = postings[queryTrigrams[i]];
+        }
+        Arrays.sort(lists, Comparator.comparingInt(list -> list.length));
+        int[] candidates = lists[0];
+        for (int i = 1; i < lists.length && candidates.length > 0; i++) {
+            candidates = intersect(candidates, lists[i]);
+        }
+        if (unindexedRows.length > 0) candidates = union(candidates, unindexedRows);
+
+        // Having all of the query's trigrams does not mean containing the query ("aaa" vs "aaaa"), so verify each candidate.
+        int[] rows = new int[candidates.length];
+        int count = 0;
+        for (int row : candidates) {
+            if (columns.nameContains(row, normalizedQuery)) rows[count++] = row;
+        }
+        return count == rows.length ? rows : Arrays.copyOf(rows, count);
+    }
+
+    private int[] scan(String normalizedQuery) {
+        int[] rows = new int[columns.size()];
+        int count = 0;
+        for (int row = 0; row < columns.size(); row++) {
+            if (columns.nameContains(row, normalizedQuery)) rows[count++] = row;
+        }
+        return Arrays.copyOf(rows, count);
+    }
+
+    /**
+     * @return The distinct trigram codes of the text, or null if it has a character outside the alphabet.
+     */
+    private static int[] trigrams(String text) {
+        if (text.length() < MIN_QUERY_LENGTH) return NO_ROWS;
+        int[] codes = new int[text.length() - 2];
+        int c0 = symbol(text.charAt(0)), c1 = symbol(text.charAt(1));
+        if (c0 < 0 || c1 < 0) return null;
+        for (int i = 2; i < text.length(); i++) {
+            int c2 = symbol(text.charAt(i));
+            if (c2 < 0) return null;
+            codes[i - 2] = (c0 * ALPHABET + c1) * ALPHABET + c2;
+            c0 = c1;
+            c1 = c2;
+        }
+        Arrays.sort(codes);
+        int distinct = 0;
+        for (int i = 0; i < codes.length; i++) {
+            if (distinct == 0 || codes[distinct - 1] != codes[i]) codes[distinct++] = codes[i];
+        }
+        return distinct == codes.length ? codes : Arrays.copyOf(codes, distinct);
+    }
+
+    private static int symbol(char c) {
+        if (c >= 'a' && c <= 'z') return c - 'a';
+        if (c >= '0' && c <= '9') return 26 + c - '0';
+        return c == ' ' ? 36 : -1;
+    }
+
+    private static int[] intersect(int[] a, int[] b) {
+        int[] common = new int[Math.min(a.length, b.length)];
+        int i = 0, j = 0, count = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) i++;
+            else if (a[i] > b[j]) j++;
+            else {
+                common[count++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(common, count);
+    }
+
+    private static int[] union(int[] a, int[] b) {
+        int[] merged = new int[a.length + b.length];
+        int i = 0, j = 0, count = 0;
+        while (i < a.length || j < b.length) {
+            if (j == b.length || i < a.length && a[i] < b[j]) merged[count++] = a[i++];
+            else if (i == a.length || b[j] < a[i]) merged[count++] = b[j++];
+            else {
+                merged[count++] = a[i++];
+                j++;
+            }
+        }
+        return Arrays.copyOf(merged, count);
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.price_comaprator_backend;
+
+import java.util.PriorityQueue;
+
+/**
+ * Keeps the best {@code limit} scored rows offered to it, ordered by higher score, then lower price, then lower
+ * row. A bounded heap with the worst kept row on top, so a better row replaces it in O(log limit) and nothing is
+ * ever sorted in full. The heap is sized for the smaller of the limit and the number of rows that can be offered,
+ * so a huge limit costs nothing up front.
+ */
+final class RankedRows {
+
+    private final int limit;
+    private final PriorityQueue<ScoredRow> kept;
+
+    /**
+     * @param limit      The number of rows to keep.
+     * @param candidates The most rows that will be offered.
+     */
+    RankedRows(int limit, int candidates) {
+        this.limit = limit;
+        this.kept = new PriorityQueue<>(Math.max(1, Math.min(limit, candidates)) + 1, (a, b) -> compare(b, a));
+    }
+
+    void offer(int row, double score, double price) {
+        if (kept.size() < limit) {
+            kept.add(new ScoredRow(row, score, price));
+            return;
+        }
+        ScoredRow worst = kept.peek();
+        if (worst != null && compare(row, score, price, worst) < 0) {
+            kept.poll();
+            kept.add(new ScoredRow(row, score, price));
+        }
+    }
+
+    /**
+     * @return The kept rows, best first.
+     */
+    int[] toArray() {
+        int[] best = new int[kept.size()];
+        for (int i = best.length - 1; i >= 0; i--) {
+            best[i] = kept.poll().row;
+        }
+        return best;
+    }
+
+    private static int compare(ScoredRow a, ScoredRow b) {
+        return compare(a.row, a.score, a.price, b);
+    }
+
+    private static int compare(int row, double score, double price, ScoredRow other) {
+        if (score != other.score) return score > other.score ? -1 : 1;
+        if (price != other.price) return price < other.price ? -1 : 1;
+        return Integer.compare(row, other.row);
+    }
+
+    private static final class ScoredRow {
+        final int row;
+        final double score;
+        final double price;
+
+        ScoredRow(int row, double score, double price) {
+            this.row = row;
+            this.score = score;
+            this.price = price;
+        }
+    }
+}
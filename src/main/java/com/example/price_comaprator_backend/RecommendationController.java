@@ -18,7 +18,7 @@ public class RecommendationController {
     }
 
     @GetMapping
-    public List<Product> recommendBetterValue(
+    public List<ProductRecommendation> recommendBetterValue(
             @RequestParam String productName
     ) {
         return recommendationService.getBetterValueAlternatives(productName);
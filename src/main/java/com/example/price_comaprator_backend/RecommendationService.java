@@ -5,7 +5,10 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
-import java.text.Normalizer;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
@@ -16,33 +19,67 @@ import java.util.stream.Collectors;
 public class RecommendationService {
 
     private static final Logger logger = LoggerFactory.getLogger(RecommendationService.class);
-    private final BasketOptimizationService optimizationService;
+    private static final int UNKNOWN_UNIT_TYPE = UnitConverter.BaseUnitType.UNKNOWN.ordinal();
+    private static final double FUZZY_REFERENCE_THRESHOLD = 0.2;
+    private static final int FUZZY_REFERENCE_LIMIT = 5;
 
-    public RecommendationService(BasketOptimizationService optimizationService) {
-        this.optimizationService = optimizationService;
+    private final CatalogService catalogService;
+    private final DiscountActivationScheduler activationScheduler;
+
+    public RecommendationService(CatalogService catalogService, DiscountActivationScheduler activationScheduler) {
+        this.catalogService = catalogService;
+        this.activationScheduler = activationScheduler;
     }
 
-    public List<Product> getBetterValueAlternatives(String productNameQuery) {
-        List<Product> allProducts = optimizationService.getAllProducts();
-        if (allProducts == null || allProducts.isEmpty()) {
+    /**
+     * Suggests products offering better value per standard unit than the best match for the query, at today's prices.
+     *
+     * @param productNameQuery The product name to find alternatives for.
+     * @return Up to five recommendations, each with its discounted and list price, cheapest per unit first.
+     */
+    public List<ProductRecommendation> getBetterValueAlternatives(String productNameQuery) {
+        CatalogSnapshot snapshot = catalogService.getSnapshot();
+        ProductColumns columns = snapshot.getProductColumns();
+        List<Product> allProducts = snapshot.getProducts();
+        // Value is compared on today's prices per standard unit, active discounts included.
+        EffectivePriceTable prices = activationScheduler.effectivePrices(snapshot, LocalDate.now());
+        if (columns.size() == 0) {
             logger.warn("Product list is empty. Cannot provide recommendations for '{}'", productNameQuery);
             return Collections.emptyList();
         }
 
-        String normalizedQuery = normalize(productNameQuery);
+        String normalizedQuery = TextNormalizer.normalize(productNameQuery);
         logger.info("Recommendation query: '{}' (normalized: '{}')", productNameQuery, normalizedQuery);
 
 
+        // Rows whose name contains the query, from the trigram index; kept as a bit set for the relatedness check below.
+        BitSet queryInName = new BitSet(columns.size());
+        for (int row : snapshot.getTrigramIndex().rowsContaining(normalizedQuery)) {
+            queryInName.set(row);
+        }
+
         // sorted to prioritize name matches first, then by the best value (lowest price per standard unit).
-        List<Product> potentialReferences = allProducts.stream()
-                .filter(p -> p.getProductName() != null && p.getPricePerStandardUnit() != null &&
-                        p.getBaseUnitType() != UnitConverter.BaseUnitType.UNKNOWN &&
-                        p.getCurrency() != null)
-                .filter(p -> normalize(p.getProductName()).contains(normalizedQuery))
-                .sorted(
-                        Comparator.<Product, Integer>comparing(p -> normalize(p.getProductName()).equals(normalizedQuery) ? 0 : 1)
-                                .thenComparing(Product::getPricePerStandardUnit, Comparator.nullsLast(Double::compareTo))
-                )
+        List<Integer> referenceRows = new ArrayList<>();
+        for (int row = queryInName.nextSetBit(0); row >= 0; row = queryInName.nextSetBit(row + 1)) {
+            if (isComparable(columns, row)) {
+                referenceRows.add(row);
+            }
+        }
+        referenceRows.sort(Comparator.<Integer>comparingInt(row -> columns.nameEquals(row, normalizedQuery) ? 0 : 1)
+                .thenComparingDouble(prices::pricePerUnit));
+        if (referenceRows.isEmpty()) {
+            // No name contains the query (other word order, extra words): fall back to the names sharing the most words.
+            int[] queryTokens = TokenSimilarity.queryTokenIds(TextNormalizer.tokens(normalizedQuery), snapshot.getDictionaries().getTokens());
+            for (int row : snapshot.getFuzzyIndex().bestMatches(queryTokens, FUZZY_REFERENCE_THRESHOLD, FUZZY_REFERENCE_LIMIT,
+                    row -> isComparable(columns, row))) {
+                referenceRows.add(row);
+            }
+            if (!referenceRows.isEmpty()) {
+                logger.info("No product name contains '{}'; using {} similar product(s) as reference.", normalizedQuery, referenceRows.size());
+            }
+        }
+        List<Product> potentialReferences = referenceRows.stream()
+                .map(allProducts::get)
                 .collect(Collectors.toList());
 
         if (potentialReferences.isEmpty()) {
@@ -51,6 +88,7 @@ public class RecommendationService {
         }
 
 
+        int referenceRow = referenceRows.get(0);
         Product referenceProduct = potentialReferences.get(0);
         UnitConverter.BaseUnitType refBaseUnitType = referenceProduct.getBaseUnitType();
 
@@ -58,32 +96,48 @@ public class RecommendationService {
         if (refPricePerStandardUnitNullable == null) {
 
             logger.warn("Reference product '{}' has null pricePerStandardUnit. Cannot proceed with recommendations, returning only reference.", referenceProduct.getProductName());
-            return Collections.singletonList(referenceProduct);
+            return Collections.singletonList(new ProductRecommendation(referenceProduct, prices, referenceRow));
         }
-        double refPricePerStandardUnit = refPricePerStandardUnitNullable;
+        double refPricePerStandardUnit = prices.pricePerUnit(referenceRow);
 
         String refCurrency = referenceProduct.getCurrency();
         String refCategory = referenceProduct.getProductCategory();
         String refProductId = referenceProduct.getProductId();
+        // Currency and category are dictionary-encoded, so the per-candidate filters below are int comparisons.
+        int refCurrencyCode = columns.currencyCode(referenceRow);
+        int refCategoryCode = columns.categoryCode(referenceRow);
 
         logger.info("Primary Reference Product: '{}' (ID: {}), Category: {}, Price/StdUnit: {} {}/{}, Type: {}",
                 referenceProduct.getProductName(), refProductId, refCategory,
                 String.format("%.2f", refPricePerStandardUnit), refCurrency, referenceProduct.getStandardUnit(), refBaseUnitType);
-        List<Product> betterValueAlternatives = allProducts.stream()
-                .filter(p -> !Objects.equals(p.getProductId(), refProductId))
-                .filter(p -> p.getPricePerStandardUnit() != null && p.getBaseUnitType() != UnitConverter.BaseUnitType.UNKNOWN)
-                .filter(p -> p.getBaseUnitType() == refBaseUnitType)
-                .filter(p -> Objects.equals(p.getCurrency(), refCurrency))
-                .filter(p -> Objects.equals(p.getProductCategory(), refCategory))
-                .filter(p -> isPotentiallyRelated(normalize(p.getProductName()), normalizedQuery, refBaseUnitType))
-                .filter(p -> p.getPricePerStandardUnit() < refPricePerStandardUnit)
+        // Only words of 3+ letters count as shared key tokens (see isPotentiallyRelated).
+        String[] keyTokens = Arrays.stream(TextNormalizer.tokens(normalizedQuery)).filter(token -> token.length() >= 3).toArray(String[]::new);
+        int[] queryKeyTokens = TokenSimilarity.queryTokenIds(keyTokens, snapshot.getDictionaries().getTokens());
+        int queryWordCount = normalizedQuery.isEmpty() ? 1 : normalizedQuery.split(" ").length;
+        int refUnitType = refBaseUnitType == null ? ProductColumns.NO_UNIT_TYPE : refBaseUnitType.ordinal();
+        List<Integer> candidateRows = new ArrayList<>();
+        for (int row = 0; row < columns.size(); row++) {
+            // Primitive column filters first; the product and its name string are only touched for the survivors.
+            if (!columns.hasPricePerUnit(row) || columns.unitType(row) == UNKNOWN_UNIT_TYPE) continue;
+            if (columns.unitType(row) != refUnitType) continue;
+            if (columns.currencyCode(row) != refCurrencyCode || columns.categoryCode(row) != refCategoryCode) continue;
+            if (!(prices.pricePerUnit(row) < refPricePerStandardUnit)) continue;
+            Product candidate = allProducts.get(row);
+            if (Objects.equals(candidate.getProductId(), refProductId)) continue;
+            if (isPotentiallyRelated(columns, row, candidate, queryInName, normalizedQuery, queryKeyTokens, queryWordCount, refBaseUnitType)) {
+                candidateRows.add(row);
+            }
+        }
+        List<ProductRecommendation> betterValueAlternatives = candidateRows.stream()
                 .sorted(
-                        Comparator.comparing(Product::getPricePerStandardUnit, Comparator.nullsLast(Double::compareTo))
-                                .thenComparing(Product::getProductName, Comparator.nullsLast(String::compareToIgnoreCase))
+                        Comparator.<Integer>comparingDouble(prices::pricePerUnit)
+                                .thenComparing(row -> allProducts.get(row).getProductName(), Comparator.nullsLast(String::compareToIgnoreCase))
                 )
                 .limit(5)
-                .peek(p -> logger.info("Better Value Suggestion: '{}' (ID: {}), Price/StdUnit: {} {}/{}",
-                        p.getProductName(), p.getProductId(), String.format("%.2f", p.getPricePerStandardUnit()), p.getCurrency(), p.getStandardUnit()))
+                .peek(row -> logger.info("Better Value Suggestion: '{}' (ID: {}), Price/StdUnit: {} {}/{}",
+                        allProducts.get(row).getProductName(), allProducts.get(row).getProductId(), String.format("%.2f", prices.pricePerUnit(row)),
+                        allProducts.get(row).getCurrency(), allProducts.get(row).getStandardUnit()))
+                .map(row -> new ProductRecommendation(allProducts.get(row), prices, row))
                 .collect(Collectors.toList());
 
 
@@ -91,19 +145,21 @@ public class RecommendationService {
             logger.info("No 'better value per unit' alternatives found. Looking for cheapest overall variants of related products or the reference itself.");
 
 
-            List<Product> sameProductVariants = potentialReferences.stream()
-                    .filter(p -> Objects.equals(p.getCurrency(), refCurrency))
-                    .filter(p -> Objects.equals(p.getProductCategory(), refCategory))
-                    .filter(p -> p.getBaseUnitType() == refBaseUnitType)
-                    .filter(p -> p.getPricePerStandardUnit() != null)
+            List<ProductRecommendation> sameProductVariants = referenceRows.stream()
+                    .filter(row -> columns.currencyCode(row) == refCurrencyCode)
+                    .filter(row -> columns.categoryCode(row) == refCategoryCode)
+                    .filter(row -> allProducts.get(row).getBaseUnitType() == refBaseUnitType)
+                    .filter(row -> allProducts.get(row).getPricePerStandardUnit() != null)
                     .sorted(
-                            Comparator.comparing(Product::getPricePerStandardUnit, Comparator.nullsLast(Double::compareTo))
-                                    .thenComparing(Product::getPrice, Comparator.nullsLast(Double::compareTo))
-                                    .thenComparing(Product::getProductName, Comparator.nullsLast(String::compareToIgnoreCase))
+                            Comparator.<Integer>comparingDouble(prices::pricePerUnit)
+                                    .thenComparingDouble(prices::price)
+                                    .thenComparing(row -> allProducts.get(row).getProductName(), Comparator.nullsLast(String::compareToIgnoreCase))
                     )
                     .limit(5)
-                    .peek(p -> logger.info("Fallback Suggestion (Same Product Variant/Cheapest): '{}' (ID: {}), Price/StdUnit: {} {}/{}",
-                            p.getProductName(), p.getProductId(), String.format("%.2f", p.getPricePerStandardUnit()), p.getCurrency(), p.getStandardUnit()))
+                    .peek(row -> logger.info("Fallback Suggestion (Same Product Variant/Cheapest): '{}' (ID: {}), Price/StdUnit: {} {}/{}",
+                            allProducts.get(row).getProductName(), allProducts.get(row).getProductId(), String.format("%.2f", prices.pricePerUnit(row)),
+                            allProducts.get(row).getCurrency(), allProducts.get(row).getStandardUnit()))
+                    .map(row -> new ProductRecommendation(allProducts.get(row), prices, row))
                     .collect(Collectors.toList());
 
             if (!sameProductVariants.isEmpty()) {
@@ -112,7 +168,7 @@ public class RecommendationService {
 
                 if (referenceProduct.getPricePerStandardUnit() != null) {
                     logger.info("Fallback: Returning original reference product as no other variants or alternatives found.");
-                    return Collections.singletonList(referenceProduct);
+                    return Collections.singletonList(new ProductRecommendation(referenceProduct, prices, referenceRow));
                 } else {
 
                     logger.warn("Fallback: Original reference product ('{}') itself is not comparable (e.g., null price/std unit after all). No suggestions.", referenceProduct.getProductName());
@@ -123,65 +179,43 @@ public class RecommendationService {
         return betterValueAlternatives;
     }
 
+    /**
+     * @return Whether the row can serve as a reference: named, with a price per standard unit of a known unit type
+     * and a currency.
+     */
+    private static boolean isComparable(ProductColumns columns, int row) {
+        return columns.hasName(row) && columns.hasPricePerUnit(row) && columns.unitType(row) != UNKNOWN_UNIT_TYPE
+                && columns.currencyCode(row) != StringDictionary.NO_CODE;
+    }
+
     /**
      * Helper method to determine if a product name is considered "related enough" to the user's query
      * to be suggested as an alternative. The strictness can vary by product type.
      *
-     * @param productNameNormalized The normalized name of the potential alternative product.
-     * @param queryNormalized       The normalized user query.
-     * @param type                  The BaseUnitType of the reference product, used to apply different heuristics.
+     * @param columns         The columnar catalog holding the candidate's name tokens.
+     * @param row             The candidate's row in {@code columns}.
+     * @param candidate       The potential alternative product, whose precomputed name keys are used.
+     * @param queryInName     The rows whose normalized name contains the normalized query.
+     * @param queryNormalized The normalized user query.
+     * @param queryKeyTokens  The sorted token ids of the query's words of at least 3 letters.
+     * @param queryWordCount  The number of words in the normalized query.
+     * @param type            The BaseUnitType of the reference product, used to apply different heuristics.
      * @return true if the product is considered related, false otherwise.
      */
-    private boolean isPotentiallyRelated(String productNameNormalized, String queryNormalized, UnitConverter.BaseUnitType type) {
-        if (productNameNormalized == null || queryNormalized == null) return false;
+    private boolean isPotentiallyRelated(ProductColumns columns, int row, Product candidate, BitSet queryInName, String queryNormalized,
+                                         int[] queryKeyTokens, int queryWordCount, UnitConverter.BaseUnitType type) {
+        if (queryNormalized == null) return false;
 
 
         if (type == UnitConverter.BaseUnitType.COUNT) {
-            if (queryNormalized.split("\\s+").length <= 2) {
-                return productNameNormalized.contains(queryNormalized) || queryNormalized.contains(productNameNormalized);
+            if (queryWordCount <= 2) {
+                return queryInName.get(row) || queryNormalized.contains(candidate.getNormalizedName());
             }
-            return productNameNormalized.contains(queryNormalized);
+            return queryInName.get(row);
         }
 
 
-        return productNameNormalized.contains(queryNormalized) || sharesKeyTokens(productNameNormalized, queryNormalized);
-    }
-
-    /**
-     *  check if two strings share any common significant tokens (words).
-     */
-    private boolean sharesKeyTokens(String s1, String s2) {
-        if (s1 == null || s2 == null) return false;
-        String[] tokens1 = s1.split("\\s+");
-        String[] tokens2 = s2.split("\\s+");
-        for (String t1 : tokens1) {
-            if (t1.length() < 3) continue;
-            for (String t2 : tokens2) {
-                if (t2.length() < 3) continue;
-                if (t1.equals(t2)) return true;
-            }
-        }
-        return false;
-    }
-
-    /**
-     * Normalizes a string for consistent searching and comparison.
-     * Steps:
-     * 1. Decomposes accented characters to base character + combining diacritical mark.
-     * 2. Removes all diacritical marks.
-     * 3. Converts to lowercase.
-     * 4. Removes characters that are not lowercase letters, digits, or whitespace.
-     * 5. Trims leading/trailing whitespace.
-     * 6. Replaces multiple consecutive whitespace characters with a single space.
-     */
-    private static String normalize(String s) {
-        if (s == null) return "";
-        String normalized = Normalizer.normalize(s, Normalizer.Form.NFD);
-        normalized = normalized.replaceAll("\\p{M}", "");
-        normalized = normalized.toLowerCase();
-        normalized = normalized.replaceAll("[^a-z0-9\\s]", "");
-        normalized = normalized.trim();
-        normalized = normalized.replaceAll("\\s+", " ");
-        return normalized;
+        // Shares a significant word with the query; the query ids hold only 3+ letter words, so any common id is one.
+        return queryInName.get(row) || TokenSimilarity.intersects(columns.nameTokenIds(row), queryKeyTokens);
     }
 }
\ No newline at end of file
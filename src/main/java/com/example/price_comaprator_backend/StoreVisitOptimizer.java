@@ -0,0 +1,271 @@
+package com.example.price_comaprator_backend;
+
+import java.util.Arrays;
+
+/**
+ * Chooses which stores to visit for a basket: the set of stores minimizing the cost of buying every item at the
+ * cheapest chosen store that sells it, plus a fixed penalty per store visited, with at most {@code maxStores} stores.
+ * Covering more items always beats being cheaper, so items are only left out when no allowed set of stores sells
+ * them all.
+ * <p>
+ * Greedy store additions followed by add/drop/swap local search give a good plan within microseconds. With few
+ * enough stores, a depth-first branch-and-bound over the stores then searches for a better one, pruning every branch
+ * whose optimistic bound (the cheapest price of each item among the stores still allowed) cannot beat the incumbent.
+ * Every phase checks a deadline, so a solve returns on time with the best plan found so far; the plan is reported
+ * optimal only if the branch-and-bound finished.
+ */
+public final class StoreVisitOptimizer {
+
+    private static final int DEADLINE_CHECK_INTERVAL = 256;
+
+    private final double[][] costs;
+    private final int itemCount;
+    private final int storeCount;
+    private final double storePenalty;
+    private final int maxStores;
+    private final int exactMaxStores;
+    private final long deadlineNanos;
+
+    // Incumbent: chosen stores, uncovered item count and total cost (items plus visits).
+    private boolean[] best;
+    private int bestUncovered;
+    private double bestCost;
+    private boolean timedOut;
+    private long steps;
+
+    /**
+     * @param costs          {@code costs[item][store]}: the cost of the item's whole quantity at the store, or
+     *                       {@link Double#POSITIVE_INFINITY} if the store does not sell it.
+     * @param storeCount     The number of stores, the width of {@code costs}.
+     * @param storePenalty   The cost added per store visited.
+     * @param maxStores      The largest number of stores a plan may visit.
+     * @param exactMaxStores Stores above which the exact search is skipped.
+     * @param deadlineNanos  {@link System#nanoTime()} by which {@link #solve()} returns.
+     */
+    public StoreVisitOptimizer(double[][] costs, int storeCount, double storePenalty, int maxStores, int exactMaxStores,
+                               long deadlineNanos) {
+        this.costs = costs;
+        this.itemCount = costs.length;
+        this.storeCount = storeCount;
+        this.storePenalty = Math.max(0, storePenalty);
+        this.maxStores = Math.max(0, Math.min(maxStores, storeCount));
+        this.exactMaxStores = exactMaxStores;
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    public Plan solve() {
+        best = new boolean[storeCount];
+        bestUncovered = itemCount;
+        bestCost = 0;
+        timedOut = false;
+
+        boolean[] chosen = greedy();
+        localSearch(chosen);
+        boolean optimal = false;
+        if (!timedOut && storeCount <= exactMaxStores) {
+            optimal = branchAndBound();
+        }
+        return plan(best, optimal);
+    }
+
+    /**
+     * Adds the store that improves the plan most until no addition improves it.
+     */
+    private boolean[] greedy() {
+        boolean[] chosen = new boolean[storeCount];
+        int count = 0;
+        offer(chosen);
+        while (count < maxStores && !expired()) {
+            int pick = -1;
+            for (int store = 0; store < storeCount && !expired(); store++) {
+                if (chosen[store]) continue;
+                chosen[store] = true;
+                if (offer(chosen)) pick = store;
+                chosen[store] = false;
+            }
+            if (pick < 0) break;
+            chosen[pick] = true;
+            count++;
+        }
+        return Arrays.copyOf(best, storeCount);
+    }
+
+    /**
+     * Applies improving drop, add and swap moves to the incumbent until none is left.
+     */
+    private void localSearch(boolean[] start) {
+        boolean[] chosen = Arrays.copyOf(start, storeCount);
+        boolean improved = true;
+        while (improved && !expired()) {
+            improved = false;
+            int count = 0;
+            for (boolean c : chosen) if (c) count++;
+            for (int out = 0; out < storeCount && !improved; out++) {
+                if (!chosen[out]) continue;
+                chosen[out] = false;
+                if (offer(chosen)) {
+                    improved = true;
+                    break;
+                }
+                for (int in = 0; in < storeCount && !improved && !expired(); in++) {
+                    if (chosen[in] || in == out) continue;
+                    chosen[in] = true;
+                    if (offer(chosen)) improved = true;
+                    else chosen[in] = false;
+                }
+                if (!improved) chosen[out] = true;
+            }
+            for (int in = 0; in < storeCount && !improved && count < maxStores && !expired(); in++) {
+                if (chosen[in]) continue;
+                chosen[in] = true;
+                if (offer(chosen)) improved = true;
+                else chosen[in] = false;
+            }
+        }
+    }
+
+    /**
+     * Depth-first over the stores in index order, each either chosen or skipped.
+     *
+     * @return true if the whole tree was searched, so the incumbent is optimal.
+     */
+    private boolean branchAndBound() {
+        // suffixMin[k][item]: the cheapest cost of the item among stores k and later.
+        double[][] suffixMin = new double[storeCount + 1][itemCount];
+        Arrays.fill(suffixMin[storeCount], Double.POSITIVE_INFINITY);
+        for (int store = storeCount - 1; store >= 0; store--) {
+            for (int item = 0; item < itemCount; item++) {
+                suffixMin[store][item] = Math.min(suffixMin[store + 1][item], costs[item][store]);
+            }
+        }
+        double[][] chosenMin = new double[storeCount + 1][itemCount];
+        Arrays.fill(chosenMin[0], Double.POSITIVE_INFINITY);
+        boolean[] chosen = new boolean[storeCount];
+        search(0, 0, chosen, chosenMin, suffixMin);
+        return !timedOut;
+    }
+
+    private void search(int store, int count, boolean[] chosen, double[][] chosenMin, double[][] suffixMin) {
+        if (++steps % DEADLINE_CHECK_INTERVAL == 0 && expired()) return;
+        if (timedOut) return;
+        double[] current = chosenMin[store];
+
+        // The plan that stops choosing here.
+        int uncovered = 0;
+        double cost = count * storePenalty;
+        // Bound for every plan below this node: remaining stores are free and each item gets its cheapest offer.
+        int boundUncovered = 0;
+        double bound = count * storePenalty;
+        boolean canAdd = count < maxStores;
+        for (int item = 0; item < itemCount; item++) {
+            double own = current[item];
+            if (own == Double.POSITIVE_INFINITY) uncovered++;
+            else cost += own;
+            double optimistic = canAdd ? Math.min(own, suffixMin[store][item]) : own;
+            if (optimistic == Double.POSITIVE_INFINITY) boundUncovered++;
+            else bound += optimistic;
+        }
+        accept(chosen, uncovered, cost);
+        if (store == storeCount || !canAdd || !better(boundUncovered, bound, bestUncovered, bestCost)) return;
+
+        double[] next = chosenMin[store + 1];
+        for (int item = 0; item < itemCount; item++) next[item] = Math.min(current[item], costs[item][store]);
+        chosen[store] = true;
+        search(store + 1, count + 1, chosen, chosenMin, suffixMin);
+        chosen[store] = false;
+
+        System.arraycopy(current, 0, next, 0, itemCount);
+        search(store + 1, count, chosen, chosenMin, suffixMin);
+    }
+
+    /**
+     * Evaluates a set of stores and makes it the incumbent if it beats it.
+     *
+     * @return true if it did.
+     */
+    private boolean offer(boolean[] chosen) {
+        int[] stores = new int[storeCount];
+        int count = 0;
+        for (int store = 0; store < storeCount; store++) {
+            if (chosen[store]) stores[count++] = store;
+        }
+        int uncovered = 0;
+        double cost = count * storePenalty;
+        for (int item = 0; item < itemCount; item++) {
+            double[] itemCosts = costs[item];
+            double cheapest = Double.POSITIVE_INFINITY;
+            for (int i = 0; i < count; i++) cheapest = Math.min(cheapest, itemCosts[stores[i]]);
+            if (cheapest == Double.POSITIVE_INFINITY) uncovered++;
+            else cost += cheapest;
+        }
+        return accept(chosen, uncovered, cost);
+    }
+
+    private boolean accept(boolean[] chosen, int uncovered, double cost) {
+        if (!better(uncovered, cost, bestUncovered, bestCost)) return false;
+        System.arraycopy(chosen, 0, best, 0, storeCount);
+        bestUncovered = uncovered;
+        bestCost = cost;
+        return true;
+    }
+
+    // A relative tolerance keeps rounding noise in the sums from counting as an improvement.
+    private static boolean better(int uncovered, double cost, int otherUncovered, double otherCost) {
+        if (uncovered != otherUncovered) return uncovered < otherUncovered;
+        return cost < otherCost - 1e-9 * Math.max(1, Math.abs(otherCost));
+    }
+
+    private boolean expired() {
+        if (!timedOut && System.nanoTime() - deadlineNanos >= 0) timedOut = true;
+        return timedOut;
+    }
+
+    private Plan plan(boolean[] stores, boolean optimal) {
+        int[] assignment = new int[itemCount];
+        double itemsCost = 0;
+        for (int item = 0; item < itemCount; item++) {
+            assignment[item] = -1;
+            for (int store = 0; store < storeCount; store++) {
+                if (stores[store] && costs[item][store] != Double.POSITIVE_INFINITY
+                        && (assignment[item] < 0 || costs[item][store] < costs[item][assignment[item]])) {
+                    assignment[item] = store;
+                }
+            }
+            if (assignment[item] >= 0) itemsCost += costs[item][assignment[item]];
+        }
+        // Only stores that end up with an item are visited; a chosen store buying nothing is never cheaper.
+        int visited = 0;
+        boolean[] used = new boolean[storeCount];
+        for (int store : assignment) {
+            if (store >= 0 && !used[store]) {
+                used[store] = true;
+                visited++;
+            }
+        }
+        return new Plan(assignment, itemsCost, visited, optimal);
+    }
+
+    /**
+     * The outcome of {@link #solve()}.
+     */
+    public static final class Plan {
+        private final int[] assignment;
+        private final double itemsCost;
+        private final int storesVisited;
+        private final boolean optimal;
+
+        Plan(int[] assignment, double itemsCost, int storesVisited, boolean optimal) {
+            this.assignment = assignment;
+            this.itemsCost = itemsCost;
+            this.storesVisited = storesVisited;
+            this.optimal = optimal;
+        }
+
+        /** @return The store each item is bought at, or -1 if no chosen store sells it. */
+        public int storeOf(int item) { return assignment[item]; }
+        public double getItemsCost() { return itemsCost; }
+        public int getStoresVisited() { return storesVisited; }
+        /** @return true if no other plan is better, false if the deadline cut the search short. */
+        public boolean isOptimal() { return optimal; }
+    }
+}
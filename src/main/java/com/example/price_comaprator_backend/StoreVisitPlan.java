@@ -0,0 +1,35 @@
+package com.example.price_comaprator_backend;
+
+import java.util.List;
+
+public class StoreVisitPlan {
+    private List<OptimizedShoppingList> storeLists;
+    private List<String> unavailableItems;
+    private int storesVisited;
+    private double itemsCost;
+    private double storeVisitCost;
+    private double totalCost;
+    private boolean optimal;
+
+    public StoreVisitPlan(List<OptimizedShoppingList> storeLists, List<String> unavailableItems, int storesVisited,
+                          double itemsCost, double storeVisitCost, boolean optimal) {
+        this.storeLists = storeLists;
+        this.unavailableItems = unavailableItems;
+        this.storesVisited = storesVisited;
+        this.itemsCost = itemsCost;
+        this.storeVisitCost = storeVisitCost;
+        this.totalCost = itemsCost + storeVisitCost;
+        this.optimal = optimal;
+    }
+
+    public List<OptimizedShoppingList> getStoreLists() { return storeLists; }
+    /** Normalized names of the basket items that no visited store sells. */
+    public List<String> getUnavailableItems() { return unavailableItems; }
+    public int getStoresVisited() { return storesVisited; }
+    public double getItemsCost() { return itemsCost; }
+    /** The per-visit penalty times the number of stores visited. */
+    public double getStoreVisitCost() { return storeVisitCost; }
+    public double getTotalCost() { return totalCost; }
+    /** False if the solve hit its time budget and returned the best plan found so far. */
+    public boolean isOptimal() { return optimal; }
+}
@@ -0,0 +1,109 @@
+package com.example.price_comaprator_backend;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Immutable mapping between the distinct values of a repetitive text attribute (brand, store, unit, name token, ...)
+ * and dense int codes. Every catalog snapshot builds its own dictionaries from the rows it holds, so a dictionary
+ * never keeps values that left the catalog and its codes are only meaningful within that snapshot.
+ */
+public final class StringDictionary {
+
+    /** Code of a null value. */
+    public static final int NO_CODE = -1;
+
+    private static final StringDictionary EMPTY = new StringDictionary(List.of(), Map.of());
+
+    private final List<String> values;
+    private final Map<String, Integer> codes;
+
+    private StringDictionary(List<String> values, Map<String, Integer> codes) {
+        this.values = values;
+        this.codes = codes;
+    }
+
+    public static StringDictionary empty() {
+        return EMPTY;
+    }
+
+    /**
+     * @return The code of {@code value}, or {@link #NO_CODE} if it is null or not in the dictionary.
+     */
+    public int code(String value) {
+        if (value == null) return NO_CODE;
+        Integer code = codes.get(value);
+        return code == null ? NO_CODE : code;
+    }
+
+    /**
+     * @return The canonical instance of the value with this code, or null for {@link #NO_CODE}.
+     */
+    public String value(int code) {
+        return code == NO_CODE ? null : values.get(code);
+    }
+
+    public int size() {
+        return values.size();
+    }
+
+    /**
+     * @return The codes of every value accepted by {@code predicate}, e.g. to turn a case-insensitive filter
+     * into a bit lookup per row.
+     */
+    public BitSet codesMatching(Predicate<String> predicate) {
+        BitSet matching = new BitSet(values.size());
+        for (int code = 0; code < values.size(); code++) {
+            if (predicate.test(values.get(code))) matching.set(code);
+        }
+        return matching;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Collects the values of a new dictionary. Not thread-safe; used while a single snapshot is being assembled.
+     */
+    public static final class Builder {
+        private List<String> values = new ArrayList<>();
+        private Map<String, Integer> codes = new HashMap<>();
+
+        private Builder() {}
+
+        /**
+         * @return The code of {@code value}, assigning the next free code if it is new.
+         */
+        public int encode(String value) {
+            if (values == null) throw new IllegalStateException("Dictionary already built.");
+            if (value == null) return NO_CODE;
+            Integer code = codes.get(value);
+            if (code == null) {
+                code = values.size();
+                values.add(value);
+                codes.put(value, code);
+            }
+            return code;
+        }
+
+        public String value(int code) {
+            return code == NO_CODE ? null : values.get(code);
+        }
+
+        /**
+         * Hands the collected values to the dictionary without copying them; the builder cannot be used afterwards.
+         */
+        public StringDictionary build() {
+            StringDictionary built = new StringDictionary(Collections.unmodifiableList(values), Collections.unmodifiableMap(codes));
+            values = null;
+            codes = null;
+            return built;
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.price_comaprator_backend;
+
+import java.text.Normalizer;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * The one normalization applied to product names and user queries before they are compared, so that the catalog
+ * side (precomputed once per snapshot) and the query side always agree.
+ * <p>
+ * {@link #normalize(String)} runs in a single pass over the input through a fold table covering Latin-1 and
+ * Latin Extended-A/B, which includes the Romanian letters (ă, â, î, ș, ț, the legacy cedilla forms ş and ţ,
+ * and their uppercase variants). Text with characters outside the table, which is rare in the feeds, goes through
+ * the equivalent {@link Normalizer}-based path, so both paths always produce the same result.
+ */
+public final class TextNormalizer {
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}");
+    private static final Pattern NON_ALPHANUMERIC = Pattern.compile("[^a-z0-9\\s]");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final String[] NO_TOKENS = new String[0];
+
+    // Fold table entries besides the folded character itself.
+    private static final int TABLE_SIZE = 0x250;
+    private static final char DROP = 0;
+    private static final char SPACE = ' ';
+    private static final char UNICODE_PATH = '\uFFFF';
+    private static final char[] FOLD = buildFoldTable();
+
+    private static final int MAX_SCRATCH_LENGTH = 1024;
+    private static final ThreadLocal<char[]> SCRATCH = ThreadLocal.withInitial(() -> new char[128]);
+
+    private TextNormalizer() {}
+
+    /**
+     * Normalizes a string for consistent searching and comparison:
+     * folds diacritics to the base letter, lowercases, removes everything that is not a letter a-z, a digit or
+     * whitespace, trims, and collapses runs of whitespace into a single space.
+     * Already-normalized input is returned as is, without allocating.
+     *
+     * @return The normalized text, or an empty string for null.
+     */
+    public static String normalize(String s) {
+        if (s == null) return "";
+        int length = s.length();
+        char[] out = length <= MAX_SCRATCH_LENGTH ? scratch(length) : new char[length];
+        int n = 0;
+        boolean pendingSpace = false;
+        for (int i = 0; i < length; i++) {
+            char c = s.charAt(i);
+            char folded = c < TABLE_SIZE ? FOLD[c] : UNICODE_PATH;
+            if (folded == UNICODE_PATH) return normalizeUnicode(s);
+            if (folded == DROP) continue;
+            if (folded == SPACE) {
+                // Leading whitespace is trimmed; inner runs become one space once the next kept character shows up.
+                pendingSpace = n > 0;
+                continue;
+            }
+            if (pendingSpace) {
+                out[n++] = ' ';
+                pendingSpace = false;
+            }
+            out[n++] = folded;
+        }
+        return n == length && sameChars(s, out) ? s : new String(out, 0, n);
+    }
+
+    private static boolean sameChars(String s, char[] chars) {
+        for (int i = 0; i < s.length(); i++) {
+            if (s.charAt(i) != chars[i]) return false;
+        }
+        return true;
+    }
+
+    /**
+     * @param normalized Text already passed through {@link #normalize(String)}.
+     * @return The distinct words of the text, in order of first appearance.
+     */
+    public static String[] tokens(String normalized) {
+        if (normalized == null || normalized.isEmpty()) return NO_TOKENS;
+        Set<String> tokens = new LinkedHashSet<>();
+        int start = 0;
+        for (int i = 0; i <= normalized.length(); i++) {
+            if (i == normalized.length() || normalized.charAt(i) == ' ') {
+                if (i > start) tokens.add(normalized.substring(start, i));
+                start = i + 1;
+            }
+        }
+        return tokens.toArray(NO_TOKENS);
+    }
+
+    /**
+     * The reference implementation of {@link #normalize(String)}:
+     * 1. Decomposes accented characters to base character + combining diacritical mark.
+     * 2. Removes all diacritical marks.
+     * 3. Converts to lowercase.
+     * 4. Removes characters that are not lowercase letters, digits, or whitespace.
+     * 5. Trims leading/trailing whitespace.
+     * 6. Replaces multiple consecutive whitespace characters with a single space.
+     */
+    static String normalizeUnicode(String s) {
+        if (s == null) return "";
+        String normalized = Normalizer.normalize(s, Normalizer.Form.NFD);
+        normalized = COMBINING_MARKS.matcher(normalized).replaceAll("");
+        normalized = normalized.toLowerCase(Locale.ROOT);
+        normalized = NON_ALPHANUMERIC.matcher(normalized).replaceAll("");
+        normalized = normalized.trim();
+        return WHITESPACE.matcher(normalized).replaceAll(" ");
+    }
+
+    private static char[] scratch(int length) {
+        char[] buffer = SCRATCH.get();
+        if (buffer.length < length) {
+            buffer = new char[Math.min(MAX_SCRATCH_LENGTH, Math.max(length, buffer.length * 2))];
+            SCRATCH.set(buffer);
+        }
+        return buffer;
+    }
+
+    /**
+     * Derives the per-character fold from the reference steps once, so the fast path cannot drift from them.
+     */
+    private static char[] buildFoldTable() {
+        char[] table = new char[TABLE_SIZE];
+        for (char c = 0; c < TABLE_SIZE; c++) {
+            if (WHITESPACE.matcher(String.valueOf(c)).matches()) {
+                table[c] = SPACE;
+                continue;
+            }
+            String folded = Normalizer.normalize(String.valueOf(c), Normalizer.Form.NFD);
+            folded = COMBINING_MARKS.matcher(folded).replaceAll("").toLowerCase(Locale.ROOT);
+            folded = NON_ALPHANUMERIC.matcher(folded).replaceAll("");
+            if (folded.isEmpty()) {
+                table[c] = DROP;
+            } else if (folded.length() == 1 && folded.charAt(0) != SPACE) {
+                table[c] = folded.charAt(0);
+            } else {
+                table[c] = UNICODE_PATH;
+            }
+        }
+        return table;
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.price_comaprator_backend;
+
+import java.util.Arrays;
+
+/**
+ * Token-set similarity over interned name tokens. Every token of a catalog name is given an id by the snapshot's
+ * token dictionary ({@link CatalogDictionaries#getTokens()}), and a token set is stored as a sorted {@code int[]}
+ * of distinct ids, so intersections are a linear merge of two arrays with no hashing and no allocation.
+ * <p>
+ * Query tokens that are not in the dictionary cannot match any product, but still count towards the size of the
+ * query's token set; {@link #queryTokenIds} gives them distinct negative ids for that.
+ */
+public final class TokenSimilarity {
+
+    public static final int[] NO_TOKENS = new int[0];
+
+    private TokenSimilarity() {}
+
+    /**
+     * Interns catalog name tokens, adding new ones to the dictionary being built.
+     *
+     * @param tokens Distinct tokens, see {@link TextNormalizer#tokens(String)}.
+     * @return The sorted token ids.
+     */
+    static int[] encode(String[] tokens, StringDictionary.Builder dictionary) {
+        if (tokens.length == 0) return NO_TOKENS;
+        int[] ids = new int[tokens.length];
+        for (int i = 0; i < tokens.length; i++) {
+            ids[i] = dictionary.encode(tokens[i]);
+        }
+        Arrays.sort(ids);
+        return ids;
+    }
+
+    /**
+     * Looks up query tokens without extending the dictionary.
+     *
+     * @param tokens Distinct tokens, see {@link TextNormalizer#tokens(String)}.
+     * @return The sorted token ids, with a distinct negative id for every token the dictionary does not know.
+     */
+    public static int[] queryTokenIds(String[] tokens, StringDictionary dictionary) {
+        if (tokens.length == 0) return NO_TOKENS;
+        int[] ids = new int[tokens.length];
+        int unknown = 0;
+        for (int i = 0; i < tokens.length; i++) {
+            int id = dictionary.code(tokens[i]);
+            ids[i] = id == StringDictionary.NO_CODE ? -(++unknown) : id;
+        }
+        Arrays.sort(ids);
+        return ids;
+    }
+
+    /**
+     * @return The number of ids present in both sorted arrays.
+     */
+    public static int intersectionSize(int[] a, int[] b) {
+        int i = 0, j = 0, common = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                common++;
+                i++;
+                j++;
+            }
+        }
+        return common;
+    }
+
+    /**
+     * @return Whether the two sorted arrays share at least one id.
+     */
+    public static boolean intersects(int[] a, int[] b) {
+        int i = 0, j = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return The Jaccard similarity of the two sorted token id sets, or 0 if either is empty.
+     */
+    public static double jaccard(int[] a, int[] b) {
+        if (a.length == 0 || b.length == 0) return 0.0;
+        return jaccard(a.length, b.length, intersectionSize(a, b));
+    }
+
+    /**
+     * @return The Jaccard similarity of two sets of the given sizes sharing {@code intersectionSize} elements.
+     */
+    public static double jaccard(int sizeA, int sizeB, int intersectionSize) {
+        return (double) intersectionSize / (sizeA + sizeB - intersectionSize);
+    }
+}
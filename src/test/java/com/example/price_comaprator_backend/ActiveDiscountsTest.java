@@ -0,0 +1,126 @@
+package com.example.price_comaprator_backend;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Checks that the next day's {@link ActiveDiscounts} is built on the standby set, leaving the published set
+ * untouched, and that a chain of rollovers agrees with sets and price tables built from scratch.
+ */
+class ActiveDiscountsTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 5, 8);
+
+    @Test
+    void copyForLeavesThePublishedSetUntouched() {
+        Random random = new Random(8);
+        List<Product> products = TestCatalog.randomProducts(random, 20);
+        List<Discount> discounts = TestCatalog.randomDiscounts(random, products, 40, DAY, 10);
+        ActiveDiscounts published = new ActiveDiscounts(discounts, DAY);
+        for (int row = 0; row < 30; row++) published.activate(row);
+        published.publishRankings();
+        List<Discount> before = published.discounts();
+        List<Discount> bestBefore = published.getRankings().top(10, null, null);
+        BasketItem item = new BasketItem(discounts.get(0).getProductName(), discounts.get(0).getBrand(), 1,
+                discounts.get(0).getSource());
+        List<Discount> itemBefore = published.discountsFor(item);
+
+        ActiveDiscounts next = published.copyFor(DAY.plusDays(1));
+        for (int row = 0; row < 10; row++) next.expire(row);
+        for (int row = 30; row < 40; row++) next.activate(row);
+        next.publishRankings();
+
+        assertEquals(DAY, published.getDay());
+        assertEquals(before, published.discounts());
+        assertEquals(bestBefore, published.getRankings().top(10, null, null));
+        assertEquals(itemBefore, published.discountsFor(item));
+        assertEquals(DAY.plusDays(1), next.getDay());
+        assertEquals(discounts.subList(10, 40), next.discounts());
+    }
+
+    @Test
+    void rolloversMatchAFreshBuildAndOnlyTouchChangedKeys() {
+        Random random = new Random(22);
+        List<Product> products = TestCatalog.randomProducts(random, 150);
+        CatalogSnapshot snapshot = TestCatalog.snapshot(products,
+                TestCatalog.randomDiscounts(random, products, 300, DAY, 20), null);
+        List<Discount> discounts = snapshot.getDiscounts();
+
+        ActiveDiscounts live = new ActiveDiscounts(discounts, DAY);
+        live.activateAll(activeRows(discounts, DAY));
+        live.publishRankings();
+        ActiveDiscounts standby = live.copyFor(DAY);
+        EffectivePriceTable prices = new EffectivePriceTable(snapshot, live.discounts(), DAY);
+        int[] lastChanged = new int[0];
+
+        for (LocalDate day = DAY.plusDays(1); day.isBefore(DAY.plusDays(30)); day = day.plusDays(1)) {
+            List<Integer> changed = new ArrayList<>();
+            for (int row = 0; row < discounts.size(); row++) {
+                if (discounts.get(row).isActiveOn(day) != discounts.get(row).isActiveOn(day.minusDays(1))) changed.add(row);
+            }
+            int[] changedRows = changed.stream().mapToInt(Integer::intValue).toArray();
+
+            ActiveDiscounts next = standby;
+            next.catchUp(live, lastChanged);
+            next.moveTo(day);
+            for (int row : changedRows) {
+                if (discounts.get(row).isActiveOn(day)) next.activate(row);
+                else next.expire(row);
+            }
+            next.publishRankings();
+            EffectivePriceTable nextPrices = new EffectivePriceTable(prices, snapshot, next, changedRows, day);
+
+            List<Discount> expected = snapshot.getDiscountValidity().activeOn(day);
+            ActiveDiscounts fresh = ActiveDiscounts.of(day, expected);
+            assertEquals(expected, next.discounts(), day.toString());
+            assertEquals(fresh.getRankings().top(100, null, null), next.getRankings().top(100, null, null), day.toString());
+            for (Discount discount : discounts) {
+                BasketItem item = new BasketItem(discount.getProductName(), discount.getBrand(), 1, discount.getSource());
+                assertEquals(fresh.discountsFor(item), next.discountsFor(item), day.toString());
+            }
+            assertSamePrices(new EffectivePriceTable(snapshot, expected, day), nextPrices, products.size());
+
+            // Keys without a changed row keep the very arrays of the previous day.
+            Set<String> changedKeys = new HashSet<>();
+            for (int row : changedRows) changedKeys.add(DiscountKeys.keyOf(discounts.get(row)));
+            for (Discount discount : discounts) {
+                String key = DiscountKeys.keyOf(discount);
+                if (!changedKeys.contains(key) && live.rowsFor(key).length > 0) {
+                    assertSame(live.rowsFor(key), next.rowsFor(key), key);
+                }
+            }
+
+            standby = live;
+            live = next;
+            prices = nextPrices;
+            lastChanged = changedRows;
+        }
+    }
+
+    private static int[] activeRows(List<Discount> discounts, LocalDate day) {
+        List<Integer> rows = new ArrayList<>();
+        for (int row = 0; row < discounts.size(); row++) {
+            if (discounts.get(row).isActiveOn(day)) rows.add(row);
+        }
+        return rows.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static void assertSamePrices(EffectivePriceTable expected, EffectivePriceTable actual, int rows) {
+        assertEquals(expected.getDay(), actual.getDay());
+        assertEquals(expected.discountedRows(), actual.discountedRows());
+        for (int row = 0; row < rows; row++) {
+            assertEquals(expected.percentageOff(row), actual.percentageOff(row), "row " + row);
+            assertEquals(expected.price(row), actual.price(row), "row " + row);
+            assertEquals(expected.pricePerUnit(row), actual.pricePerUnit(row), "row " + row);
+        }
+    }
+}
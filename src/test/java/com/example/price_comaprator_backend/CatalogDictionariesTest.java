@@ -0,0 +1,65 @@
+package com.example.price_comaprator_backend;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CatalogDictionariesTest {
+
+    @Test
+    void dictionariesHoldOnlyTheValuesOfTheirSnapshot() {
+        Product kept = product("lapte zuzu", "Zuzu", "lidl");
+        Product dropped = product("paine alba", "Vel Pitar", "profi");
+        CatalogDictionaries first = CatalogDictionaries.encode(List.of(List.of(kept), List.of(dropped)));
+        assertEquals(2, first.getBrands().size());
+
+        // The feed holding "Vel Pitar" is gone and a new brand arrives: the old value is not carried over.
+        Product added = product("iaurt grecesc", "Olympus", "lidl");
+        CatalogDictionaries second = CatalogDictionaries.encode(List.of(List.of(kept), List.of(added)));
+
+        assertEquals(2, second.getBrands().size());
+        assertEquals(StringDictionary.NO_CODE, second.getBrands().code("Vel Pitar"));
+        assertEquals(1, second.getStores().size());
+        assertEquals("Zuzu", second.getBrands().value(second.getBrands().code("Zuzu")));
+        assertEquals(4, second.getTokens().size());
+    }
+
+    @Test
+    void columnsKeepTheCodesOfTheirOwnSnapshot() {
+        Product shared = product("lapte zuzu", "Zuzu", "lidl");
+        Product other = product("paine alba", "Vel Pitar", "profi");
+        List<Product> firstRows = List.of(other, shared);
+        CatalogDictionaries firstDictionaries = CatalogDictionaries.encode(List.of(firstRows));
+        ProductColumns first = new ProductColumns(firstRows, firstDictionaries);
+
+        // A later snapshot holding the shared row on its own codes it differently; the earlier columns are unaffected.
+        List<Product> secondRows = List.of(shared);
+        CatalogDictionaries secondDictionaries = CatalogDictionaries.encode(List.of(secondRows));
+        ProductColumns second = new ProductColumns(secondRows, secondDictionaries);
+
+        assertEquals(1, first.brandCode(1));
+        assertEquals("Zuzu", firstDictionaries.getBrands().value(first.brandCode(1)));
+        assertEquals(0, second.brandCode(0));
+        assertEquals("Zuzu", secondDictionaries.getBrands().value(second.brandCode(0)));
+        assertArrayEquals(new int[]{2, 3}, first.nameTokenIds(1));
+        assertArrayEquals(new int[]{0, 1}, second.nameTokenIds(0));
+    }
+
+    private static Product product(String name, String brand, String store) {
+        Product product = new Product();
+        product.setProductName(name);
+        product.setBrand(brand);
+        product.setSource(store);
+        product.setProductCategory("lactate");
+        product.setPackageQuantity("1");
+        product.setPackageUnit("l");
+        product.setPrice(10.0);
+        product.setCurrency("RON");
+        product.calculateStandardizedMetrics();
+        product.precomputeNameKeys();
+        return product;
+    }
+}
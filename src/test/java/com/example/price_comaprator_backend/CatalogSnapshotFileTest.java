@@ -0,0 +1,157 @@
+package com.example.price_comaprator_backend;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that a {@link CatalogSnapshotFile} restores exactly the rows it was written from, that stale, missing and
+ * unstamped feeds are not restored, that damaged or foreign files are rejected, and that {@link CatalogService}
+ * falls back to the CSV in every such case.
+ */
+class CatalogSnapshotFileTest {
+
+    private static final String PRODUCT_FEED = "test_2025-05-01.csv";
+    private static final String DISCOUNT_FEED = "test_discounts_2025-05-01.csv";
+    private static final CatalogSnapshotFile.FeedStamp PRODUCT_STAMP = new CatalogSnapshotFile.FeedStamp(1_746_000_000_000L, 4096);
+    private static final CatalogSnapshotFile.FeedStamp DISCOUNT_STAMP = new CatalogSnapshotFile.FeedStamp(1_746_000_500_000L, 512);
+
+    @Test
+    void roundTripRestoresIdenticalRowsAndStamps(@TempDir Path directory) throws IOException {
+        CatalogSnapshot snapshot = randomSnapshot(new Random(7));
+        Path file = directory.resolve("catalog.snapshot");
+        CatalogSnapshotFile.write(file, snapshot, Map.of(PRODUCT_FEED, PRODUCT_STAMP), Map.of(DISCOUNT_FEED, DISCOUNT_STAMP));
+
+        CatalogSnapshotFile stored = CatalogSnapshotFile.open(file);
+
+        assertEquals(productFields(snapshot.getProducts()), productFields(stored.products(PRODUCT_FEED, PRODUCT_STAMP)));
+        assertEquals(discountFields(snapshot.getDiscounts()), discountFields(stored.discounts(DISCOUNT_FEED, DISCOUNT_STAMP)));
+    }
+
+    @Test
+    void staleMissingAndUnstampedFeedsAreNotRestored(@TempDir Path directory) throws IOException {
+        CatalogSnapshot snapshot = randomSnapshot(new Random(8));
+        Path file = directory.resolve("catalog.snapshot");
+        CatalogSnapshotFile.write(file, snapshot, Map.of(PRODUCT_FEED, PRODUCT_STAMP), Map.of());
+
+        CatalogSnapshotFile stored = CatalogSnapshotFile.open(file);
+
+        assertNull(stored.products(PRODUCT_FEED, new CatalogSnapshotFile.FeedStamp(PRODUCT_STAMP.getLastModified() + 1, PRODUCT_STAMP.getSize())));
+        assertNull(stored.products(PRODUCT_FEED, new CatalogSnapshotFile.FeedStamp(PRODUCT_STAMP.getLastModified(), PRODUCT_STAMP.getSize() + 1)));
+        assertNull(stored.products(PRODUCT_FEED, null));
+        assertNull(stored.products("other_2025-05-01.csv", PRODUCT_STAMP));
+        // Written without a stamp, so never stored.
+        assertNull(stored.discounts(DISCOUNT_FEED, DISCOUNT_STAMP));
+    }
+
+    @Test
+    void foreignVersionMismatchedAndTruncatedFilesAreRejected(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("catalog.snapshot");
+        CatalogSnapshotFile.write(file, randomSnapshot(new Random(9)), Map.of(PRODUCT_FEED, PRODUCT_STAMP), Map.of(DISCOUNT_FEED, DISCOUNT_STAMP));
+        byte[] bytes = Files.readAllBytes(file);
+
+        Path foreign = directory.resolve("foreign.snapshot");
+        Files.writeString(foreign, "product_id;product_name\n", StandardCharsets.UTF_8);
+        assertThrows(IOException.class, () -> CatalogSnapshotFile.open(foreign));
+
+        Path otherVersion = directory.resolve("version.snapshot");
+        byte[] patched = bytes.clone();
+        ByteBuffer.wrap(patched).putInt(Integer.BYTES, ByteBuffer.wrap(bytes).getInt(Integer.BYTES) + 1);
+        Files.write(otherVersion, patched);
+        IOException versionError = assertThrows(IOException.class, () -> CatalogSnapshotFile.open(otherVersion));
+        assertTrue(versionError.getMessage().contains("format version"), versionError.getMessage());
+
+        Path truncated = directory.resolve("truncated.snapshot");
+        Files.write(truncated, Arrays.copyOf(bytes, bytes.length / 2));
+        assertThrows(IOException.class, () -> CatalogSnapshotFile.open(truncated));
+    }
+
+    @Test
+    void serviceFallsBackToCsvWhenTheSnapshotFileIsStaleOrCorrupt(@TempDir Path directory) throws IOException {
+        Path data = Files.createDirectories(directory.resolve("data"));
+        Path feed = data.resolve("lidl_2025-05-01.csv");
+        Files.writeString(feed, "product_id;product_name;product_category;brand;package_quantity;package_unit;price;currency\n"
+                + "P001;lapte zuzu;lactate;Zuzu;1;l;9.50;RON\n", StandardCharsets.UTF_8);
+        Path snapshotFile = directory.resolve("catalog.snapshot");
+
+        assertEquals(List.of(9.5), loadPrices(data, snapshotFile));
+        assertTrue(Files.isRegularFile(snapshotFile));
+        assertEquals(List.of(9.5), loadPrices(data, snapshotFile));
+
+        // A changed feed must be parsed again, not restored from the older section.
+        Files.writeString(feed, "product_id;product_name;product_category;brand;package_quantity;package_unit;price;currency\n"
+                + "P001;lapte zuzu;lactate;Zuzu;1;l;8.75;RON\n"
+                + "P002;paine alba;panificatie;Vel Pitar;0.5;kg;4.50;RON\n", StandardCharsets.UTF_8);
+        Files.setLastModifiedTime(feed, FileTime.fromMillis(System.currentTimeMillis() + 60_000));
+        assertEquals(List.of(8.75, 4.5), loadPrices(data, snapshotFile));
+
+        Files.write(snapshotFile, new byte[]{1, 2, 3});
+        assertEquals(List.of(8.75, 4.5), loadPrices(data, snapshotFile));
+    }
+
+    private static List<Double> loadPrices(Path data, Path snapshotFile) {
+        CatalogService service = new CatalogService(new CSVLoaderService(), new DiscountService(), 0L, 1,
+                data.toString(), snapshotFile.toString(), "inverted-index", 16, 2);
+        try {
+            service.start();
+            List<Double> prices = new ArrayList<>();
+            for (Product p : service.getSnapshot().getProducts()) prices.add(p.getPrice());
+            return prices;
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    private static CatalogSnapshot randomSnapshot(Random random) {
+        List<Product> products = TestCatalog.randomProducts(random, 200);
+        for (int i = 0; i < products.size(); i++) {
+            if (i % 3 == 0) products.get(i).setPriceDate(LocalDate.of(2025, 5, 1).plusDays(i % 10));
+        }
+        List<Discount> discounts = TestCatalog.randomDiscounts(random, products, 80, LocalDate.of(2025, 5, 1), 20);
+        Map<String, List<Product>> productFeeds = new LinkedHashMap<>();
+        productFeeds.put(PRODUCT_FEED, products);
+        Map<String, List<Discount>> discountFeeds = new LinkedHashMap<>();
+        discountFeeds.put(DISCOUNT_FEED, discounts);
+        return new CatalogSnapshot(1L, LocalDateTime.now(), productFeeds, discountFeeds,
+                CatalogDictionaries.encode(productFeeds.values()), null);
+    }
+
+    private static List<List<Object>> productFields(List<Product> products) {
+        List<List<Object>> fields = new ArrayList<>();
+        for (Product p : products) {
+            fields.add(Arrays.asList(p.getProductId(), p.getProductName(), p.getNormalizedName(), p.getProductCategory(),
+                    p.getBrand(), p.getPackageQuantity(), p.getPackageUnit(), p.getPrice(), p.getCurrency(), p.getSource(),
+                    p.getPriceDate(), p.getPricePerStandardUnit(), p.getStandardUnit(), p.getBaseUnitType()));
+        }
+        return fields;
+    }
+
+    private static List<List<Object>> discountFields(List<Discount> discounts) {
+        List<List<Object>> fields = new ArrayList<>();
+        for (Discount d : discounts) {
+            fields.add(Arrays.asList(d.getProductId(), d.getProductName(), d.getBrand(), d.getPackageUnit(),
+                    d.getProductCategory(), d.getSource(), d.getPackageQuantity(), d.getFromDate(), d.getToDate(),
+                    d.getPercentageOfDiscount()));
+        }
+        return fields;
+    }
+}
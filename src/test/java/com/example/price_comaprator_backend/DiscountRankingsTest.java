@@ -0,0 +1,132 @@
+package com.example.price_comaprator_backend;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks every scope of {@link DiscountRankings} against a brute-force ranking of the active discounts, after a mix
+ * of activations and expiries, and that a rollover re-ranks only the scopes it changed.
+ */
+class DiscountRankingsTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 5, 8);
+
+    @Test
+    void topMatchesBruteForceInEveryScope() {
+        Random random = new Random(23);
+        List<Product> products = TestCatalog.randomProducts(random, 60);
+        List<Discount> discounts = TestCatalog.randomDiscounts(random, products, 400, DAY, 10);
+        DiscountRankings rankings = new DiscountRankings(discounts);
+        boolean[] active = new boolean[discounts.size()];
+
+        for (int round = 0; round < 5; round++) {
+            for (int change = 0; change < 300; change++) {
+                int row = random.nextInt(discounts.size());
+                if (active[row]) rankings.expire(row);
+                else rankings.activate(row);
+                active[row] = !active[row];
+            }
+            rankings.publish();
+
+            List<String> stores = new ArrayList<>(List.of(TestCatalog.STORES));
+            stores.add(null);
+            List<String> categories = new ArrayList<>(List.of(TestCatalog.CATEGORIES));
+            categories.add(null);
+            for (String store : stores) {
+                for (String category : categories) {
+                    for (int limit : new int[]{0, 1, 5, 1000}) {
+                        assertEquals(bruteForce(discounts, active, limit, store, category),
+                                rankings.top(limit, store, category),
+                                "store " + store + ", category " + category + ", limit " + limit);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void scopesIgnoreCaseAndSurroundingWhitespace() {
+        Random random = new Random(24);
+        List<Product> products = TestCatalog.randomProducts(random, 30);
+        List<Discount> discounts = TestCatalog.randomDiscounts(random, products, 100, DAY, 10);
+        DiscountRankings rankings = new DiscountRankings(discounts);
+        for (int row = 0; row < discounts.size(); row++) rankings.activate(row);
+        rankings.publish();
+
+        assertEquals(rankings.top(10, "lidl", "lactate"), rankings.top(10, " LIDL ", "Lactate"));
+        assertEquals(rankings.top(10, null, null), rankings.top(10, " ", ""));
+    }
+
+    @Test
+    void rolloverOnlyReranksTheScopesOfItsChangedRows() {
+        Random random = new Random(25);
+        List<Product> products = TestCatalog.randomProducts(random, 60);
+        List<Discount> discounts = new ArrayList<>(TestCatalog.randomDiscounts(random, products, 300, DAY, 10));
+        Product milk = TestCatalog.product("lapte zuzu", "Zuzu", "lidl", "lactate", 5.0);
+        Product butter = TestCatalog.product("unt", "President", "lidl", "lactate", 9.0);
+        discounts.add(TestCatalog.discount(milk, DAY.plusDays(1), DAY.plusDays(5), 90));
+        discounts.add(TestCatalog.discount(butter, DAY.plusDays(1), DAY.plusDays(5), 95));
+
+        ActiveDiscounts live = new ActiveDiscounts(discounts, DAY);
+        int[] rows = new int[300];
+        for (int row = 0; row < rows.length; row++) rows[row] = row;
+        live.activateAll(rows);
+        live.publishRankings();
+        List<Discount> liveBest = live.getRankings().top(10, null, null);
+
+        // The standby copy ranks nothing again, and the next day's two discounts only change their own four scopes.
+        ActiveDiscounts next = live.copyFor(DAY.plusDays(1));
+        assertEquals(0, next.publishRankings());
+        next.activate(300);
+        next.activate(301);
+        assertEquals(4, next.publishRankings());
+
+        boolean[] active = new boolean[discounts.size()];
+        Arrays.fill(active, true);
+        List<String> stores = new ArrayList<>(List.of(TestCatalog.STORES));
+        stores.add(null);
+        List<String> categories = new ArrayList<>(List.of(TestCatalog.CATEGORIES));
+        categories.add(null);
+        for (String store : stores) {
+            for (String category : categories) {
+                assertEquals(bruteForce(discounts, active, 1000, store, category), next.getRankings().top(1000, store, category),
+                        "store " + store + ", category " + category);
+            }
+        }
+        assertEquals(List.of(discounts.get(301), discounts.get(300)), next.getRankings().top(2, "lidl", "lactate"));
+        assertEquals(liveBest, live.getRankings().top(10, null, null));
+    }
+
+    private static List<Discount> bruteForce(List<Discount> discounts, boolean[] active, int limit, String store, String category) {
+        Map<String, Integer> bestRowPerProduct = new LinkedHashMap<>();
+        for (int row = 0; row < discounts.size(); row++) {
+            Discount d = discounts.get(row);
+            if (!active[row]) continue;
+            if (store != null && !store.equalsIgnoreCase(d.getSource())) continue;
+            if (category != null && !category.equalsIgnoreCase(d.getProductCategory())) continue;
+            String product = (d.getProductName() + "_" + d.getBrand()).toLowerCase();
+            Integer best = bestRowPerProduct.get(product);
+            if (best == null || d.getPercentageOfDiscount() > discounts.get(best).getPercentageOfDiscount()) {
+                bestRowPerProduct.put(product, row);
+            }
+        }
+        List<Integer> rows = new ArrayList<>(bestRowPerProduct.values());
+        rows.sort(Comparator.<Integer>comparingInt(row -> -discounts.get(row).getPercentageOfDiscount())
+                .thenComparingInt(row -> row));
+        List<Discount> top = new ArrayList<>();
+        for (int i = 0; i < Math.min(Math.min(limit, DiscountRankings.MAX_RANKED), rows.size()); i++) {
+            top.add(discounts.get(rows.get(i)));
+        }
+        return top;
+    }
+}
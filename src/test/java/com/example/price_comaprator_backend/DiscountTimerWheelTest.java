@@ -0,0 +1,100 @@
+package com.example.price_comaprator_backend;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Checks that {@link DiscountTimerWheel} fires every event on its own day, including events several laps ahead
+ * that share a slot with earlier ones, and that a day's expiries fire before its activations.
+ */
+class DiscountTimerWheelTest {
+
+    private static final int SLOTS = 16;
+    private static final long START_DAY = 20_000;
+
+    @Test
+    void firesEachEventOnItsDayAcrossLaps() {
+        Random random = new Random(22);
+        DiscountTimerWheel wheel = new DiscountTimerWheel(SLOTS, START_DAY);
+        TreeMap<Long, List<String>> expected = new TreeMap<>();
+        for (int row = 0; row < 300; row++) {
+            long day = START_DAY + 1 + random.nextInt(SLOTS * 4);
+            if (random.nextBoolean()) {
+                wheel.scheduleActivation(day, row);
+                expected.computeIfAbsent(day, d -> new ArrayList<>()).add("+" + row);
+            } else {
+                wheel.scheduleExpiry(day, row);
+                expected.computeIfAbsent(day, d -> new ArrayList<>()).add("-" + row);
+            }
+        }
+        assertEquals(300, wheel.pending());
+
+        int remaining = 300;
+        for (long day = START_DAY + 1; day <= START_DAY + SLOTS * 4; day++) {
+            List<String> fired = new ArrayList<>();
+            int count = wheel.advanceTo(day, recorder(fired));
+            List<String> due = expected.getOrDefault(day, List.of());
+            assertEquals(sortedExpiriesFirst(due), sortedExpiriesFirst(fired), "day " + day);
+            assertEquals(expiriesFirst(fired), fired, "day " + day);
+            assertEquals(due.size(), count);
+            remaining -= count;
+            assertEquals(remaining, wheel.pending());
+        }
+        assertEquals(0, remaining);
+    }
+
+    @Test
+    void advancingSeveralDaysFiresEveryDayInBetween() {
+        DiscountTimerWheel wheel = new DiscountTimerWheel(SLOTS, START_DAY);
+        wheel.scheduleActivation(START_DAY + 3, 1);
+        wheel.scheduleExpiry(START_DAY + 3 + SLOTS, 1);
+        wheel.scheduleActivation(START_DAY + 3 + SLOTS * 2, 2);
+
+        List<String> fired = new ArrayList<>();
+        assertEquals(1, wheel.advanceTo(START_DAY + SLOTS, recorder(fired)));
+        assertEquals(2, wheel.advanceTo(START_DAY + SLOTS * 3, recorder(fired)));
+        assertEquals(List.of("+1", "-1", "+2"), fired);
+        assertEquals(START_DAY + SLOTS * 3, wheel.currentDay());
+    }
+
+    @Test
+    void rejectsEventsNotAfterTheCurrentDay() {
+        DiscountTimerWheel wheel = new DiscountTimerWheel(SLOTS, START_DAY);
+        assertThrows(IllegalArgumentException.class, () -> wheel.scheduleActivation(START_DAY, 0));
+        assertThrows(IllegalArgumentException.class, () -> wheel.scheduleExpiry(START_DAY - 1, 0));
+    }
+
+    private static DiscountTimerWheel.Handler recorder(List<String> fired) {
+        return new DiscountTimerWheel.Handler() {
+            @Override
+            public void activate(int row) {
+                fired.add("+" + row);
+            }
+
+            @Override
+            public void expire(int row) {
+                fired.add("-" + row);
+            }
+        };
+    }
+
+    private static List<String> sortedExpiriesFirst(List<String> events) {
+        List<String> sorted = new ArrayList<>(events);
+        sorted.sort(null);
+        return expiriesFirst(sorted);
+    }
+
+    private static List<String> expiriesFirst(List<String> events) {
+        List<String> ordered = new ArrayList<>();
+        for (String event : events) if (event.startsWith("-")) ordered.add(event);
+        for (String event : events) if (event.startsWith("+")) ordered.add(event);
+        return ordered;
+    }
+}
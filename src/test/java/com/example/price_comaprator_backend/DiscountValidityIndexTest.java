@@ -0,0 +1,84 @@
+package com.example.price_comaprator_backend;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the date queries of {@link DiscountValidityIndex} against a filter over every discount, including
+ * discounts with open start or end dates.
+ */
+class DiscountValidityIndexTest {
+
+    private static final LocalDate FIRST_DAY = LocalDate.of(2025, 5, 1);
+
+    @Test
+    void activeOnMatchesLinearFilter() {
+        Random random = new Random(21);
+        for (int size : new int[]{0, 1, 2, 7, 64, 500}) {
+            List<Discount> discounts = randomDiscounts(random, size);
+            DiscountValidityIndex index = new DiscountValidityIndex(discounts);
+            for (int offset = -5; offset <= 70; offset++) {
+                LocalDate day = FIRST_DAY.plusDays(offset);
+                assertEquals(activeOn(discounts, day), index.activeOn(day), "size " + size + ", day " + day);
+            }
+        }
+    }
+
+    @Test
+    void startedBetweenMatchesLinearFilter() {
+        Random random = new Random(22);
+        for (int size : new int[]{0, 1, 2, 7, 64, 500}) {
+            List<Discount> discounts = randomDiscounts(random, size);
+            DiscountValidityIndex index = new DiscountValidityIndex(discounts);
+            for (int query = 0; query < 200; query++) {
+                LocalDate from = FIRST_DAY.plusDays(random.nextInt(70) - 5);
+                LocalDate to = from.plusDays(random.nextInt(14) - 2);
+                assertEquals(startedBetween(discounts, from, to), index.startedBetween(from, to),
+                        "size " + size + ", " + from + ".." + to);
+            }
+        }
+    }
+
+    @Test
+    void openDatesCountAsAlwaysStartedAndNeverEnding() {
+        Product product = TestCatalog.product("lapte zuzu", "Zuzu", "lidl", "lactate", 9.5);
+        Discount open = TestCatalog.discount(product, null, null, 10);
+        Discount ended = TestCatalog.discount(product, FIRST_DAY, FIRST_DAY.plusDays(2), 20);
+        DiscountValidityIndex index = new DiscountValidityIndex(List.of(open, ended));
+
+        assertEquals(List.of(open), index.activeOn(LocalDate.of(1970, 1, 1)));
+        assertEquals(List.of(open, ended), index.activeOn(FIRST_DAY.plusDays(2)));
+        assertEquals(List.of(open), index.activeOn(LocalDate.of(2999, 1, 1)));
+        assertTrue(index.startedBetween(LocalDate.of(1970, 1, 1), FIRST_DAY.minusDays(1)).isEmpty());
+    }
+
+    private static List<Discount> randomDiscounts(Random random, int size) {
+        List<Product> products = TestCatalog.randomProducts(random, Math.max(1, size / 4));
+        return TestCatalog.randomDiscounts(random, products, size, FIRST_DAY, 60);
+    }
+
+    private static List<Discount> activeOn(List<Discount> discounts, LocalDate day) {
+        List<Discount> active = new ArrayList<>();
+        for (Discount d : discounts) {
+            boolean started = d.getFromDate() == null || !d.getFromDate().isAfter(day);
+            boolean notEnded = d.getToDate() == null || !d.getToDate().isBefore(day);
+            if (started && notEnded) active.add(d);
+        }
+        return active;
+    }
+
+    private static List<Discount> startedBetween(List<Discount> discounts, LocalDate from, LocalDate to) {
+        List<Discount> started = new ArrayList<>();
+        for (Discount d : discounts) {
+            if (d.getFromDate() != null && !d.getFromDate().isBefore(from) && !d.getFromDate().isAfter(to)) started.add(d);
+        }
+        return started;
+    }
+}
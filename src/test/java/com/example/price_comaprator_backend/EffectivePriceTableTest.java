@@ -0,0 +1,63 @@
+package com.example.price_comaprator_backend;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class EffectivePriceTableTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 5, 10);
+
+    private final Product milk = TestCatalog.product("lapte zuzu", "Zuzu", "lidl", "lactate", 5.30);
+    private final Product bread = TestCatalog.product("paine alba", "Vel Pitar", "lidl", "panificatie", 4.00);
+    private final Product butter = TestCatalog.product("unt", "President", "profi", "lactate", 10.00);
+    private final Product cheese = TestCatalog.product("branza telemea", "Hochland", "kaufland", "lactate", 4.00);
+
+    @Test
+    void discountedPricesRoundHalfUpInDecimal() {
+        assertEquals(5.04, EffectivePriceTable.discounted(5.30, 5));
+        assertEquals(7.5, EffectivePriceTable.discounted(10.0, 25));
+        assertEquals(10.0, EffectivePriceTable.discounted(10.0, 0));
+        assertEquals(0.0, EffectivePriceTable.discounted(10.0, 100));
+        assertEquals(Double.NaN, EffectivePriceTable.discounted(Double.NaN, 10));
+    }
+
+    @Test
+    void largestOverlappingDiscountWins() {
+        List<Discount> discounts = List.of(
+                TestCatalog.discount(butter, DAY, DAY, 10),
+                TestCatalog.discount(butter, DAY.minusDays(3), DAY.plusDays(3), 25),
+                TestCatalog.discount(milk, DAY, DAY, 5));
+        EffectivePriceTable prices = table(discounts);
+
+        assertEquals(5.04, prices.price(0));
+        assertEquals(5, prices.percentageOff(0));
+        assertEquals(4.00, prices.price(1));
+        assertEquals(0, prices.percentageOff(1));
+        assertEquals(7.50, prices.price(2));
+        assertEquals(7.50, prices.pricePerUnit(2), 1e-9);
+        assertEquals(25, prices.percentageOff(2));
+        assertEquals(2, prices.discountedRows());
+    }
+
+    @Test
+    void cheapestAndRowsAtOrBelowUseThePriceAfterDiscounts() {
+        EffectivePriceTable prices = table(List.of(TestCatalog.discount(butter, DAY, DAY, 60)));
+
+        // Butter costs 4.00 after 60% off, tying with bread and cheese; the earliest row wins the tie.
+        assertEquals(1, prices.cheapest(new int[]{3, 2, 1}));
+        assertEquals(-1, prices.cheapest(new int[0]));
+        assertArrayEquals(new int[]{1, 2, 3}, prices.rowsAtOrBelow(new int[]{3, 0, 2, 1}, 4.00));
+        assertArrayEquals(new int[]{0, 1, 2, 3}, prices.rowsAtOrBelow(new int[]{3, 0, 2, 1}, 5.30));
+        assertArrayEquals(new int[0], prices.rowsAtOrBelow(new int[]{3, 0, 2, 1}, 3.99));
+    }
+
+    private EffectivePriceTable table(List<Discount> activeDiscounts) {
+        CatalogSnapshot snapshot = TestCatalog.snapshot(List.of(milk, bread, butter, cheese), activeDiscounts, null);
+        return new EffectivePriceTable(snapshot, activeDiscounts, DAY);
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.price_comaprator_backend;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Checks that the streaming {@link FeedCsvParser} reads text fields exactly like the OpenCSV configuration it
+ * replaces, in particular around leading whitespace, where OpenCSV's {@code ignoreLeadingWhiteSpace} only applies
+ * in front of a quote.
+ */
+class FeedCsvParserTest {
+
+    private static final String PRODUCT_HEADER =
+            "product_id;product_name;product_category;brand;package_quantity;package_unit;price;currency\n";
+    private static final String DISCOUNT_HEADER =
+            "product_id;product_name;brand;package_quantity;package_unit;product_category;from_date;to_date;percentage_of_discount\n";
+
+    @Test
+    void unquotedFieldsKeepSurroundingWhitespaceLikeOpenCsv() throws Exception {
+        String csv = PRODUCT_HEADER
+                + "P001;  lapte zuzu;lactate; Zuzu;1.0;l;20.10;RON\n"
+                + "P002;\tpaine alba  ;panificatie;Vel Pitar ;0.5;kg; 4.50;RON\n";
+
+        List<Product> fast = FeedCsvParser.parseProducts(new StringReader(csv));
+        List<Product> openCsv = CSVLoaderService.parseProductsWithOpenCsv(new StringReader(csv));
+
+        assertEquals(productFields(openCsv), productFields(fast));
+        assertEquals("  lapte zuzu", fast.get(0).getProductName());
+    }
+
+    @Test
+    void unquotedDiscountFieldsKeepSurroundingWhitespaceLikeOpenCsv() throws Exception {
+        String csv = DISCOUNT_HEADER
+                + "P001;  lapte zuzu; Zuzu;1;l;lactate;2025-05-08;2025-05-14;10\n";
+
+        List<Discount> fast = FeedCsvParser.parseDiscounts(new StringReader(csv));
+        List<Discount> openCsv = DiscountService.parseDiscountsWithOpenCsv(new StringReader(csv));
+
+        assertEquals(discountFields(openCsv), discountFields(fast));
+    }
+
+    @Test
+    void quotedFieldWithLeadingWhitespaceIsLeftToOpenCsv() {
+        String csv = PRODUCT_HEADER + "P001;lapte zuzu;lactate;  \"Zuzu\";1.0;l;20.10;RON\n";
+
+        assertThrows(FeedCsvParser.FallbackRequiredException.class,
+                () -> FeedCsvParser.parseProducts(new StringReader(csv)));
+    }
+
+    @Test
+    void loaderMatchesOpenCsvOnQuotedFieldsWithLeadingWhitespace(@TempDir Path directory) throws IOException {
+        String csv = PRODUCT_HEADER
+                + "P001;\"  lapte zuzu\";lactate;  \"Zuzu\";1.0;l;20.10;RON\n"
+                + "P002;paine alba;panificatie; Vel Pitar;0.5;kg;4.50;RON\n";
+        Path feed = directory.resolve("lidl_2025-05-01.csv");
+        Files.writeString(feed, csv, StandardCharsets.UTF_8);
+
+        List<Product> loaded = new CSVLoaderService().loadProductsFromFile(feed, 1);
+        List<Product> openCsv = CSVLoaderService.parseProductsWithOpenCsv(new StringReader(csv));
+
+        assertEquals(productFields(openCsv), productFields(loaded));
+        assertEquals("Zuzu", loaded.get(0).getBrand());
+        assertEquals(" Vel Pitar", loaded.get(1).getBrand());
+    }
+
+    private static List<List<Object>> productFields(List<Product> products) {
+        List<List<Object>> fields = new ArrayList<>();
+        for (Product p : products) {
+            fields.add(List.of(String.valueOf(p.getProductId()), String.valueOf(p.getProductName()),
+                    String.valueOf(p.getProductCategory()), String.valueOf(p.getBrand()),
+                    String.valueOf(p.getPackageQuantity()), String.valueOf(p.getPackageUnit()),
+                    String.valueOf(p.getPrice()), String.valueOf(p.getCurrency())));
+        }
+        return fields;
+    }
+
+    private static List<List<Object>> discountFields(List<Discount> discounts) {
+        List<List<Object>> fields = new ArrayList<>();
+        for (Discount d : discounts) {
+            fields.add(List.of(String.valueOf(d.getProductId()), String.valueOf(d.getProductName()),
+                    String.valueOf(d.getBrand()), d.getPackageQuantity(), String.valueOf(d.getPackageUnit()),
+                    String.valueOf(d.getProductCategory()), String.valueOf(d.getFromDate()),
+                    String.valueOf(d.getToDate()), d.getPercentageOfDiscount()));
+        }
+        return fields;
+    }
+}
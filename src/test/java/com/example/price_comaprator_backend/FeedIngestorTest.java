@@ -0,0 +1,70 @@
+package com.example.price_comaprator_backend;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FeedIngestorTest {
+
+    @Test
+    void nestedCallsKeepInputOrderAndShareOnePool() {
+        int parallelism = 4;
+        int bound = Math.min(parallelism, FeedIngestor.defaultParallelism());
+        List<Integer> files = range(3 * parallelism);
+        Set<Thread> threads = ConcurrentHashMap.newKeySet();
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+
+        // Every "file" splits into chunks mapped with the full parallelism, like a large feed inside a directory load.
+        List<List<Integer>> results = FeedIngestor.mapInOrder(files, parallelism, file ->
+                FeedIngestor.mapInOrder(range(2 * parallelism), parallelism, chunk -> {
+                    threads.add(Thread.currentThread());
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    busyWait();
+                    running.decrementAndGet();
+                    return file * 1000 + chunk;
+                }));
+
+        for (int file = 0; file < files.size(); file++) {
+            List<Integer> chunks = results.get(file);
+            for (int chunk = 0; chunk < chunks.size(); chunk++) {
+                assertEquals(file * 1000 + chunk, chunks.get(chunk));
+            }
+        }
+        assertTrue(maxRunning.get() <= bound, "ran " + maxRunning.get() + " chunks at once");
+        assertTrue(threads.size() <= FeedIngestor.defaultParallelism(), "used " + threads.size() + " threads");
+    }
+
+    @Test
+    void failureIsRethrownUnchanged() {
+        IllegalArgumentException failure = new IllegalArgumentException("bad feed");
+        IllegalArgumentException thrown = assertThrows(IllegalArgumentException.class, () ->
+                FeedIngestor.mapInOrder(range(16), 4, input -> {
+                    if (input == 7) throw failure;
+                    return input;
+                }));
+        assertSame(failure, thrown);
+    }
+
+    private static List<Integer> range(int size) {
+        List<Integer> values = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) values.add(i);
+        return values;
+    }
+
+    private static void busyWait() {
+        long until = System.nanoTime() + 200_000;
+        while (System.nanoTime() < until) {
+            Thread.onSpinWait();
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.price_comaprator_backend;
+
+import java.io.Reader;
+import java.io.StringReader;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+
+/**
+ * Compares the streaming {@link FeedCsvParser} against the OpenCSV bean binding it replaces, on a synthetic
+ * product feed. Reports rows/sec and bytes allocated per row on the measuring thread.
+ * <p>
+ * Not part of the unit test run; start {@link #main(String[])} from the IDE, optionally passing the row count.
+ */
+public class FeedParserBenchmark {
+
+    private static final String[] CATEGORIES = {"lactate", "panificatie", "legume si fructe", "bauturi", "electronice"};
+    private static final String[] BRANDS = {"Zuzu", "Pilos", "Napolact", "Generic", "Apple", "Ursus"};
+    private static final String[] UNITS = {"l", "kg", "g", "ml", "buc"};
+
+    public static void main(String[] args) throws Exception {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        String feed = syntheticProductFeed(rows);
+        System.out.printf(Locale.ROOT, "Synthetic product feed: %d rows, %.1f MB%n", rows, feed.length() / 1_048_576.0);
+
+        for (int warmup = 0; warmup < 5; warmup++) {
+            FeedCsvParser.parseProducts(new StringReader(feed));
+            CSVLoaderService.parseProductsWithOpenCsv(new StringReader(feed));
+        }
+
+        measure("OpenCSV CsvToBean", rows, () -> CSVLoaderService.parseProductsWithOpenCsv(reader(feed)));
+        measure("FeedCsvParser", rows, () -> FeedCsvParser.parseProducts(reader(feed)));
+    }
+
+    private static Reader reader(String feed) {
+        return new StringReader(feed);
+    }
+
+    private static void measure(String label, int rows, Callable<List<Product>> parse) throws Exception {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        int iterations = 10;
+        long parsedRows = 0;
+
+        long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            parsedRows += parse.call().size();
+        }
+        long elapsedNanos = System.nanoTime() - start;
+        long allocated = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+
+        if (parsedRows != (long) rows * iterations) {
+            throw new IllegalStateException(label + " parsed " + parsedRows + " rows, expected " + (long) rows * iterations);
+        }
+        System.out.printf(Locale.ROOT, "%-20s %,12.0f rows/sec %,10.1f bytes/row%n",
+                label, parsedRows / (elapsedNanos / 1e9), allocated / (double) parsedRows);
+    }
+
+    private static String syntheticProductFeed(int rows) {
+        StringBuilder feed = new StringBuilder(rows * 64);
+        feed.append("product_id;product_name;product_category;brand;package_quantity;package_unit;price;currency\n");
+        for (int i = 0; i < rows; i++) {
+            feed.append('P').append(i).append(';')
+                    .append("produs ").append(i % 5_000).append(';')
+                    .append(CATEGORIES[i % CATEGORIES.length]).append(';')
+                    .append(BRANDS[i % BRANDS.length]).append(';')
+                    .append(i % 3 == 0 ? "1.0" : "0.5").append(';')
+                    .append(UNITS[i % UNITS.length]).append(';')
+                    .append(i % 100).append('.').append(i % 90 + 10).append(';')
+                    .append("RON\n");
+        }
+        return feed.toString();
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.price_comaprator_backend;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProductExistenceIndexTest {
+
+    private static final String[] BRANDS = {"Zuzu", "Olympus", "Napolact", "Jacobs", null};
+
+    private final Random random = new Random(31);
+
+    @Test
+    void answersLikeAScanOfTheCatalog() {
+        List<Product> products = TestCatalog.randomProducts(random, 1500);
+        for (Product product : products) {
+            product.setBrand(BRANDS[random.nextInt(BRANDS.length)]);
+            if (random.nextInt(8) == 0) product.setSource(null);
+        }
+        ProductExistenceIndex index = new ProductExistenceIndex(products);
+
+        for (int i = 0; i < 5_000; i++) {
+            String name = random.nextBoolean()
+                    ? vary(products.get(random.nextInt(products.size())).getProductName())
+                    : TestCatalog.randomName(random, 1 + random.nextInt(3));
+            String brand = random.nextInt(6) == 0 ? "Unknown" : vary(BRANDS[random.nextInt(BRANDS.length)]);
+            String store = random.nextInt(5) == 0 ? null : vary(TestCatalog.STORES[random.nextInt(TestCatalog.STORES.length)]);
+            assertEquals(scan(products, name, brand, store), index.contains(name, brand, store),
+                    "'" + name + "' / " + brand + " / " + store);
+        }
+    }
+
+    @Test
+    void bloomFilterHasNoFalseNegatives() {
+        BloomFilter filter = new BloomFilter(10_000, 10);
+        for (int i = 0; i < 10_000; i++) {
+            filter.add("key-" + i);
+        }
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain("key-" + i), "key-" + i);
+        }
+        int falsePositives = 0;
+        for (int i = 10_000; i < 110_000; i++) {
+            if (filter.mightContain("key-" + i)) falsePositives++;
+        }
+        // About 1% expected at 10 bits per key.
+        assertTrue(falsePositives < 2_000, falsePositives + " false positives in 100000");
+    }
+
+    /**
+     * The stream check the index replaced, trimming both sides as the index does.
+     */
+    private static boolean scan(List<Product> products, String name, String brand, String store) {
+        return products.stream().anyMatch(p ->
+                p.getProductName().trim().equalsIgnoreCase(name.trim()) &&
+                        (brand == null || p.getBrand() == null || p.getBrand().trim().equalsIgnoreCase(brand.trim())) &&
+                        (store == null || p.getSource() == null || p.getSource().trim().equalsIgnoreCase(store.trim())));
+    }
+
+    /**
+     * @return The value with random case and surrounding whitespace, or null for null.
+     */
+    private String vary(String value) {
+        if (value == null) return null;
+        String varied = random.nextBoolean() ? value.toUpperCase(Locale.ROOT) : value;
+        return random.nextBoolean() ? "  " + varied + " " : varied;
+    }
+}
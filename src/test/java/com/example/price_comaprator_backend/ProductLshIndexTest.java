@@ -0,0 +1,71 @@
+package com.example.price_comaprator_backend;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProductLshIndexTest {
+
+    private static final ProductLshIndex.Settings SETTINGS = new ProductLshIndex.Settings(16, 2);
+
+    private final Random random = new Random(15);
+    private final CatalogSnapshot snapshot = TestCatalog.snapshot(TestCatalog.randomProducts(random, 3000));
+    private final ProductColumns columns = snapshot.getProductColumns();
+    private final ProductTokenIndex exact = new ProductTokenIndex(columns, snapshot.getDictionaries().getTokens());
+    private final ProductLshIndex lsh = new ProductLshIndex(columns, SETTINGS);
+
+    @Test
+    void ranksItsCandidatesExactlyLikeTheTokenIndex() {
+        for (int i = 0; i < 500; i++) {
+            int[] query = randomQuery();
+            int[] candidates = lsh.candidates(query);
+            int[] expected = exact.bestMatches(query, 0.2, 10, row -> Arrays.binarySearch(candidates, row) >= 0);
+            assertArrayEquals(expected, lsh.bestMatches(query, 0.2, 10), "query " + Arrays.toString(query));
+        }
+    }
+
+    @Test
+    void recallsAlmostEverySimilarName() {
+        int similar = 0;
+        int found = 0;
+        for (int i = 0; i < 500; i++) {
+            int[] query = randomQuery();
+            int[] candidates = lsh.candidates(query);
+            for (int row : exact.bestMatches(query, 0.5, columns.size())) {
+                similar++;
+                if (Arrays.binarySearch(candidates, row) >= 0) found++;
+            }
+        }
+        // 16 bands of 2 find a row with similarity 0.5 with probability 1 - (1 - 0.25)^16, about 99%.
+        assertTrue(similar > 1000, "only " + similar + " similar rows");
+        assertTrue(found >= 0.97 * similar, "recalled " + found + " of " + similar);
+    }
+
+    @Test
+    void alwaysFindsIdenticalNames() {
+        List<Product> products = snapshot.getProducts();
+        for (int row = 0; row < products.size(); row += 7) {
+            int[] query = TokenSimilarity.queryTokenIds(products.get(row).getNameTokens(), snapshot.getDictionaries().getTokens());
+            assertTrue(Arrays.binarySearch(lsh.candidates(query), row) >= 0, "row " + row);
+        }
+    }
+
+    /**
+     * @return The tokens of a random product name, with some dropped and sometimes a word the catalog lacks.
+     */
+    private int[] randomQuery() {
+        String[] name = snapshot.getProducts().get(random.nextInt(columns.size())).getNameTokens();
+        List<String> tokens = new ArrayList<>();
+        for (String token : name) {
+            if (tokens.isEmpty() || random.nextInt(4) > 0) tokens.add(token);
+        }
+        if (random.nextInt(3) == 0) tokens.add("necunoscut" + random.nextInt(10));
+        return TokenSimilarity.queryTokenIds(tokens.toArray(new String[0]), snapshot.getDictionaries().getTokens());
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.price_comaprator_backend;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ProductSearchTreeTest {
+
+    private final Random random = new Random(17);
+
+    @Test
+    void findsExactlyTheNamesWithinTheDistance() {
+        Set<String> names = new TreeSet<>();
+        while (names.size() < 2000) {
+            names.add(typo(TestCatalog.randomName(random, 1 + random.nextInt(3))));
+        }
+        ProductSearchTree tree = new ProductSearchTree(names);
+        List<String> nameList = new ArrayList<>(names);
+
+        for (int i = 0; i < 300; i++) {
+            String query = random.nextBoolean() ? typo(nameList.get(random.nextInt(nameList.size())))
+                    : TestCatalog.randomName(random, 1 + random.nextInt(2));
+            int maxDistance = random.nextInt(4);
+
+            Map<String, Integer> expected = new TreeMap<>();
+            for (String name : names) {
+                int distance = levenshtein(query, name);
+                if (distance <= maxDistance) expected.put(name, distance);
+            }
+            Map<String, Integer> found = new TreeMap<>();
+            for (ProductSearchTree.Match match : tree.search(query, maxDistance)) {
+                found.put(match.getNormalizedName(), match.getDistance());
+            }
+            assertEquals(expected, found, "'" + query + "' within " + maxDistance);
+        }
+    }
+
+    @Test
+    void cappedDistanceMatchesFullDistance() {
+        int[][] scratch = new int[2][];
+        for (int i = 0; i < 2000; i++) {
+            String a = typo(TestCatalog.randomName(random, 1 + random.nextInt(2)));
+            String b = typo(TestCatalog.randomName(random, 1 + random.nextInt(2)));
+            int cap = random.nextInt(6);
+            assertEquals(Math.min(levenshtein(a, b), cap + 1), ProductSearchTree.distance(a, b, cap, scratch), a + " / " + b);
+        }
+    }
+
+    @Test
+    void emptyTreeFindsNothing() {
+        assertEquals(0, new ProductSearchTree(List.of()).search("lapte", 2).size());
+    }
+
+    /**
+     * @return The text with up to two random single-character edits.
+     */
+    private String typo(String text) {
+        StringBuilder edited = new StringBuilder(text);
+        for (int edits = random.nextInt(3); edits > 0 && edited.length() > 1; edits--) {
+            int at = random.nextInt(edited.length());
+            char letter = (char) ('a' + random.nextInt(26));
+            switch (random.nextInt(3)) {
+                case 0 -> edited.setCharAt(at, letter);
+                case 1 -> edited.insert(at, letter);
+                default -> edited.deleteCharAt(at);
+            }
+        }
+        return edited.toString();
+    }
+
+    private static int levenshtein(String a, String b) {
+        int[][] d = new int[a.length() + 1][b.length() + 1];
+        for (int i = 0; i <= a.length(); i++) d[i][0] = i;
+        for (int j = 0; j <= b.length(); j++) d[0][j] = j;
+        for (int i = 1; i <= a.length(); i++) {
+            for (int j = 1; j <= b.length(); j++) {
+                int substitution = d[i - 1][j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1);
+                d[i][j] = Math.min(substitution, Math.min(d[i - 1][j], d[i][j - 1]) + 1);
+            }
+        }
+        return d[a.length()][b.length()];
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.price_comaprator_backend;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ProductSuggestIndexTest {
+
+    private final Random random = new Random(18);
+
+    @Test
+    void returnsTheTopNamesOfThePrefixLikeASortedScan() {
+        CatalogSnapshot snapshot = TestCatalog.snapshot(TestCatalog.randomProducts(random, 4000));
+        ProductSuggestIndex index = snapshot.getSuggestIndex();
+        List<Product> products = snapshot.getProducts();
+
+        // Per normalized name: the display name of its first row and the stores selling it.
+        Map<String, String> displayNames = new LinkedHashMap<>();
+        Map<String, Set<String>> stores = new LinkedHashMap<>();
+        for (Product product : products) {
+            displayNames.putIfAbsent(product.getNormalizedName(), product.getProductName());
+            stores.computeIfAbsent(product.getNormalizedName(), name -> new HashSet<>()).add(product.getSource());
+        }
+        List<String> names = new ArrayList<>(displayNames.keySet());
+
+        for (int i = 0; i < 500; i++) {
+            String name = names.get(random.nextInt(names.size()));
+            String prefix = i % 50 == 0 ? "" : name.substring(0, random.nextInt(name.length() + 1));
+            int limit = 1 + random.nextInt(15);
+
+            List<String> matching = new ArrayList<>();
+            for (String candidate : names) {
+                if (candidate.startsWith(prefix)) matching.add(candidate);
+            }
+            matching.sort((a, b) -> stores.get(a).size() != stores.get(b).size()
+                    ? Integer.compare(stores.get(b).size(), stores.get(a).size()) : a.compareTo(b));
+            List<String> expected = new ArrayList<>();
+            for (String candidate : matching.subList(0, Math.min(limit, matching.size()))) {
+                expected.add(displayNames.get(candidate) + " @" + stores.get(candidate).size());
+            }
+
+            List<String> suggested = new ArrayList<>();
+            for (ProductSuggestIndex.Suggestion suggestion : index.suggest(prefix, limit)) {
+                suggested.add(suggestion.getProductName() + " @" + suggestion.getStoreCount());
+            }
+            assertEquals(expected, suggested, "prefix '" + prefix + "' limit " + limit);
+        }
+    }
+
+    @Test
+    void unknownPrefixAndZeroLimitSuggestNothing() {
+        ProductSuggestIndex index = TestCatalog.snapshot(TestCatalog.randomProducts(random, 100)).getSuggestIndex();
+        assertEquals(List.of(), index.suggest("qqq", 10));
+        assertEquals(List.of(), index.suggest("l", 0));
+        assertEquals(List.of(), TestCatalog.snapshot(List.of()).getSuggestIndex().suggest("", 5));
+    }
+}
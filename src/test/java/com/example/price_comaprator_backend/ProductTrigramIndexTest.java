@@ -0,0 +1,49 @@
+package com.example.price_comaprator_backend;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+class ProductTrigramIndexTest {
+
+    private final Random random = new Random(23);
+
+    @Test
+    void findsExactlyTheRowsAScanFinds() {
+        List<Product> products = TestCatalog.randomProducts(random, 2000);
+        // Repeated characters, where having every trigram of the query does not mean containing it.
+        products.add(TestCatalog.product("aaa", "Brand", "lidl", "lactate", 1.0));
+        products.add(TestCatalog.product("aaaa baaa", "Brand", "lidl", "lactate", 1.0));
+        products.add(TestCatalog.product("oua 10 buc", "Brand", "profi", "lactate", 1.0));
+        ProductColumns columns = TestCatalog.snapshot(products).getProductColumns();
+        ProductTrigramIndex index = new ProductTrigramIndex(columns);
+
+        for (String query : new String[]{"", "a", "aa", "aaa", "aaaa", "aaaaa", " ba", "10 b", "zzz", "lapte zuzu"}) {
+            assertArrayEquals(scan(columns, query), index.rowsContaining(query), "'" + query + "'");
+        }
+        for (int i = 0; i < 500; i++) {
+            String name = columns.name(random.nextInt(columns.size()));
+            String query;
+            if (random.nextInt(4) == 0 || name.isEmpty()) {
+                query = TestCatalog.randomName(random, 1 + random.nextInt(2));
+            } else {
+                int from = random.nextInt(name.length());
+                query = name.substring(from, from + 1 + random.nextInt(name.length() - from));
+            }
+            assertArrayEquals(scan(columns, query), index.rowsContaining(query), "'" + query + "'");
+        }
+    }
+
+    private static int[] scan(ProductColumns columns, String query) {
+        int[] rows = new int[columns.size()];
+        int count = 0;
+        for (int row = 0; row < columns.size(); row++) {
+            if (columns.name(row).contains(query)) rows[count++] = row;
+        }
+        return Arrays.copyOf(rows, count);
+    }
+}
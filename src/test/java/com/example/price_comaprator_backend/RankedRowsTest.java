@@ -0,0 +1,29 @@
+package com.example.price_comaprator_backend;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+class RankedRowsTest {
+
+    @Test
+    void hugeLimitOnlySizesForTheCandidates() {
+        RankedRows ranked = new RankedRows(Integer.MAX_VALUE, 3);
+        ranked.offer(4, 0.5, 2.0);
+        ranked.offer(1, 0.9, 3.0);
+        ranked.offer(2, 0.5, 1.0);
+        assertArrayEquals(new int[]{1, 2, 4}, ranked.toArray());
+    }
+
+    @Test
+    void keepsTheBestRowsByScoreThenPriceThenRow() {
+        RankedRows ranked = new RankedRows(3, 6);
+        ranked.offer(5, 0.2, 1.0);
+        ranked.offer(3, 0.8, 5.0);
+        ranked.offer(0, 0.8, 5.0);
+        ranked.offer(9, 0.8, 4.0);
+        ranked.offer(7, 0.1, 0.5);
+        ranked.offer(8, 0.3, 9.0);
+        assertArrayEquals(new int[]{9, 0, 3}, ranked.toArray());
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.price_comaprator_backend;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks {@link StoreVisitOptimizer} against an enumeration of every allowed set of stores on small random baskets:
+ * the exact search must find the optimum, and the heuristic phases alone must never report a plan worse than the
+ * one they return or claim optimality.
+ */
+class StoreVisitOptimizerTest {
+
+    private static final double TOLERANCE = 1e-6;
+
+    @Test
+    void exactSearchMatchesBruteForce() {
+        Random random = new Random(25);
+        for (int instance = 0; instance < 500; instance++) {
+            Instance in = Instance.random(random);
+            StoreVisitOptimizer.Plan plan = new StoreVisitOptimizer(in.costs, in.stores, in.penalty, in.maxStores,
+                    in.stores, farDeadline()).solve();
+            double[] optimum = bruteForce(in);
+
+            assertTrue(plan.isOptimal(), "instance " + instance);
+            assertEquals((int) optimum[0], uncovered(plan, in), "instance " + instance);
+            assertEquals(optimum[1], total(plan, in), TOLERANCE, "instance " + instance);
+            assertTrue(plan.getStoresVisited() <= in.maxStores, "instance " + instance);
+        }
+    }
+
+    @Test
+    void heuristicPlanIsConsistentAndNeverBetterThanOptimum() {
+        Random random = new Random(26);
+        for (int instance = 0; instance < 500; instance++) {
+            Instance in = Instance.random(random);
+            StoreVisitOptimizer.Plan plan = new StoreVisitOptimizer(in.costs, in.stores, in.penalty, in.maxStores,
+                    0, farDeadline()).solve();
+            double[] optimum = bruteForce(in);
+
+            assertFalse(plan.isOptimal(), "instance " + instance);
+            assertEquals(itemsCost(plan, in), plan.getItemsCost(), TOLERANCE, "instance " + instance);
+            int uncovered = uncovered(plan, in);
+            assertTrue(uncovered > optimum[0] || uncovered == optimum[0] && total(plan, in) >= optimum[1] - TOLERANCE,
+                    "instance " + instance);
+            assertTrue(plan.getStoresVisited() <= in.maxStores, "instance " + instance);
+        }
+    }
+
+    @Test
+    void expiredDeadlineStillReturnsAPlan() {
+        Instance in = Instance.random(new Random(27));
+        StoreVisitOptimizer.Plan plan = new StoreVisitOptimizer(in.costs, in.stores, in.penalty, in.maxStores,
+                in.stores, System.nanoTime() - 1).solve();
+
+        assertFalse(plan.isOptimal());
+        assertEquals(itemsCost(plan, in), plan.getItemsCost(), TOLERANCE);
+    }
+
+    /**
+     * @return The fewest uncovered items and, among plans leaving that many, the lowest items-plus-visits cost.
+     */
+    private static double[] bruteForce(Instance in) {
+        int bestUncovered = Integer.MAX_VALUE;
+        double bestCost = Double.POSITIVE_INFINITY;
+        for (int mask = 0; mask < 1 << in.stores; mask++) {
+            if (Integer.bitCount(mask) > in.maxStores) continue;
+            int uncovered = 0;
+            double cost = Integer.bitCount(mask) * in.penalty;
+            for (double[] itemCosts : in.costs) {
+                double cheapest = Double.POSITIVE_INFINITY;
+                for (int store = 0; store < in.stores; store++) {
+                    if ((mask >> store & 1) != 0) cheapest = Math.min(cheapest, itemCosts[store]);
+                }
+                if (cheapest == Double.POSITIVE_INFINITY) uncovered++;
+                else cost += cheapest;
+            }
+            if (uncovered < bestUncovered || uncovered == bestUncovered && cost < bestCost) {
+                bestUncovered = uncovered;
+                bestCost = cost;
+            }
+        }
+        return new double[]{bestUncovered, bestCost};
+    }
+
+    private static int uncovered(StoreVisitOptimizer.Plan plan, Instance in) {
+        int uncovered = 0;
+        for (int item = 0; item < in.costs.length; item++) if (plan.storeOf(item) < 0) uncovered++;
+        return uncovered;
+    }
+
+    private static double itemsCost(StoreVisitOptimizer.Plan plan, Instance in) {
+        double cost = 0;
+        for (int item = 0; item < in.costs.length; item++) {
+            if (plan.storeOf(item) >= 0) cost += in.costs[item][plan.storeOf(item)];
+        }
+        return cost;
+    }
+
+    private static double total(StoreVisitOptimizer.Plan plan, Instance in) {
+        return plan.getItemsCost() + plan.getStoresVisited() * in.penalty;
+    }
+
+    private static long farDeadline() {
+        return System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+    }
+
+    /**
+     * A basket of up to 8 items over up to 9 stores, each store selling an item with probability 0.7.
+     */
+    private static final class Instance {
+        private final double[][] costs;
+        private final int stores;
+        private final double penalty;
+        private final int maxStores;
+
+        private Instance(double[][] costs, int stores, double penalty, int maxStores) {
+            this.costs = costs;
+            this.stores = stores;
+            this.penalty = penalty;
+            this.maxStores = maxStores;
+        }
+
+        static Instance random(Random random) {
+            int items = 1 + random.nextInt(8);
+            int stores = 1 + random.nextInt(9);
+            double[][] costs = new double[items][stores];
+            for (double[] itemCosts : costs) {
+                for (int store = 0; store < stores; store++) {
+                    itemCosts[store] = random.nextInt(10) < 3
+                            ? Double.POSITIVE_INFINITY
+                            : (100 + random.nextInt(4900)) / 100.0;
+                }
+            }
+            double[] penalties = {0, 2.5, 10, 40};
+            return new Instance(costs, stores, penalties[random.nextInt(penalties.length)], 1 + random.nextInt(stores));
+        }
+    }
+}
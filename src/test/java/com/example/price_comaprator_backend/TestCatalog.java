@@ -0,0 +1,111 @@
+package com.example.price_comaprator_backend;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Small generated catalogs for the index tests: product names drawn from a fixed vocabulary, so names share tokens
+ * and prefixes the way real feeds do, and every result can be checked against a scan of the rows.
+ */
+final class TestCatalog {
+
+    static final String[] WORDS = {
+            "lapte", "zuzu", "iaurt", "grecesc", "paine", "alba", "feliata", "branza", "telemea", "vaca", "unt",
+            "cafea", "macinata", "jacobs", "ulei", "floarea", "soarelui", "apa", "minerala", "suc", "portocale",
+            "mere", "banane", "rosii", "cherry", "oua", "spaghete", "orez", "zahar", "faina", "detergent", "lichid"
+    };
+    static final String[] STORES = {"lidl", "kaufland", "profi", "altex"};
+    static final String[] CATEGORIES = {"lactate", "panificatie", "bauturi", "fructe", "legume", "menaj"};
+
+    private TestCatalog() {}
+
+    /**
+     * @return {@code count} products with names of one to four vocabulary words, in generation order.
+     */
+    static List<Product> randomProducts(Random random, int count) {
+        List<Product> products = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            products.add(product(randomName(random, 1 + random.nextInt(4)), "Brand" + random.nextInt(20),
+                    STORES[random.nextInt(STORES.length)], CATEGORIES[random.nextInt(CATEGORIES.length)],
+                    1 + random.nextInt(5000) / 100.0));
+        }
+        return products;
+    }
+
+    static String randomName(Random random, int words) {
+        StringBuilder name = new StringBuilder();
+        for (int w = 0; w < words; w++) {
+            if (w > 0) name.append(' ');
+            name.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return name.toString();
+    }
+
+    static Product product(String name, String brand, String store, String category, double price) {
+        Product product = new Product();
+        product.setProductId("P" + Math.abs(name.hashCode() % 1000));
+        product.setProductName(name);
+        product.setBrand(brand);
+        product.setSource(store);
+        product.setProductCategory(category);
+        product.setPackageQuantity("1");
+        product.setPackageUnit("kg");
+        product.setPrice(price);
+        product.setCurrency("RON");
+        product.calculateStandardizedMetrics();
+        product.precomputeNameKeys();
+        return product;
+    }
+
+    /**
+     * @return {@code count} discounts on random products, starting within {@code spanDays} days of {@code firstDay}
+     * and lasting up to three weeks; about one in ten has no start date and one in ten no end date.
+     */
+    static List<Discount> randomDiscounts(Random random, List<Product> products, int count, LocalDate firstDay, int spanDays) {
+        List<Discount> discounts = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Product product = products.get(random.nextInt(products.size()));
+            LocalDate from = firstDay.plusDays(random.nextInt(spanDays));
+            LocalDate to = from.plusDays(random.nextInt(21));
+            discounts.add(discount(product, random.nextInt(10) == 0 ? null : from, random.nextInt(10) == 0 ? null : to,
+                    5 + random.nextInt(8) * 5));
+        }
+        return discounts;
+    }
+
+    static Discount discount(Product product, LocalDate from, LocalDate to, int percentage) {
+        Discount discount = new Discount();
+        discount.setProductId(product.getProductId());
+        discount.setProductName(product.getProductName());
+        discount.setBrand(product.getBrand());
+        discount.setSource(product.getSource());
+        discount.setProductCategory(product.getProductCategory());
+        discount.setPackageQuantity(1);
+        discount.setPackageUnit("kg");
+        discount.setFromDate(from);
+        discount.setToDate(to);
+        discount.setPercentageOfDiscount(percentage);
+        return discount;
+    }
+
+    /**
+     * @return A snapshot of the given rows as a single product and a single discount feed.
+     */
+    static CatalogSnapshot snapshot(List<Product> products, List<Discount> discounts, ProductLshIndex.Settings lshSettings) {
+        Map<String, List<Product>> productFeeds = new LinkedHashMap<>();
+        productFeeds.put("test_2025-05-01.csv", products);
+        Map<String, List<Discount>> discountFeeds = new LinkedHashMap<>();
+        discountFeeds.put("test_discounts_2025-05-01.csv", discounts);
+        CatalogDictionaries dictionaries = CatalogDictionaries.encode(productFeeds.values());
+        return new CatalogSnapshot(1L, LocalDateTime.now(), productFeeds, discountFeeds, dictionaries, lshSettings);
+    }
+
+    static CatalogSnapshot snapshot(List<Product> products) {
+        return snapshot(products, List.of(), null);
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.price_comaprator_backend;
+
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+import java.util.function.UnaryOperator;
+
+/**
+ * Compares the single-pass {@link TextNormalizer#normalize(String)} against the Normalizer/regex reference
+ * implementation it replaced, on product-name-like strings with Romanian diacritics, punctuation and extra
+ * whitespace. Reports ns/call and bytes allocated per call on the measuring thread, and checks both agree.
+ * <p>
+ * Not part of the unit test run; start {@link #main(String[])} from the IDE, optionally passing the number of calls.
+ */
+public class TextNormalizerBenchmark {
+
+    private static final String[] NAMES = {
+            "Lapte Zuzu 1,5%", "Pâine albă feliată", "Șuncă presată  de porc", "Brânză telemea de vacă",
+            "Țelină rădăcină", "Iaurt grecesc 10% (Olympus)", "Ouă mărimea M - 10 buc.", "Cafea măcinată Jacobs",
+            "ŞNIŢEL DE PUI", "Apă minerală carbogazoasă", "Detergent lichid: Ariel", "Roșii cherry  ", "banane",
+            "lapte zuzu", "Ulei de floarea-soarelui 1L", "Spaghete nr. 5 Barilla", "Unt 82% Președint", "Făină albă 000"
+    };
+
+    public static void main(String[] args) {
+        int calls = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+
+        for (String name : NAMES) {
+            String reference = TextNormalizer.normalizeUnicode(name);
+            String fast = TextNormalizer.normalize(name);
+            if (!reference.equals(fast)) {
+                throw new IllegalStateException("'" + name + "' normalized to '" + fast + "', expected '" + reference + "'");
+            }
+        }
+
+        for (int warmup = 0; warmup < 5; warmup++) {
+            run(TextNormalizer::normalizeUnicode, calls / 10);
+            run(TextNormalizer::normalize, calls / 10);
+        }
+
+        measure("Normalizer + regex", calls, TextNormalizer::normalizeUnicode);
+        measure("Single-pass fold", calls, TextNormalizer::normalize);
+    }
+
+    private static long run(UnaryOperator<String> normalizer, int calls) {
+        long checksum = 0;
+        for (int i = 0; i < calls; i++) {
+            checksum += normalizer.apply(NAMES[i % NAMES.length]).length();
+        }
+        return checksum;
+    }
+
+    private static void measure(String label, int calls, UnaryOperator<String> normalizer) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+        long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        long checksum = run(normalizer, calls);
+        long elapsedNanos = System.nanoTime() - start;
+        long allocated = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+
+        System.out.printf(Locale.ROOT, "%-20s %10.1f ns/call %10.1f bytes/call (checksum %d)%n",
+                label, elapsedNanos / (double) calls, allocated / (double) calls, checksum);
+    }
+}
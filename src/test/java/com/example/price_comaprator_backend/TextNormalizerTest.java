@@ -0,0 +1,78 @@
+package com.example.price_comaprator_backend;
+
+import org.junit.jupiter.api.Test;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class TextNormalizerTest {
+
+    // Characters above the fold table: combining marks, Greek, Latin Extended Additional, Unicode spaces and
+    // punctuation, a ligature, fullwidth letters and a surrogate pair.
+    private static final String BEYOND_TABLE = "\u0301\u0327\u0391\u03b1\u1e9e\u1ea0\u1ef9\u2002\u200b\u2019\u2013"
+            + "\u3000\ufb01\uff21\uff41\ud83d\ude00";
+
+    @Test
+    void everyTableCharacterMatchesTheReference() {
+        for (char c = 0; c < 0x250; c++) {
+            for (String text : contexts(String.valueOf(c))) {
+                assertEquals(reference(text), TextNormalizer.normalize(text), "U+" + Integer.toHexString(c));
+            }
+        }
+    }
+
+    @Test
+    void charactersBeyondTheTableMatchTheReference() {
+        BEYOND_TABLE.codePoints().forEach(codePoint -> {
+            for (String text : contexts(Character.toString(codePoint))) {
+                assertEquals(reference(text), TextNormalizer.normalize(text), text);
+            }
+        });
+    }
+
+    @Test
+    void mixedTextMatchesTheReference() {
+        Random random = new Random(11);
+        String alphabet = "aZ0 \t\u00a0.,%-\u0103\u00e2\u00ee\u0219\u021b\u015f\u0163\u0102\u00c2\u00ce\u0218\u021a\u015e\u0162\u00e9\u00d6\u00df\u00e6"
+                + BEYOND_TABLE;
+        for (int i = 0; i < 5_000; i++) {
+            StringBuilder text = new StringBuilder();
+            int length = random.nextInt(20);
+            for (int j = 0; j < length; j++) {
+                char c = alphabet.charAt(random.nextInt(alphabet.length()));
+                // Keep surrogate pairs whole.
+                if (Character.isSurrogate(c)) text.append("\ud83d\ude00");
+                else text.append(c);
+            }
+            assertEquals(reference(text.toString()), TextNormalizer.normalize(text.toString()), text.toString());
+        }
+    }
+
+    @Test
+    void normalizedTextIsReturnedAsIs() {
+        String normalized = "paine alba feliata 500g";
+        assertSame(normalized, TextNormalizer.normalize(normalized));
+        assertEquals("", TextNormalizer.normalize(null));
+    }
+
+    private static String[] contexts(String c) {
+        return new String[]{c, "a" + c + "b", " " + c + "  x ", c + c + "1", "x " + c + " " + c + " y"};
+    }
+
+    /**
+     * The Normalizer and regex steps {@link TextNormalizer#normalize(String)} was derived from, kept here
+     * independently of the production fallback path.
+     */
+    private static String reference(String s) {
+        String normalized = Normalizer.normalize(s, Normalizer.Form.NFD);
+        normalized = normalized.replaceAll("\\p{M}", "");
+        normalized = normalized.toLowerCase(Locale.ROOT);
+        normalized = normalized.replaceAll("[^a-z0-9\\s]", "");
+        normalized = normalized.trim();
+        return normalized.replaceAll("\\s+", " ");
+    }
+}
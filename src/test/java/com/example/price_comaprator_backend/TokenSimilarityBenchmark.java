@@ -0,0 +1,122 @@
+package com.example.price_comaprator_backend;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Compares the merge-intersection Jaccard of {@link TokenSimilarity} over sorted token ids against the
+ * {@code HashSet<String>} version the basket optimizer used before, which rebuilt both token sets for every
+ * comparison. Every query is scored against every product name. Reports ns and bytes allocated per comparison
+ * on the measuring thread, and checks both agree.
+ * <p>
+ * Not part of the unit test run; start {@link #main(String[])} from the IDE, optionally passing the number of rounds.
+ */
+public class TokenSimilarityBenchmark {
+
+    private static final String[] NAMES = {
+            "Lapte Zuzu 1,5%", "Pâine albă feliată", "Șuncă presată de porc", "Brânză telemea de vacă",
+            "Țelină rădăcină", "Iaurt grecesc 10%", "Ouă mărimea M 10 buc", "Cafea măcinată Jacobs",
+            "Șnițel de pui", "Apă minerală carbogazoasă", "Detergent lichid Ariel", "Roșii cherry", "Banane",
+            "Lapte de vacă 3,5%", "Ulei de floarea-soarelui", "Spaghete nr 5 Barilla", "Unt 82%", "Făină albă 000",
+            "Iaurt de băut căpșuni", "Cafea boabe Lavazza", "Piept de pui", "Brânză de vaci", "Apă plată"
+    };
+    private static final String[] QUERIES = {
+            "lapte", "paine alba", "sunca porc", "branza", "iaurt grecesc", "cafea", "pui", "apa minerala plata",
+            "detergent", "rosii", "ulei floarea soarelui", "spaghete", "unt", "faina", "lapte de vaca"
+    };
+
+    public static void main(String[] args) {
+        int rounds = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+
+        StringDictionary.Builder dictionary = StringDictionary.builder();
+        String[][] nameTokens = new String[NAMES.length][];
+        int[][] nameIds = new int[NAMES.length][];
+        for (int i = 0; i < NAMES.length; i++) {
+            nameTokens[i] = TextNormalizer.tokens(TextNormalizer.normalize(NAMES[i]));
+            nameIds[i] = TokenSimilarity.encode(nameTokens[i], dictionary);
+        }
+        StringDictionary tokens = dictionary.build();
+        String[][] queryTokens = new String[QUERIES.length][];
+        int[][] queryIds = new int[QUERIES.length][];
+        for (int i = 0; i < QUERIES.length; i++) {
+            queryTokens[i] = TextNormalizer.tokens(TextNormalizer.normalize(QUERIES[i]));
+            queryIds[i] = TokenSimilarity.queryTokenIds(queryTokens[i], tokens);
+        }
+
+        for (int q = 0; q < QUERIES.length; q++) {
+            for (int n = 0; n < NAMES.length; n++) {
+                double reference = hashSetScore(Arrays.asList(queryTokens[q]), Arrays.asList(nameTokens[n]));
+                double merged = TokenSimilarity.jaccard(queryIds[q], nameIds[n]);
+                if (reference != merged) {
+                    throw new IllegalStateException("'" + QUERIES[q] + "' vs '" + NAMES[n] + "' scored " + merged + ", expected " + reference);
+                }
+            }
+        }
+
+        int comparisons = rounds * QUERIES.length * NAMES.length;
+        for (int warmup = 0; warmup < 5; warmup++) {
+            runHashSets(queryTokens, nameTokens, rounds / 10);
+            runMerge(queryIds, nameIds, rounds / 10);
+        }
+
+        measure("HashSet<String>", comparisons, () -> runHashSets(queryTokens, nameTokens, rounds));
+        measure("Sorted int[] merge", comparisons, () -> runMerge(queryIds, nameIds, rounds));
+    }
+
+    private static double runHashSets(String[][] queries, String[][] names, int rounds) {
+        double checksum = 0;
+        for (int round = 0; round < rounds; round++) {
+            for (String[] query : queries) {
+                for (String[] name : names) {
+                    checksum += hashSetScore(Arrays.asList(query), Arrays.asList(name));
+                }
+            }
+        }
+        return checksum;
+    }
+
+    private static double runMerge(int[][] queries, int[][] names, int rounds) {
+        double checksum = 0;
+        for (int round = 0; round < rounds; round++) {
+            for (int[] query : queries) {
+                for (int[] name : names) {
+                    checksum += TokenSimilarity.jaccard(query, name);
+                }
+            }
+        }
+        return checksum;
+    }
+
+    /**
+     * The similarity as previously computed in BasketOptimizationService.
+     */
+    private static double hashSetScore(List<String> tokens1, List<String> tokens2) {
+        if (tokens1.isEmpty() || tokens2.isEmpty()) return 0.0;
+        Set<String> set1 = new HashSet<>(tokens1);
+        Set<String> set2 = new HashSet<>(tokens2);
+        set1.remove(""); set2.remove("");
+        if (set1.isEmpty() || set2.isEmpty()) return 0.0;
+
+        long intersectionSize = set1.stream().filter(set2::contains).count();
+        long unionSize = set1.size() + set2.size() - intersectionSize;
+        return unionSize > 0 ? (double) intersectionSize / unionSize : 0.0;
+    }
+
+    private static void measure(String label, int comparisons, DoubleSupplier run) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+        long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        double checksum = run.getAsDouble();
+        long elapsedNanos = System.nanoTime() - start;
+        long allocated = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+
+        System.out.printf(Locale.ROOT, "%-20s %10.1f ns/comparison %10.1f bytes/comparison (checksum %.1f)%n",
+                label, elapsedNanos / (double) comparisons, allocated / (double) comparisons, checksum);
+    }
+}